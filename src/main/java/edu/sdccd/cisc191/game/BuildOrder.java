@@ -0,0 +1,116 @@
+package edu.sdccd.cisc191.game;
+
+import edu.sdccd.cisc191.subsystems.HashedWheelTimer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One or more ships waiting in, or moving through, a shipyard's build queue.
+ * Returned by Shipyard.buildShip and buildShips so callers can cancel or rush it later.
+ * A batch moves through the queue as a unit: its ships start, finish and are saved together.
+ */
+public class BuildOrder {
+    /**
+     * Enum representing how urgently a build is wanted; higher priorities leave the queue first.
+     */
+    public enum Priority {
+        LOW, NORMAL, HIGH
+    }
+
+    /**
+     * Enum representing where a build is in its life.
+     */
+    public enum Status {
+        QUEUED, BUILDING, COMPLETED, CANCELLED
+    }
+
+    private final Map<String, Integer> ships;   // ship type -> how many, in the order requested
+    private final int shipCount;
+    private final ResourceCost cost;            // what the shipyard debited, or null if the caller paid
+    private final PlayerInventory payer;        // who the cost was debited from, or null
+    private final Priority priority;
+    private final long sequence;      // order of arrival, to break ties within a priority
+    private final long buildMillis;
+
+    // Guarded by the owning shipyard's queue lock
+    private volatile Status status = Status.QUEUED;
+    private HashedWheelTimer.Timeout timeout;
+
+    BuildOrder(Map<String, Integer> ships, ResourceCost cost, PlayerInventory payer, Priority priority,
+               long sequence, long buildMillis) {
+        this.ships = Collections.unmodifiableMap(new LinkedHashMap<>(ships));
+        int count = 0;
+        for (int shipsOfType : ships.values()) {
+            count += shipsOfType;
+        }
+        this.shipCount = count;
+        this.cost = cost;
+        this.payer = payer;
+        this.priority = priority;
+        this.sequence = sequence;
+        this.buildMillis = buildMillis;
+    }
+
+    // The ship type, or null for a batch of mixed types
+    public String getShipType() {
+        return ships.size() == 1 ? ships.keySet().iterator().next() : null;
+    }
+
+    public Map<String, Integer> getShips() {
+        return ships;
+    }
+
+    public int getShipCount() {
+        return shipCount;
+    }
+
+    // What was debited when the order was placed, refunded to the payer on cancel; null if nothing was
+    public ResourceCost getCost() {
+        return cost;
+    }
+
+    PlayerInventory getPayer() {
+        return payer;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isDone() {
+        Status current = status;
+        return current == Status.COMPLETED || current == Status.CANCELLED;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void setStatus(Status status) {
+        this.status = status;
+    }
+
+    HashedWheelTimer.Timeout getTimeout() {
+        return timeout;
+    }
+
+    void setTimeout(HashedWheelTimer.Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String toString() {
+        String what = shipCount == 1 ? getShipType() : ships.toString();
+        return what + " (" + priority + ", " + status + ")";
+    }
+}
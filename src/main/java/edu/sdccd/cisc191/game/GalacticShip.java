@@ -46,6 +46,15 @@ public class GalacticShip implements Serializable {
         this.combatAbilities = new ArrayList<>();
     }
 
+    // Restores a ship as saved, possibly damaged; used by GameStateCodec
+    GalacticShip(String name, int health, int maxHealth, int attackPower) {
+        this.name = name;
+        this.health = health;
+        this.maxHealth = maxHealth;
+        this.attackPower = attackPower;
+        this.combatAbilities = new ArrayList<>();
+    }
+
     public String getName() {
         return name;
     }
@@ -1,6 +1,11 @@
 package edu.sdccd.cisc191.game;
 
+import edu.sdccd.cisc191.network.MultiplayerServer;
+import edu.sdccd.cisc191.network.NioMultiplayerServer;
+import edu.sdccd.cisc191.network.WorldState;
 import edu.sdccd.cisc191.subsystems.ExplorationSystem;
+import edu.sdccd.cisc191.subsystems.HashedWheelTimer;
+import edu.sdccd.cisc191.subsystems.ProductionEngine;
 import edu.sdccd.cisc191.subsystems.ResourceManagement;
 
 import javafx.animation.AnimationTimer;
@@ -16,17 +21,33 @@ import javafx.scene.layout.VBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.control.Button;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 // Main Game Class (Integrates JavaFX, Shipyard System, and Exploration System)
 public class Game extends Application {
+    private static final int SQUADRON_SIZE = 10;
+    private static final long PRODUCTION_TICK_MILLIS = 1000;
+    private static final String SAVE_FILE = "GalacticStrategy3/src/main/resources/galactic_game_state_csv";
+    private static final int HOST_PLAYER_ID = 0; // connection ids, which are the other players' ids, start at 1
+
     private Shipyard shipyard;
     private ExplorationSystem explorationSystem;
     private ResourceManagement resourceManagement;
+    private ProductionEngine productionEngine;
     private Player player;
     private PlayerInventory inventory;
+    private PersistenceWriter persistenceWriter;
+    private PersistenceWriter.Section<PlayerInventory> inventorySave;
+    private final Map<String, Planet> planets = new HashMap<>();
+    private WorldState hostedWorld;             // null unless started with --host
+    private NioMultiplayerServer hostedServer;
 
     private ListView<String> fleetListView;
     private Label statusLabel;
@@ -48,10 +69,28 @@ public class Game extends Application {
     public void start(Stage primaryStage) {
         // Initialize game components
         player = new Player("Captain");
-        shipyard = new Shipyard(ship -> player.addShip(ship));
+        Path worldFile = Paths.get(SAVE_FILE + ".world");
+        inventory = loadInventory(worldFile);
+        // One writer saves the fleet journal and the inventory together, off the FX thread
+        persistenceWriter = new PersistenceWriter(worldFile, 50,
+                PersistenceWriter.FsyncPolicy.INTERVAL, 1000, TimeUnit.MILLISECONDS);
+        inventorySave = persistenceWriter.register("inventory", inventory, GameStateCodec::writeInventory);
+        // Finished builds arrive on the FX thread, so the fleet list can refresh right away
+        shipyard = new Shipyard(ship -> {
+            player.addShip(ship);
+            updateFleetDisplay();
+        }, Shipyard.DEFAULT_BUILD_SLOTS, HashedWheelTimer.shared(), SAVE_FILE, persistenceWriter, Platform::runLater);
+        // A finished batch refreshes the fleet list once, not once per ship
+        shipyard.setOnBatchBuilt(ships -> {
+            ships.forEach(player::addShip);
+            updateFleetDisplay();
+        });
         explorationSystem = new ExplorationSystem();
         resourceManagement = new ResourceManagement();
-        inventory = new PlayerInventory();
+
+        // Passive income: the home planet produces every tick
+        productionEngine = new ProductionEngine();
+        productionEngine.registerPlayer(inventory, 1, 0);
 
         gameState = GameState.MENU;
 
@@ -68,9 +107,11 @@ public class Game extends Application {
         resourceLabel = new Label("Resources:\n" + inventory.displayResources());
 
         // Shipyard UI Buttons
-        Button buildFighterBtn = new Button("Build Fighter (10 Minerals, 5 Energy)");
-        Button buildCruiserBtn = new Button("Build Cruiser (15 Minerals, 7 Energy)");
-        Button buildBattleshipBtn = new Button("Build Battleship (20 Minerals, 10 Energy)");
+        Button buildFighterBtn = new Button("Build Fighter (" + shipyard.getShipCost("Fighter") + ")");
+        Button buildCruiserBtn = new Button("Build Cruiser (" + shipyard.getShipCost("Cruiser") + ")");
+        Button buildBattleshipBtn = new Button("Build Battleship (" + shipyard.getShipCost("Battleship") + ")");
+        Button buildSquadronBtn = new Button("Build " + SQUADRON_SIZE + " Fighters ("
+                + shipyard.getShipCost("Fighter").times(SQUADRON_SIZE) + ")");
         Button upgradeShipBtn = new Button("Upgrade Selected Ship");
 
         // Resource Gathering Button
@@ -81,12 +122,17 @@ public class Game extends Application {
         Button exploreBtn = new Button("Explore Planet");
         planetSelector = new ComboBox<>();
         planetSelector.getItems().addAll("Mars", "Jupiter", "Neptune", "Alpha Centauri", "Andromeda");
+        // Planets live for the whole game so their deposits deplete and regenerate between visits
+        for (String planetName : planetSelector.getItems()) {
+            planets.put(planetName, new Planet(planetName));
+        }
         planetSelector.setValue("Mars");
 
         // Assign button actions
-        buildFighterBtn.setOnAction(e -> buildShip("Fighter", 10, 5));
-        buildCruiserBtn.setOnAction(e -> buildShip("Cruiser", 15, 7));
-        buildBattleshipBtn.setOnAction(e -> buildShip("Battleship", 20, 10));
+        buildFighterBtn.setOnAction(e -> buildShips("Fighter", 1));
+        buildCruiserBtn.setOnAction(e -> buildShips("Cruiser", 1));
+        buildBattleshipBtn.setOnAction(e -> buildShips("Battleship", 1));
+        buildSquadronBtn.setOnAction(e -> buildShips("Fighter", SQUADRON_SIZE));
         upgradeShipBtn.setOnAction(e -> upgradeSelectedShip());
         exploreBtn.setOnAction(e -> exploreSelectedPlanet());
 
@@ -95,7 +141,7 @@ public class Game extends Application {
         VBox layout = new VBox(10);
         layout.getChildren().addAll(
                 statusLabel, fleetListView, buildFighterBtn, buildCruiserBtn,
-                buildBattleshipBtn, upgradeShipBtn, gatherDilithiumBtn,
+                buildBattleshipBtn, buildSquadronBtn, upgradeShipBtn, gatherDilithiumBtn,
                 planetSelector, exploreBtn, gameLog, resourceLabel
         );
 
@@ -115,38 +161,68 @@ public class Game extends Application {
             }
         };
         gameLoop.start();
+
+        // --host: this game also runs the NIO server, and its players are kept in sync with this game's state
+        if (getParameters().getRaw().contains("--host")) {
+            startHosting();
+        }
+
+        productionEngine.setOnTick(() -> {
+            inventorySave.markDirty();
+            publishWorld();
+            Platform.runLater(() -> resourceLabel.setText("Resources:\n" + inventory.displayResources()));
+        });
+        productionEngine.start(PRODUCTION_TICK_MILLIS);
     }
 
-    // Corrected this method:
-    private boolean canUseResources(int mineralsCost, int energyCost) {
-        return inventory.getResourceAmount("Minerals") >= mineralsCost &&
-                inventory.getResourceAmount("Energy") >= energyCost;
+    private void startHosting() {
+        hostedWorld = new WorldState();
+        hostedWorld.updateBoard(new GameBoard());
+        publishWorld();
+        try {
+            hostedServer = MultiplayerServer.startNio(hostedWorld);
+        } catch (IOException e) {
+            System.err.println("Could not host a multiplayer game: " + e.getMessage());
+            hostedWorld = null;
+        }
     }
 
-    private void buildShip(String shipType, int mineralsCost, int energyCost) {
-        if (inventory == null || !canUseResources(mineralsCost, energyCost)) {
-            statusLabel.setText("Not enough resources to build " + shipType);
-            return;
+    // Copies the fleet and resources into the hosted world; only changed values are sent on
+    // Other players see the fleet's total health; the inventory, like every player's, only reaches its owner
+    private void publishWorld() {
+        WorldState world = hostedWorld;
+        if (world != null) {
+            world.updateFleet(HOST_PLAYER_ID, shipyard.getPlayerFleet());
+            world.updateInventory(HOST_PLAYER_ID, inventory);
         }
+    }
 
-        // Deduct resources once (previous code mistakenly called useResource twice)
-        boolean mineralsUsed = inventory.useResource("Minerals", mineralsCost);
-        boolean energyUsed = inventory.useResource("Energy", energyCost);
+    // Restores the inventory from the last world save, or starts empty
+    private PlayerInventory loadInventory(Path worldFile) {
+        if (Files.exists(worldFile)) {
+            try (SnapshotFile world = PersistenceWriter.openWorld(worldFile)) {
+                ByteBuffer saved = world.get("inventory");
+                if (saved != null) {
+                    return GameStateCodec.readInventory(saved);
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error loading inventory: " + e.getMessage());
+            }
+        }
+        return new PlayerInventory();
+    }
 
-        if (!mineralsUsed || !energyUsed) {
-            statusLabel.setText("Resource usage error building " + shipType);
+    private void buildShips(String shipType, int count) {
+        // The shipyard debits the whole order at once, so concurrent builds can never leave a half-paid batch
+        Map<String, Integer> order = new HashMap<>();
+        order.put(shipType, count);
+        if (inventory == null || shipyard.buildShips(order, BuildOrder.Priority.NORMAL, inventory) == null) {
+            statusLabel.setText("Not enough resources to build " + count + " " + shipType);
             return;
         }
+        statusLabel.setText("Building " + count + " " + shipType + "... (" + shipyard.getQueuedBuildCount() + " waiting)");
 
-        statusLabel.setText("Building " + shipType + "...");
-
-        shipyard.buildShip(shipType);
-
-        // Build the ship and update UI after delay - fixed parentheses and method syntax
-        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
-        executor.schedule(() -> Platform.runLater(this::updateFleetDisplay), 2, TimeUnit.SECONDS);
-        executor.shutdown();
-
+        inventorySave.markDirty();
         // Update resource display immediately after resource deduction
         resourceLabel.setText("Resources:\n" + inventory.displayResources());
     }
@@ -205,16 +281,21 @@ public class Game extends Application {
     }
 
     private void gatherDilithium() {
-        resourceManagement.gatherResources(player, "Dilithium", inventory);
+        Planet planet = planets.get(planetSelector.getValue());
+        int gathered = resourceManagement.gatherResources(player, planet, ResourceType.DILITHIUM, inventory);
+        inventorySave.markDirty();
+        gameLog.appendText("Gathered " + gathered + " Dilithium on " + planet.getName() + " ("
+                + planet.getDeposit(ResourceType.DILITHIUM) + " left)\n");
         resourceLabel.setText("Resources:\n" + inventory.displayResources());
     }
 
     private void exploreSelectedPlanet() {
         String planetName = planetSelector.getValue();
-        Planet planet = new Planet(planetName);
+        Planet planet = planets.get(planetName);
 
         gameLog.appendText("Exploring " + planetName + "...\n");
         explorationSystem.explorePlanet(player, planet, inventory);
+        inventorySave.markDirty();
 
         updateFleetDisplay();
         resourceLabel.setText("Resources:\n" + inventory.displayResources());
@@ -222,6 +303,16 @@ public class Game extends Application {
 
     @Override
     public void stop() {
-        shipyard.shutdown();
+        shipyard.shutdown(); // refunds builds that didn't finish
+        productionEngine.shutdown();
+        inventorySave.markDirty();
+        persistenceWriter.close(); // final commit of anything still dirty, refunds included
+        if (hostedServer != null) {
+            try {
+                hostedServer.close();
+            } catch (IOException e) {
+                System.err.println("Error stopping the multiplayer server: " + e.getMessage());
+            }
+        }
     }
 }
@@ -18,6 +18,12 @@ public class GameBoard implements Serializable{
         initializeBoard();
     }
 
+    // Restores a board as saved; used by GameStateCodec
+    GameBoard(int[][] planets, int[][] resourceCosts) {
+        this.planets = planets;
+        this.resourceCosts = resourceCosts;
+    }
+
     /**
      * Initializes the game board with default values.
      * Planets are set to 0 (empty), and resource costs are set to default values.
@@ -0,0 +1,253 @@
+package edu.sdccd.cisc191.game;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+    /*
+     * Features added:
+     * Hand-written binary format for ships, players, the board, resources and inventories
+     * Reads and writes ByteBuffers directly: no reflection, no class descriptors, no lock objects on disk
+     * Every record starts with a version and a length, so the format can grow without breaking old saves
+     */
+
+/*
+ * Record layout: [short version][int body length][body]
+ * Schema evolution rules:
+ *   New fields are only ever appended to a body, and the version goes up.
+ *   A reader skips whatever is left of a body after the fields it knows (newer writer, older reader).
+ *   A field that lies past the end of a body reads as its default (older writer, newer reader).
+ *   A change that can't follow these rules needs a new version that readers branch on.
+ * Records nest: a player's body holds its ships' records.
+ */
+public final class GameStateCodec {
+    public static final short SHIP_VERSION = 1;
+    public static final short PLAYER_VERSION = 1;
+    public static final short BOARD_VERSION = 1;
+    public static final short RESOURCE_VERSION = 1;
+    public static final short INVENTORY_VERSION = 1;
+
+    private static final int HEADER_BYTES = Short.BYTES + Integer.BYTES;
+
+    private GameStateCodec() {
+    }
+
+    // ===== GalacticShip =====
+
+    public static void writeShip(ByteBuffer out, GalacticShip ship) {
+        int start = beginRecord(out, SHIP_VERSION);
+        writeString(out, ship.getName());
+        out.putInt(ship.getHealth());
+        out.putInt(ship.getMaxHealth());
+        out.putInt(ship.getAttackPower());
+        int abilities = 0;
+        for (GalacticShip.CombatAbility ability : ship.getCombatAbilities()) {
+            abilities |= 1 << ability.ordinal();
+        }
+        out.putInt(abilities);
+        endRecord(out, start);
+    }
+
+    public static GalacticShip readShip(ByteBuffer in) {
+        int end = beginRead(in, SHIP_VERSION);
+        String name = readString(in, end);
+        int health = readInt(in, end, 0);
+        int maxHealth = readInt(in, end, health);
+        int attackPower = readInt(in, end, 0);
+        int abilities = readInt(in, end, 0);
+        GalacticShip ship = new GalacticShip(name, health, maxHealth, attackPower);
+        for (GalacticShip.CombatAbility ability : GalacticShip.CombatAbility.values()) {
+            if ((abilities & (1 << ability.ordinal())) != 0) {
+                ship.addCombatAbility(ability);
+            }
+        }
+        in.position(end);
+        return ship;
+    }
+
+    // ===== Player =====
+
+    public static void writePlayer(ByteBuffer out, Player player) {
+        int start = beginRecord(out, PLAYER_VERSION);
+        writeString(out, player.getName());
+        List<GalacticShip> fleet = player.getFleet();
+        out.putInt(fleet.size());
+        for (GalacticShip ship : fleet) {
+            writeShip(out, ship);
+        }
+        endRecord(out, start);
+    }
+
+    public static Player readPlayer(ByteBuffer in) {
+        int end = beginRead(in, PLAYER_VERSION);
+        String name = readString(in, end);
+        int ships = readInt(in, end, 0);
+        List<GalacticShip> fleet = new ArrayList<>(ships);
+        for (int i = 0; i < ships; i++) {
+            fleet.add(readShip(in));
+        }
+        in.position(end);
+        return new Player(name, fleet);
+    }
+
+    // ===== GameBoard =====
+
+    public static void writeBoard(ByteBuffer out, GameBoard board) {
+        int start = beginRecord(out, BOARD_VERSION);
+        int[][] planets = board.getPlanets();
+        int[][] costs = board.getResourceCosts();
+        int rows = planets.length;
+        int cols = rows == 0 ? 0 : planets[0].length;
+        out.putInt(rows);
+        out.putInt(cols);
+        for (int[] row : planets) {
+            for (int cell : row) {
+                out.putInt(cell);
+            }
+        }
+        for (int[] row : costs) {
+            for (int cell : row) {
+                out.putInt(cell);
+            }
+        }
+        endRecord(out, start);
+    }
+
+    public static GameBoard readBoard(ByteBuffer in) {
+        int end = beginRead(in, BOARD_VERSION);
+        int rows = readInt(in, end, 0);
+        int cols = readInt(in, end, 0);
+        int[][] planets = new int[rows][cols];
+        int[][] costs = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                planets[i][j] = readInt(in, end, 0);
+            }
+        }
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                costs[i][j] = readInt(in, end, 1);
+            }
+        }
+        in.position(end);
+        return new GameBoard(planets, costs);
+    }
+
+    // ===== Resource =====
+
+    public static void writeResource(ByteBuffer out, Resource resource) {
+        int start = beginRecord(out, RESOURCE_VERSION);
+        writeString(out, resource.getName());
+        out.putInt(resource.getAmount());
+        endRecord(out, start);
+    }
+
+    public static Resource readResource(ByteBuffer in) {
+        int end = beginRead(in, RESOURCE_VERSION);
+        String name = readString(in, end);
+        int amount = readInt(in, end, 0);
+        in.position(end);
+        return new Resource(name, amount);
+    }
+
+    // ===== PlayerInventory =====
+
+    // Amounts are stored by ResourceType ordinal, so new resource types can only be added at the end
+    public static void writeInventory(ByteBuffer out, PlayerInventory inventory) {
+        int start = beginRecord(out, INVENTORY_VERSION);
+        int[] amounts = inventory.getResourceAmounts(); // one consistent view, never a half-taken cost
+        out.putInt(amounts.length);
+        for (int amount : amounts) {
+            out.putInt(amount);
+        }
+        endRecord(out, start);
+    }
+
+    public static PlayerInventory readInventory(ByteBuffer in) {
+        int end = beginRead(in, INVENTORY_VERSION);
+        int stored = readInt(in, end, 0);
+        PlayerInventory inventory = new PlayerInventory();
+        for (int i = 0; i < stored; i++) {
+            int amount = readInt(in, end, 0);
+            if (i < ResourceType.count()) {
+                inventory.addResource(ResourceType.byOrdinal(i), amount); // types this build doesn't know are dropped
+            }
+        }
+        in.position(end);
+        return inventory;
+    }
+
+    // ===== Helpers =====
+
+    /*
+     * Encodes one value into a right-sized array, growing the scratch buffer until it fits
+     * @param writer One of the write methods above
+     */
+    public static <T> byte[] toBytes(T value, BiConsumer<ByteBuffer, T> writer) {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        while (true) {
+            try {
+                writer.accept(buffer, value);
+                byte[] bytes = new byte[buffer.position()];
+                buffer.flip().get(bytes);
+                return bytes;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    // Writes the header with a placeholder length; returns where the record starts
+    private static int beginRecord(ByteBuffer out, short version) {
+        int start = out.position();
+        out.putShort(version);
+        out.putInt(0);
+        return start;
+    }
+
+    private static void endRecord(ByteBuffer out, int start) {
+        out.putInt(start + Short.BYTES, out.position() - start - HEADER_BYTES);
+    }
+
+    // Reads the header; returns where the body ends
+    private static int beginRead(ByteBuffer in, short currentVersion) {
+        short version = in.getShort();
+        int length = in.getInt();
+        if (version < 1 || length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Corrupt record: version " + version + ", length " + length
+                    + " (this build writes version " + currentVersion + ")");
+        }
+        return in.position() + length;
+    }
+
+    private static int readInt(ByteBuffer in, int end, int missing) {
+        return in.position() + Integer.BYTES <= end ? in.getInt() : missing;
+    }
+
+    private static void writeString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String readString(ByteBuffer in, int end) {
+        int length = readInt(in, end, -1);
+        if (length < 0) {
+            return null;
+        }
+        if (in.position() + length > end) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,329 @@
+package edu.sdccd.cisc191.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+    /*
+     * Features added:
+     * Group commit: one background thread writes everything marked dirty during a commit window in one pass
+     * Marking state dirty never touches the disk, so game threads never wait on I/O
+     * Each commit returns a future, for callers that need to know their change reached the disk
+     * Configurable fsync policy: never, every commit, or at most once per interval
+     * The final commit on close always fsyncs, including files written unsynced by earlier commits
+     * The world file is a checksummed SnapshotFile, replaced atomically on every commit
+     */
+
+// Single background writer for game saves; see Section and Committable for the two kinds of state it writes
+public final class PersistenceWriter implements Closeable {
+    /**
+     * Enum representing when commits are forced to the storage device.
+     * Without fsync a commit survives a crash of the game, but not of the machine.
+     */
+    public enum FsyncPolicy {
+        NEVER,          // leave flushing to the operating system
+        EVERY_COMMIT,   // every commit's future means the data is on disk
+        INTERVAL        // fsync at most once per interval; futures in between only mean "written"
+    }
+
+    /**
+     * Something that writes its own files when a commit runs, e.g. a journal flushing buffered records.
+     */
+    public interface Committable {
+        /**
+         * Writes whatever has changed since the last commit.
+         *
+         * @param fsync Whether to force the written data to the storage device, including data
+         *              written by earlier commits that weren't forced; it may be called with nothing new.
+         */
+        void commit(boolean fsync) throws IOException;
+    }
+
+    private final Path worldFile;   // null when this writer has no sections
+    private final long commitWindowNanos;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final Thread writer;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition dirtied = lock.newCondition();
+    // Guarded by lock
+    private final Map<String, Section<?>> sections = new LinkedHashMap<>();
+    private final Set<Section<?>> dirtySections = new LinkedHashSet<>();
+    private final Set<Committable> dirtyCommittables = new LinkedHashSet<>();
+    private CompletableFuture<Void> nextCommit = new CompletableFuture<>();
+    private boolean flushRequested;
+    private boolean closed;
+
+    // Writer thread only
+    private long lastFsyncNanos = System.nanoTime();
+    private final Set<Committable> unsyncedCommittables = new LinkedHashSet<>(); // written, not yet forced
+    private boolean worldUnsynced;
+    private volatile long commitCount;
+
+    /*
+     * Starts a writer thread
+     * @param worldFile File holding every registered section, or null if only committables are used
+     * @param commitWindow How long to collect changes before writing them together
+     * @param fsyncPolicy When commits are forced to disk
+     * @param fsyncInterval Shortest time between fsyncs under INTERVAL
+     */
+    public PersistenceWriter(Path worldFile, long commitWindow, FsyncPolicy fsyncPolicy, long fsyncInterval, TimeUnit unit) {
+        this.worldFile = worldFile;
+        this.commitWindowNanos = unit.toNanos(commitWindow);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = unit.toNanos(fsyncInterval);
+        this.writer = new Thread(this::run, "persistence-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * A named piece of state saved whole in the world file, such as an inventory or the board.
+     * Its encoder runs on the writer thread and must be safe to call while the game keeps playing.
+     */
+    public final class Section<T> {
+        private final String name;
+        private final T state;
+        private final BiConsumer<ByteBuffer, T> encoder;
+        private byte[] encoded = new byte[0]; // writer thread only: last committed bytes
+
+        private Section(String name, T state, BiConsumer<ByteBuffer, T> encoder) {
+            this.name = name;
+            this.state = state;
+            this.encoder = encoder;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Schedules this section for the next commit; cheap enough to call on every change.
+         *
+         * @return Completes once a commit that includes the current state has been written.
+         */
+        public CompletableFuture<Void> markDirty() {
+            return PersistenceWriter.this.markDirty(this, null);
+        }
+    }
+
+    /*
+     * Adds a section to the world file; it is written with the next commit, so load its state before registering
+     * @param encoder Usually one of the GameStateCodec write methods
+     */
+    public <T> Section<T> register(String name, T state, BiConsumer<ByteBuffer, T> encoder) {
+        if (worldFile == null) {
+            throw new IllegalStateException("This writer has no world file");
+        }
+        Section<T> section = new Section<>(name, state, encoder);
+        lock.lock();
+        try {
+            if (sections.putIfAbsent(name, section) != null) {
+                throw new IllegalArgumentException("Section already registered: " + name);
+            }
+            dirtySections.add(section); // no commit may write the world file without it
+            dirtied.signal();
+        } finally {
+            lock.unlock();
+        }
+        return section;
+    }
+
+    /*
+     * Schedules a committable for the next commit
+     * @return Completes once that commit has run
+     */
+    public CompletableFuture<Void> markDirty(Committable committable) {
+        return markDirty(null, committable);
+    }
+
+    /*
+     * Commits everything dirty now instead of waiting out the commit window
+     * @return Completes once that commit has run
+     */
+    public CompletableFuture<Void> flush() {
+        lock.lock();
+        try {
+            flushRequested = true;
+            dirtied.signal();
+            return nextCommit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CompletableFuture<Void> markDirty(Section<?> section, Committable committable) {
+        lock.lock();
+        try {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Persistence writer is closed"));
+            }
+            boolean wasIdle = dirtySections.isEmpty() && dirtyCommittables.isEmpty();
+            if (section != null) {
+                dirtySections.add(section);
+            } else {
+                dirtyCommittables.add(committable);
+            }
+            if (wasIdle) {
+                dirtied.signal();
+            }
+            return nextCommit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCommitCount() {
+        return commitCount;
+    }
+
+    private void run() {
+        while (true) {
+            List<Section<?>> commitSections;
+            List<Committable> commitCommittables;
+            CompletableFuture<Void> commit;
+            boolean finalCommit;
+            lock.lock();
+            try {
+                while (!closed && !flushRequested && dirtySections.isEmpty() && dirtyCommittables.isEmpty()) {
+                    dirtied.awaitUninterruptibly();
+                }
+                // Let the window fill up, so changes arriving close together share one write
+                long remaining = commitWindowNanos;
+                while (!closed && !flushRequested && remaining > 0) {
+                    try {
+                        remaining = dirtied.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                commitSections = new ArrayList<>(dirtySections);
+                commitCommittables = new ArrayList<>(dirtyCommittables);
+                dirtySections.clear();
+                dirtyCommittables.clear();
+                flushRequested = false;
+                commit = nextCommit;
+                nextCommit = new CompletableFuture<>();
+                finalCommit = closed;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                commit(commitSections, commitCommittables, finalCommit);
+                commitCount++;
+                commit.complete(null);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error saving game state: " + e.getMessage());
+                commit.completeExceptionally(e);
+            }
+            if (finalCommit) {
+                return;
+            }
+        }
+    }
+
+    // An fsync covers everything written unsynced so far; the final commit fsyncs whatever the policy
+    private void commit(List<Section<?>> dirty, List<Committable> committables, boolean finalCommit) throws IOException {
+        boolean fsync = finalCommit || shouldFsync();
+        if (fsync) {
+            unsyncedCommittables.addAll(committables);
+            committables = new ArrayList<>(unsyncedCommittables);
+            unsyncedCommittables.clear();
+        }
+        for (Committable committable : committables) {
+            committable.commit(fsync);
+            if (!fsync) {
+                unsyncedCommittables.add(committable);
+            }
+        }
+        if (dirty.isEmpty() && !(fsync && worldUnsynced)) {
+            return;
+        }
+        for (Section<?> section : dirty) {
+            encode(section);
+        }
+        writeWorld(fsync);
+        worldUnsynced = !fsync;
+    }
+
+    private boolean shouldFsync() {
+        switch (fsyncPolicy) {
+            case EVERY_COMMIT:
+                return true;
+            case INTERVAL:
+                long now = System.nanoTime();
+                if (now - lastFsyncNanos >= fsyncIntervalNanos) {
+                    lastFsyncNanos = now;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private static <T> void encode(Section<T> section) {
+        section.encoded = GameStateCodec.toBytes(section.state, section.encoder);
+    }
+
+    // Rewrites the world file from every section's latest bytes; unchanged sections aren't re-encoded
+    private void writeWorld(boolean fsync) throws IOException {
+        List<Section<?>> all;
+        lock.lock();
+        try {
+            all = new ArrayList<>(sections.values());
+        } finally {
+            lock.unlock();
+        }
+        Map<String, ByteBuffer> records = new LinkedHashMap<>();
+        for (Section<?> section : all) {
+            records.put(section.name, ByteBuffer.wrap(section.encoded));
+        }
+        SnapshotFile.write(worldFile, records, fsync);
+    }
+
+    /*
+     * Opens a world file written by this class; each section's bytes are loaded when first asked for
+     * @return The snapshot, whose record names are the section names
+     */
+    public static SnapshotFile openWorld(Path worldFile) throws IOException {
+        return SnapshotFile.open(worldFile);
+    }
+
+    /*
+     * Runs a last commit of anything still dirty, then stops the writer thread
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            dirtied.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,18 +1,200 @@
 package edu.sdccd.cisc191.game;
 
 import java.io.Serializable;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Represents a planet in the Galactic Strategy game.
+ * Each planet has resource deposits that regenerate over time. Regeneration is lazy:
+ * the deposits are brought up to date from the elapsed time only when someone reads or
+ * extracts from them, so idle planets cost nothing per tick.
+ */
 public class Planet implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final long MILLIS_PER_SECOND = 1000;
 
     public final String mars;
+    private final PlanetType type;
+    private final long[] storedMilli;   // deposit per ResourceType ordinal, in thousandths of a unit
+    private long lastUpdateMillis;      // time the deposits were last brought up to date
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Enum representing the kinds of planets, used to pick exploration event tables
+     * and the deposits each planet starts with.
+     */
+    public enum PlanetType {
+        TERRESTRIAL(
+                new Deposit(ResourceType.MINERALS, 200, 2),
+                new Deposit(ResourceType.FUEL, 50, 1),
+                new Deposit(ResourceType.DILITHIUM, 30, 1)),
+        GAS_GIANT(
+                new Deposit(ResourceType.FUEL, 400, 4),
+                new Deposit(ResourceType.ENERGY, 200, 2),
+                new Deposit(ResourceType.DILITHIUM, 60, 1)),
+        ICE_GIANT(
+                new Deposit(ResourceType.FUEL, 150, 2),
+                new Deposit(ResourceType.MINERALS, 150, 1),
+                new Deposit(ResourceType.DILITHIUM, 40, 1)),
+        STAR_SYSTEM(
+                new Deposit(ResourceType.ENERGY, 500, 5),
+                new Deposit(ResourceType.CREDITS, 100, 1),
+                new Deposit(ResourceType.DILITHIUM, 50, 1)),
+        GALAXY(
+                new Deposit(ResourceType.DILITHIUM, 200, 2),
+                new Deposit(ResourceType.CREDITS, 300, 3),
+                new Deposit(ResourceType.MINERALS, 300, 3),
+                new Deposit(ResourceType.FUEL, 100, 1));
+
+        private final int[] capacity = new int[ResourceType.count()];
+        private final int[] regenPerSecond = new int[ResourceType.count()];
+
+        PlanetType(Deposit... deposits) {
+            for (Deposit deposit : deposits) {
+                capacity[deposit.type.ordinal()] = deposit.capacity;
+                regenPerSecond[deposit.type.ordinal()] = deposit.regenPerSecond;
+            }
+        }
+
+        public int getCapacity(ResourceType resource) {
+            return capacity[resource.ordinal()];
+        }
+
+        public int getRegenPerSecond(ResourceType resource) {
+            return regenPerSecond[resource.ordinal()];
+        }
+
+        /**
+         * Looks up the type of one of the game's known planets.
+         *
+         * @param planetName The planet name.
+         * @return The planet type, TERRESTRIAL for unknown planets.
+         */
+        public static PlanetType forPlanetName(String planetName) {
+            if (planetName == null) {
+                return TERRESTRIAL;
+            }
+            return switch (planetName) {
+                case "Jupiter", "Saturn" -> GAS_GIANT;
+                case "Neptune", "Uranus" -> ICE_GIANT;
+                case "Alpha Centauri" -> STAR_SYSTEM;
+                case "Andromeda" -> GALAXY;
+                default -> TERRESTRIAL;
+            };
+        }
+    }
+
+    // One row of a planet type's deposit profile
+    private static final class Deposit {
+        final ResourceType type;
+        final int capacity;
+        final int regenPerSecond;
+
+        Deposit(ResourceType type, int capacity, int regenPerSecond) {
+            this.type = type;
+            this.capacity = capacity;
+            this.regenPerSecond = regenPerSecond;
+        }
+    }
 
     public Planet(String mars) {
+        this(mars, PlanetType.forPlanetName(mars));
+    }
+
+    public Planet(String mars, PlanetType type) {
+        this(mars, type, System.currentTimeMillis());
+    }
+
+    /**
+     * Constructs a planet with full deposits as of the given time.
+     *
+     * @param mars The planet name.
+     * @param type The planet type, which sets its deposit capacities and regeneration.
+     * @param nowMillis The creation time in epoch milliseconds.
+     */
+    public Planet(String mars, PlanetType type, long nowMillis) {
         this.mars = mars;
-        this.getName();
+        this.type = type != null ? type : PlanetType.TERRESTRIAL;
+        this.storedMilli = new long[ResourceType.count()];
+        for (int i = 0; i < storedMilli.length; i++) {
+            storedMilli[i] = this.type.capacity[i] * MILLIS_PER_SECOND;
+        }
+        this.lastUpdateMillis = nowMillis;
     }
 
     public String getName() {
-        if (mars == null);
-        return "Earth";
+        return mars != null ? mars : "Earth";
+    }
+
+    public PlanetType getType() {
+        return type;
+    }
+
+    // Brings every deposit up to date; caller must hold the lock
+    private void regenerate(long nowMillis) {
+        long elapsed = nowMillis - lastUpdateMillis;
+        if (elapsed <= 0) {
+            return; // no time passed, or the clock went backwards
+        }
+        for (int i = 0; i < storedMilli.length; i++) {
+            long max = type.capacity[i] * MILLIS_PER_SECOND;
+            if (storedMilli[i] < max) {
+                // units per second x milliseconds = thousandths of a unit, so nothing is lost to rounding
+                long grown = storedMilli[i] + type.regenPerSecond[i] * elapsed;
+                storedMilli[i] = Math.min(max, grown);
+            }
+        }
+        lastUpdateMillis = nowMillis;
+    }
+
+    public int getDeposit(ResourceType resource) {
+        return getDeposit(resource, System.currentTimeMillis());
+    }
+
+    /**
+     * Gets how much of a resource the planet holds at the given time.
+     *
+     * @param resource The resource to check.
+     * @param nowMillis The current time in epoch milliseconds.
+     * @return The whole units available.
+     */
+    public int getDeposit(ResourceType resource, long nowMillis) {
+        lock.lock();
+        try {
+            regenerate(nowMillis);
+            return (int) (storedMilli[resource.ordinal()] / MILLIS_PER_SECOND);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int extract(ResourceType resource, int requested) {
+        return extract(resource, requested, System.currentTimeMillis());
+    }
+
+    /**
+     * Extracts up to the requested amount of a resource.
+     *
+     * @param resource The resource to extract.
+     * @param requested The amount wanted.
+     * @param nowMillis The current time in epoch milliseconds.
+     * @return The amount actually extracted, which is less than requested if the deposit runs dry.
+     */
+    public int extract(ResourceType resource, int requested, long nowMillis) {
+        if (requested <= 0) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            regenerate(nowMillis);
+            int index = resource.ordinal();
+            int available = (int) (storedMilli[index] / MILLIS_PER_SECOND);
+            int taken = Math.min(available, requested);
+            storedMilli[index] -= taken * MILLIS_PER_SECOND;
+            return taken;
+        } finally {
+            lock.unlock();
+        }
     }
 }
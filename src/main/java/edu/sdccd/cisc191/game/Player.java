@@ -26,6 +26,12 @@ public class Player implements Serializable{
         this.fleet = new ArrayList<>();
     }
 
+    // Restores a player as saved, keeping duplicate ships; used by GameStateCodec
+    Player(String name, List<GalacticShip> fleet) {
+        this.name = name;
+        this.fleet = new ArrayList<>(fleet);
+    }
+
     public String getName() {
         return name;
     }
@@ -1,80 +1,270 @@
 package edu.sdccd.cisc191.game;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 // Manages player's inventory of resources
+// Amounts live in one atomic counter per ResourceType, and debits and credits are CAS operations on them
+// Heavily contended credits can go through creditResource instead, which spreads them over striped cells;
+// folding those back into the balance is the one write that takes a lock
+// Writes that touch several amounts at once are stamped, and reads retry until no stamped write overlaps them
 public class PlayerInventory implements Serializable {
-    private final Map<String, Resource> resources;
-    private final Lock lock = new ReentrantLock();
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicIntegerArray amounts;
+    private final LongAdder[] pending;   // striped credits per ResourceType ordinal, not yet in amounts
+    // Low bits: stamped writes under way; high bits: stamped writes finished
+    private static final long WRITES_IN_FLIGHT = 0xFFFF_FFFFL;
+    private static final long WRITE_FINISHED = 1L << 32;
+
+    private final Lock reconcileLock = new ReentrantLock(); // one reconcile at a time
+    private final AtomicLong writeStamp = new AtomicLong();
 
     public PlayerInventory() {
-        resources = new HashMap<>();
-        resources.put("Dilithium", new Resource("Dilithium"));
-        resources.put("Fuel", new Resource("Fuel"));
-        resources.put("Minerals", new Resource("Minerals"));
-        resources.put("Energy", new Resource("Energy"));
-        resources.put("Credits", new Resource("Credits"));
+        amounts = new AtomicIntegerArray(ResourceType.count());
+        pending = new LongAdder[ResourceType.count()];
+        for (int i = 0; i < pending.length; i++) {
+            pending[i] = new LongAdder();
+        }
     }
 
-    public void addResource(String type, int amount) {
-        lock.lock();
-        try {
-            resources.computeIfAbsent(type, Resource::new).addAmount(amount);
-        } finally {
-            lock.unlock();
+    public void addResource(ResourceType type, int amount) {
+        amounts.getAndAdd(type.ordinal(), amount);
+    }
+
+    /**
+     * Credits a resource for callers that hammer the same inventory from many threads.
+     * The credit lands in a striped cell instead of the shared counter, so threads don't fight over
+     * one CAS; it is folded into the balance when a debit comes up short.
+     *
+     * @param type The resource to credit.
+     * @param amount The amount to add; must not be negative.
+     */
+    public void creditResource(ResourceType type, int amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot credit a negative amount: " + amount);
         }
+        pending[type.ordinal()].add(amount);
     }
 
-    public boolean useResource(String type, int amount) {
-        lock.lock();
+    /*
+     * Moves striped credits into the balance
+     * Reconciles run one at a time so the same credits can never be moved twice
+     * @return true if any credits were moved
+     */
+    private boolean reconcile(int index) {
+        if (pending[index].sum() == 0) {
+            return false;
+        }
+        reconcileLock.lock();
+        beginStampedWrite();
         try {
-            return resources.containsKey(type) && resources.get(type).useAmount(amount);
+            long credited = pending[index].sum();
+            if (credited == 0) {
+                return false;
+            }
+            // Take the credits out of pending before adding them, so debits never see more than is really there
+            pending[index].add(-credited);
+            amounts.getAndAdd(index, (int) credited);
+            return true;
         } finally {
-            lock.unlock();
+            endStampedWrite();
+            reconcileLock.unlock();
         }
     }
 
-    public int getResourceAmount(String type) {
-        lock.lock();
-        try {
-            return resources.getOrDefault(type, new Resource(type)).getAmount();
-        } finally {
-            lock.unlock();
+    // Stamped writes only count themselves in and out, so they never wait on each other
+    private void beginStampedWrite() {
+        writeStamp.getAndIncrement();
+    }
+
+    private void endStampedWrite() {
+        writeStamp.getAndAdd(WRITE_FINISHED - 1);
+    }
+
+    // The stamp to read under, once no stamped write is under way
+    private long awaitQuietStamp() {
+        while (true) {
+            long stamp = writeStamp.get();
+            if ((stamp & WRITES_IN_FLIGHT) == 0) {
+                return stamp;
+            }
+            Thread.yield(); // the writer may be descheduled mid-write; let it finish
         }
     }
 
-    public String displayResources() {
-        lock.lock();
+    /**
+     * Removes the given amount if the inventory holds at least that much.
+     *
+     * @param type The resource to use.
+     * @param amount The amount to remove.
+     * @return true if the resources were used, false if there weren't enough.
+     */
+    public boolean useResource(ResourceType type, int amount) {
+        if (amount < 0) {
+            return false;
+        }
+        return take(type.ordinal(), amount);
+    }
+
+    private boolean take(int index, int amount) {
+        while (true) {
+            int current = amounts.get(index);
+            if (current < amount) {
+                if (reconcile(index)) {
+                    continue; // striped credits may cover it now
+                }
+                return false;
+            }
+            if (amounts.compareAndSet(index, current, current - amount)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reads one amount without locking; it is read again if a multi-resource write overlapped it.
+     *
+     * @param type The resource to read.
+     * @return The amount, never one that a half-done debit or refund has touched.
+     */
+    public int getResourceAmount(ResourceType type) {
+        int index = type.ordinal();
+        while (true) {
+            long stamp = awaitQuietStamp();
+            int amount = amountAt(index);
+            if (writeStamp.get() == stamp) {
+                return amount;
+            }
+        }
+    }
+
+    /**
+     * Reads every amount as of one moment, e.g. for a save.
+     *
+     * @return Amounts by ResourceType ordinal.
+     */
+    public int[] getResourceAmounts() {
+        int[] snapshot = new int[ResourceType.count()];
+        while (true) {
+            long stamp = awaitQuietStamp();
+            for (int i = 0; i < snapshot.length; i++) {
+                snapshot[i] = amountAt(i);
+            }
+            if (writeStamp.get() == stamp) {
+                return snapshot;
+            }
+        }
+    }
+
+    private int amountAt(int index) {
+        return (int) (amounts.get(index) + pending[index].sum());
+    }
+
+    /**
+     * Debits every resource in the cost, or nothing at all.
+     * Each amount is taken with its own CAS in ResourceType order; if one comes up short,
+     * the amounts already taken are credited back before returning, so no partial debit survives.
+     * The debit is stamped, so getResourceAmount(s) and saves retry rather than see it half done;
+     * it never waits on other writers, though readers spin while stamped writes keep overlapping.
+     * Single-resource debits running alongside may briefly find the held amounts spent and fail early,
+     * never overdraw.
+     *
+     * @param cost The resources to debit.
+     * @return true if the whole cost was debited, false if nothing was.
+     */
+    public boolean useResources(ResourceCost cost) {
+        beginStampedWrite();
         try {
-            StringBuilder sb = new StringBuilder("=== Player Resources ===\n");
-            for (Resource r : resources.values()) {
-                sb.append(r.toString()).append("\n");
+            for (int taken = 0; taken < cost.size(); taken++) {
+                if (cost.amountAt(taken) < 0 || !take(cost.ordinalAt(taken), cost.amountAt(taken))) {
+                    for (int i = 0; i < taken; i++) {
+                        amounts.getAndAdd(cost.ordinalAt(i), cost.amountAt(i));
+                    }
+                    return false;
+                }
             }
-            return sb.toString();
+            return true;
         } finally {
-            lock.unlock();
+            endStampedWrite();
         }
     }
 
-    public void refineDilithium() {
-        lock.lock();
+    /**
+     * Credits every resource in the bundle, e.g. to refund a cancelled build.
+     * Like useResources, readers see all of it or none of it.
+     *
+     * @param resources The resources to add.
+     */
+    public void addResources(ResourceCost resources) {
+        beginStampedWrite();
         try {
-            int dilithium = getResourceAmount("Dilithium");
-            if (dilithium >= 10) {
-                useResource("Dilithium", 10);
-                addResource("Fuel", 5);
-                addResource("Energy", 5);
-                addResource("Minerals", 5);
-                System.out.println("Refined 10 Dilithium into 5 each of Fuel, Energy, and Minerals!");
-            } else {
-                System.out.println("Not enough Dilithium to refine.");
+            for (int i = 0; i < resources.size(); i++) {
+                amounts.getAndAdd(resources.ordinalAt(i), resources.amountAt(i));
             }
         } finally {
-            lock.unlock();
+            endStampedWrite();
+        }
+    }
+
+    /**
+     * Checks whether the inventory currently holds the whole cost.
+     * The answer can be stale by the time it is used; call useResources to actually debit.
+     *
+     * @param cost The resources to check.
+     * @return true if every amount is currently available.
+     */
+    public boolean hasResources(ResourceCost cost) {
+        for (int i = 0; i < cost.size(); i++) {
+            if (getResourceAmount(ResourceType.byOrdinal(cost.ordinalAt(i))) < cost.amountAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // String API kept for older callers; unknown names hold nothing and can't be stored
+
+    public void addResource(String type, int amount) {
+        ResourceType resourceType = ResourceType.fromName(type);
+        if (resourceType == null) {
+            System.out.println("Unknown resource type: " + type);
+            return;
+        }
+        addResource(resourceType, amount);
+    }
+
+    public boolean useResource(String type, int amount) {
+        ResourceType resourceType = ResourceType.fromName(type);
+        return resourceType != null && useResource(resourceType, amount);
+    }
+
+    public int getResourceAmount(String type) {
+        ResourceType resourceType = ResourceType.fromName(type);
+        return resourceType == null ? 0 : getResourceAmount(resourceType);
+    }
+
+    public String displayResources() {
+        StringBuilder sb = new StringBuilder("=== Player Resources ===\n");
+        int[] snapshot = getResourceAmounts();
+        for (int i = 0; i < snapshot.length; i++) {
+            sb.append(ResourceType.byOrdinal(i).getDisplayName()).append(": ").append(snapshot[i]).append("\n");
+        }
+        return sb.toString();
+    }
+
+    public void refineDilithium() {
+        if (useResource(ResourceType.DILITHIUM, 10)) {
+            addResource(ResourceType.FUEL, 5);
+            addResource(ResourceType.ENERGY, 5);
+            addResource(ResourceType.MINERALS, 5);
+            System.out.println("Refined 10 Dilithium into 5 each of Fuel, Energy, and Minerals!");
+        } else {
+            System.out.println("Not enough Dilithium to refine.");
         }
     }
 }
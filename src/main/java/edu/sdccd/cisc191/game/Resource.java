@@ -1,6 +1,7 @@
 package edu.sdccd.cisc191.game;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -11,24 +12,39 @@ public class Resource implements Serializable {
     private String name;
     private int amount;
     private final Lock lock = new ReentrantLock();
+    // Credits from accumulate() wait here, spread over striped cells, until a read or debit folds them in
+    private final LongAdder pending = new LongAdder();
 
     public Resource(String name) {
         this.name = name;
         this.amount = amount;
     }
 
+    // Restores a resource as saved; used by GameStateCodec
+    Resource(String name, int amount) {
+        this.name = name;
+        this.amount = amount;
+    }
+
     public String getName() {
         return name;
     }
 
     public int getAmount() {
-        return amount;
+        lock.lock();
+        try {
+            reconcile();
+            return amount;
+        } finally {
+            lock.unlock();
+        }
     }
 
     // Adds Resources in a thread-safe manner
     public void addAmount(int value) {
         lock.lock();
         try {
+            reconcile();
             this.amount += value;
             System.out.println("Added " + value + " " + ". New total: " + amount);
         } finally {
@@ -36,10 +52,36 @@ public class Resource implements Serializable {
         }
     }
 
+    /**
+     * Credits resources without taking the lock, for many threads feeding the same resource.
+     * The credit is held in striped cells and only folded into the balance by the next read or debit.
+     *
+     * @param value The amount to add; must not be negative.
+     */
+    public void accumulate(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Cannot accumulate a negative amount: " + value);
+        }
+        pending.add(value);
+    }
+
+    // Folds accumulated credits into the balance; caller must hold the lock
+    private void reconcile() {
+        long credited = pending.sum();
+        if (credited != 0) {
+            // Subtract exactly what was read, so credits landing meanwhile stay pending
+            pending.add(-credited);
+            amount += (int) credited;
+        }
+    }
+
     // Uses resources in a thread-safe manner
     public boolean useAmount(int value) {
         lock.lock();
         try {
+            if (this.amount < value) {
+                reconcile();
+            }
             if (this.amount < value) {
                 System.out.println("Not enough " + name + "! Need: " + value + ", Have: " + amount);
                 return false;
@@ -53,6 +95,6 @@ public class Resource implements Serializable {
 
     @Override
     public String toString() {
-        return name + ": " + amount;
+        return name + ": " + getAmount();
     }
 }
\ No newline at end of file
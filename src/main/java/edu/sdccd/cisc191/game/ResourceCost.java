@@ -0,0 +1,114 @@
+package edu.sdccd.cisc191.game;
+
+/**
+ * An immutable bundle of resource amounts, such as the cost of building a ship.
+ * Entries are kept in ResourceType order so every debit touches counters in the same order.
+ */
+public final class ResourceCost {
+    private final int[] amounts;      // indexed by ResourceType ordinal
+    private final int[] ordinals;     // ordinals with a non-zero amount, ascending
+
+    private ResourceCost(int[] amounts) {
+        this.amounts = amounts;
+        int count = 0;
+        for (int amount : amounts) {
+            if (amount != 0) {
+                count++;
+            }
+        }
+        this.ordinals = new int[count];
+        int next = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            if (amounts[i] != 0) {
+                ordinals[next++] = i;
+            }
+        }
+    }
+
+    public static ResourceCost of(ResourceType type, int amount) {
+        return new ResourceCost(new int[ResourceType.count()]).plus(type, amount);
+    }
+
+    public static ResourceCost of(ResourceType type1, int amount1, ResourceType type2, int amount2) {
+        return of(type1, amount1).plus(type2, amount2);
+    }
+
+    /**
+     * Returns a cost with the given amount added on top of this one.
+     *
+     * @param type The resource to add.
+     * @param amount The non-negative amount to add.
+     * @return The combined cost.
+     */
+    public ResourceCost plus(ResourceType type, int amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cost amounts can't be negative: " + amount);
+        }
+        int[] combined = amounts.clone();
+        combined[type.ordinal()] = Math.addExact(combined[type.ordinal()], amount);
+        return new ResourceCost(combined);
+    }
+
+    /**
+     * Returns the sum of this cost and another.
+     *
+     * @param other The other cost.
+     * @return The combined cost.
+     */
+    public ResourceCost plus(ResourceCost other) {
+        int[] combined = amounts.clone();
+        for (int i = 0; i < combined.length; i++) {
+            combined[i] = Math.addExact(combined[i], other.amounts[i]);
+        }
+        return new ResourceCost(combined);
+    }
+
+    /**
+     * Returns this cost multiplied by a count, e.g. the cost of several ships of one type.
+     *
+     * @param count The non-negative multiplier.
+     * @return The scaled cost.
+     */
+    public ResourceCost times(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count can't be negative: " + count);
+        }
+        int[] scaled = new int[amounts.length];
+        for (int i = 0; i < scaled.length; i++) {
+            scaled[i] = Math.multiplyExact(amounts[i], count);
+        }
+        return new ResourceCost(scaled);
+    }
+
+    public int getAmount(ResourceType type) {
+        return amounts[type.ordinal()];
+    }
+
+    // Number of resource types with a non-zero amount
+    int size() {
+        return ordinals.length;
+    }
+
+    int ordinalAt(int index) {
+        return ordinals[index];
+    }
+
+    int amountAt(int index) {
+        return amounts[ordinals[index]];
+    }
+
+    @Override
+    public String toString() {
+        if (ordinals.length == 0) {
+            return "nothing";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < ordinals.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(amounts[ordinals[i]]).append(' ').append(ResourceType.byOrdinal(ordinals[i]).getDisplayName());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package edu.sdccd.cisc191.game;
+
+/**
+ * Enum representing the resource types a player can hold.
+ * The ordinal doubles as the index into PlayerInventory's counter array.
+ */
+public enum ResourceType {
+    DILITHIUM("Dilithium"),
+    FUEL("Fuel"),
+    MINERALS("Minerals"),
+    ENERGY("Energy"),
+    CREDITS("Credits");
+
+    private static final ResourceType[] VALUES = values();
+
+    private final String displayName;
+
+    ResourceType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Returns the number of resource types without copying values().
+     *
+     * @return The number of resource types.
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * Returns the resource type with the given ordinal without copying values().
+     *
+     * @param ordinal The ordinal of the type.
+     * @return The resource type.
+     */
+    public static ResourceType byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Looks up a resource type by its display name, e.g. "Minerals".
+     *
+     * @param name The display name.
+     * @return The matching type, or null if there is none.
+     */
+    public static ResourceType fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        return switch (name) {
+            case "Dilithium" -> DILITHIUM;
+            case "Fuel" -> FUEL;
+            case "Minerals" -> MINERALS;
+            case "Energy" -> ENERGY;
+            case "Credits" -> CREDITS;
+            default -> null;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
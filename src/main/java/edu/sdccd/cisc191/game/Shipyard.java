@@ -3,9 +3,13 @@ package edu.sdccd.cisc191.game;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import javafx.application.Platform;
-import edu.sdccd.cisc191.subsystems.CustomLinkedList;
+import edu.sdccd.cisc191.subsystems.ConcurrentCustomLinkedList;
+import edu.sdccd.cisc191.subsystems.HashedWheelTimer;
 
     /*
      * Shipyard class for managing spaceship constructions and upgrades
@@ -20,21 +24,109 @@ import edu.sdccd.cisc191.subsystems.CustomLinkedList;
       * Save and Load: Fleet persists between game sessions using file I/O (OOS)
       * Concurrency Handling: Uses ExecutorService for shipbuilding
       * Interactive Testing: main method allows quick testing of shipyard features
+      * Build Queue: builds wait in a priority queue and finish on a shared timer wheel, with no thread per build
+      * Cancel and rush operations for queued or in-progress builds
+      * Journaled saves: each build, upgrade or scrap appends one record instead of rewriting the fleet
+      * The journal is compacted into a snapshot in the background once it grows long
+      * Journal records are flushed by a group-commit persistence writer, so builds never wait on the disk
+      * Batch builds: many ships, of one type or mixed, are paid for, queued, delivered and saved as one unit
+      * The fleet is a lock-free list, so the UI can list it while builds are being delivered
       */
 
 public class Shipyard {
+    public static final int DEFAULT_BUILD_SLOTS = 2; // Allows 2 ships to be built at a time
+    private static final String DEFAULT_SAVE_FILE = "GalacticStrategy3/src/main/resources/galactic_game_state_csv";
+    private static final int COMPACTION_THRESHOLD = 1024; // journal records before the fleet is snapshotted
+
+    // Higher priority first, then first come first served
+    private static final Comparator<BuildOrder> BUILD_ORDER = Comparator
+            .comparing(BuildOrder::getPriority, Comparator.reverseOrder())
+            .thenComparingLong(BuildOrder::getSequence);
+
     private final Map<String, GalacticShip> availableShips;
-    private final CustomLinkedList<GalacticShip> playerFleet;
-    private final ExecutorService shipBuilderPool;
-    private final String saveFile = "GalacticStrategy3/src/main/resources/galactic_game_state_csv"; // Stores the list of ships
+    private final Map<String, Long> buildTimes;
+    private final Map<String, ResourceCost> shipCosts;
+    private final ConcurrentCustomLinkedList<GalacticShip> playerFleet; // readers never lock
+    private final Object fleetWriteLock = new Object(); // keeps fleet changes and their journal records in the same order
+    private final String saveFile; // Legacy whole-fleet save; the journal and snapshot live next to it
+    private ShipyardJournal journal; // null when the save directory can't be used
+    private final PersistenceWriter persistenceWriter;
+    private final boolean ownsPersistenceWriter;
     private Consumer<GalacticShip> onShipBuilt; //Callback from UI
+    private volatile Consumer<List<GalacticShip>> onBatchBuilt; // Callback for batches; null sends each ship to onShipBuilt
+    private final Executor callbackExecutor; // Runs the build callbacks, on the FX thread by default
+
+    private final HashedWheelTimer buildTimer;
+    private final int buildSlots;
+    private final Lock queueLock = new ReentrantLock();
+    private final PriorityQueue<BuildOrder> buildQueue = new PriorityQueue<>(BUILD_ORDER); // may hold cancelled orders
+    private final Set<BuildOrder> activeBuilds = new HashSet<>();
+    private int queuedBuilds;
+    private long nextSequence;
+
+    // Compactions run on one background thread, so the timer thread never waits on a snapshot
+    private final ExecutorService saveExecutor;
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
 
     // Constructs a Shipyard with predefined ship options
     public Shipyard(Consumer<GalacticShip> onShipBuilt) {
+        this(onShipBuilt, DEFAULT_BUILD_SLOTS, HashedWheelTimer.shared());
+    }
+
+    /*
+     * Constructs a Shipyard with its own number of build slots
+     * @param onShipBuilt Callback when a ship is finished
+     * @param buildSlots How many ships can be under construction at once
+     * @param buildTimer Timer that finishes builds; can be shared between shipyards
+     */
+    public Shipyard(Consumer<GalacticShip> onShipBuilt, int buildSlots, HashedWheelTimer buildTimer) {
+        this(onShipBuilt, buildSlots, buildTimer, DEFAULT_SAVE_FILE);
+    }
+
+    /*
+     * Constructs a Shipyard that keeps its fleet at the given save location
+     * @param saveFile Base save file; the journal and snapshot are written next to it
+     */
+    public Shipyard(Consumer<GalacticShip> onShipBuilt, int buildSlots, HashedWheelTimer buildTimer, String saveFile) {
+        this(onShipBuilt, buildSlots, buildTimer, saveFile, null);
+    }
+
+    /*
+     * Constructs a Shipyard whose journal is flushed by a shared persistence writer
+     * @param persistenceWriter Writer that commits the journal, or null for one owned by this shipyard
+     */
+    public Shipyard(Consumer<GalacticShip> onShipBuilt, int buildSlots, HashedWheelTimer buildTimer, String saveFile,
+                    PersistenceWriter persistenceWriter) {
+        this(onShipBuilt, buildSlots, buildTimer, saveFile, persistenceWriter, Platform::runLater);
+    }
+
+    /*
+     * Constructs a Shipyard that hands finished builds to its callbacks through the given executor
+     * @param callbackExecutor Runs onShipBuilt and onBatchBuilt, e.g. Platform::runLater, or Runnable::run without a UI
+     */
+    public Shipyard(Consumer<GalacticShip> onShipBuilt, int buildSlots, HashedWheelTimer buildTimer, String saveFile,
+                    PersistenceWriter persistenceWriter, Executor callbackExecutor) {
+        if (buildSlots <= 0) {
+            throw new IllegalArgumentException("A shipyard needs at least one build slot");
+        }
         this.availableShips = new HashMap<>();
-        this.playerFleet = new CustomLinkedList<>();
-        this.shipBuilderPool = Executors.newFixedThreadPool(2); // Allows 2 ships to be built at a time
+        this.buildTimes = new HashMap<>();
+        this.shipCosts = new HashMap<>();
+        this.playerFleet = new ConcurrentCustomLinkedList<>();
         this.onShipBuilt = onShipBuilt;
+        this.callbackExecutor = callbackExecutor;
+        this.buildSlots = buildSlots;
+        this.buildTimer = buildTimer;
+        this.saveFile = saveFile;
+        this.ownsPersistenceWriter = persistenceWriter == null;
+        this.persistenceWriter = ownsPersistenceWriter
+                ? new PersistenceWriter(null, 5, PersistenceWriter.FsyncPolicy.INTERVAL, 1000, TimeUnit.MILLISECONDS)
+                : persistenceWriter;
+        this.saveExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "shipyard-save");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         initializeShipyard();
         loadShipyardState();
@@ -45,6 +137,28 @@ public class Shipyard {
         availableShips.put("Fighter", new GalacticShip("Fighter", 100, 20));
         availableShips.put("Cruiser", new GalacticShip("Cruiser", 200, 40));
         availableShips.put("Battleship", new GalacticShip("Battleship", 300, 60));
+        buildTimes.put("Fighter", 2000L);
+        buildTimes.put("Cruiser", 3000L);
+        buildTimes.put("Battleship", 4000L);
+        shipCosts.put("Fighter", ResourceCost.of(ResourceType.MINERALS, 10, ResourceType.ENERGY, 5));
+        shipCosts.put("Cruiser", ResourceCost.of(ResourceType.MINERALS, 15, ResourceType.ENERGY, 7));
+        shipCosts.put("Battleship", ResourceCost.of(ResourceType.MINERALS, 20, ResourceType.ENERGY, 10));
+    }
+
+    /*
+     * Looks up what one ship of a type costs
+     * @return The cost, or null if the type is unknown
+     */
+    public ResourceCost getShipCost(String shipType) {
+        return shipCosts.get(shipType);
+    }
+
+    /*
+     * Sets the callback for finished batches; it gets every ship of the batch in one call, on the FX thread
+     * Without one, a batch's ships go to the per-ship callback, still in a single FX task
+     */
+    public void setOnBatchBuilt(Consumer<List<GalacticShip>> onBatchBuilt) {
+        this.onBatchBuilt = onBatchBuilt;
     }
 
 
@@ -59,43 +173,235 @@ public class Shipyard {
 
     /* Asynchronously builds a new spaceship for the player
      * @param shipType The type of ship to construct
+     * @return The queued build, or null if the type is unknown
      */
-    public void buildShip(String shipType) {
+    public BuildOrder buildShip(String shipType) {
+        return buildShip(shipType, BuildOrder.Priority.NORMAL);
+    }
+
+    /*
+     * Queues a ship; it starts when a build slot is free and finishes after its type's build time
+     * @param shipType The type of ship to construct
+     * @param priority Higher priorities leave the queue first
+     * @return The queued build, or null if the type is unknown
+     */
+    public BuildOrder buildShip(String shipType, BuildOrder.Priority priority) {
         if (!availableShips.containsKey(shipType)) {
             System.out.println("Invalid ship type.");
-            return;
+            return null;
         }
 
         System.out.println("Building " + shipType + "...");
+        return enqueue(Map.of(shipType, 1), null, null, priority);
+    }
 
-        Callable<GalacticShip> task = () -> {
-            try {
-                Thread.sleep(2000);
-                GalacticShip newShip = new GalacticShip(shipType, availableShips.get(shipType).getHealth(), availableShips.get(shipType).getAttackPower());
-                synchronized (playerFleet) {
-                    playerFleet.add(newShip);
-                }
-                saveShipyardState();
-                return newShip;
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Build interrupted for " + shipType, e);
+    /*
+     * Queues several ships of one type as a single batch
+     * @param count How many ships to build
+     * @return The queued batch, or null if the type is unknown or the count isn't positive
+     */
+    public BuildOrder buildShips(String shipType, int count) {
+        Map<String, Integer> ships = new LinkedHashMap<>();
+        ships.put(shipType, count);
+        return buildShips(ships, BuildOrder.Priority.NORMAL, null);
+    }
+
+    /*
+     * Queues a batch, possibly of mixed types, that is built, delivered and saved as one unit
+     * It takes one build slot for as long as building its ships back to back would
+     * @param ships Ship type to how many of it
+     * @param priority Higher priorities leave the queue first
+     * @param payer Inventory charged for the whole batch in one all-or-nothing debit, or null if already paid
+     * @return The queued batch, or null if a type is unknown, a count isn't positive, or the payer can't afford it
+     */
+    public BuildOrder buildShips(Map<String, Integer> ships, BuildOrder.Priority priority, PlayerInventory payer) {
+        if (ships.isEmpty()) {
+            System.out.println("Nothing to build.");
+            return null;
+        }
+        ResourceCost total = null;
+        for (Map.Entry<String, Integer> entry : ships.entrySet()) {
+            if (!availableShips.containsKey(entry.getKey()) || entry.getValue() == null || entry.getValue() <= 0) {
+                System.out.println("Invalid ship order: " + entry.getKey() + " x " + entry.getValue());
+                return null;
             }
-        };
-        Future<GalacticShip> future = shipBuilderPool.submit(task);
+            ResourceCost cost = shipCosts.get(entry.getKey()).times(entry.getValue());
+            total = total == null ? cost : total.plus(cost);
+        }
+        if (payer != null && !payer.useResources(total)) {
+            System.out.println("Not enough resources for " + ships + " (needs " + total + ")");
+            return null;
+        }
 
-        shipBuilderPool.submit(() -> {
-            try {
-                // Simulate shipbuilding time
-                GalacticShip builtShip = future.get();
-                System.out.println("Build complete! " + builtShip.getName());
-                if (onShipBuilt != null) {
-                    Platform.runLater(() -> onShipBuilt.accept(builtShip));
-                }
-            } catch (InterruptedException | ExecutionException e) {
-                System.err.println("Error building ship: " + e.getMessage());
+        System.out.println("Building " + ships + "...");
+        return enqueue(ships, payer != null ? total : null, payer, priority);
+    }
+
+    private BuildOrder enqueue(Map<String, Integer> ships, ResourceCost cost, PlayerInventory payer,
+                               BuildOrder.Priority priority) {
+        long buildMillis = 0;
+        for (Map.Entry<String, Integer> entry : ships.entrySet()) {
+            buildMillis += buildTimes.get(entry.getKey()) * entry.getValue();
+        }
+        queueLock.lock();
+        try {
+            BuildOrder order = new BuildOrder(ships, cost, payer, priority, nextSequence++, buildMillis);
+            buildQueue.add(order);
+            queuedBuilds++;
+            startQueuedBuilds();
+            return order;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    // Moves builds from the queue into free slots; caller must hold the queue lock
+    private void startQueuedBuilds() {
+        while (activeBuilds.size() < buildSlots) {
+            BuildOrder next = buildQueue.poll();
+            if (next == null) {
+                return;
             }
-        });
+            if (next.getStatus() != BuildOrder.Status.QUEUED) {
+                continue; // cancelled or rushed while waiting
+            }
+            next.setStatus(BuildOrder.Status.BUILDING);
+            queuedBuilds--;
+            activeBuilds.add(next);
+            next.setTimeout(buildTimer.schedule(() -> finishBuild(next), next.getBuildMillis(), TimeUnit.MILLISECONDS));
+        }
+    }
+
+    // Runs on the timer thread when a build's time is up
+    private void finishBuild(BuildOrder order) {
+        queueLock.lock();
+        try {
+            if (order.getStatus() != BuildOrder.Status.BUILDING) {
+                return;
+            }
+            order.setStatus(BuildOrder.Status.COMPLETED);
+            activeBuilds.remove(order);
+            startQueuedBuilds();
+        } finally {
+            queueLock.unlock();
+        }
+        deliver(order);
+    }
+
+    // Adds the finished ships to the fleet, saves them as one journal record, and tells the UI once
+    private void deliver(BuildOrder order) {
+        List<GalacticShip> builtShips = new ArrayList<>(order.getShipCount());
+        for (Map.Entry<String, Integer> entry : order.getShips().entrySet()) {
+            GalacticShip template = availableShips.get(entry.getKey());
+            for (int i = 0; i < entry.getValue(); i++) {
+                builtShips.add(new GalacticShip(entry.getKey(), template.getHealth(), template.getAttackPower()));
+            }
+        }
+        synchronized (fleetWriteLock) {
+            for (GalacticShip ship : builtShips) {
+                playerFleet.add(ship);
+            }
+            if (journal != null) {
+                journal.appendBuilds(builtShips);
+            }
+        }
+        journalChanged();
+
+        if (builtShips.size() == 1) {
+            GalacticShip builtShip = builtShips.get(0);
+            System.out.println("Build complete! " + builtShip.getName());
+            if (onShipBuilt != null) {
+                callbackExecutor.execute(() -> onShipBuilt.accept(builtShip));
+            }
+            return;
+        }
+        System.out.println("Batch complete! " + order.getShips());
+        Consumer<List<GalacticShip>> batchCallback = onBatchBuilt;
+        if (batchCallback != null) {
+            callbackExecutor.execute(() -> batchCallback.accept(builtShips));
+        } else if (onShipBuilt != null) {
+            callbackExecutor.execute(() -> builtShips.forEach(onShipBuilt));
+        }
+    }
+
+    /*
+     * Cancels a queued or in-progress build and refunds what buildShips debited for it
+     * @return true if the build was cancelled, false if it had already finished or been cancelled
+     */
+    public boolean cancelBuild(BuildOrder order) {
+        queueLock.lock();
+        try {
+            switch (order.getStatus()) {
+                case QUEUED:
+                    order.setStatus(BuildOrder.Status.CANCELLED); // dropped when it reaches the head of the queue
+                    queuedBuilds--;
+                    break;
+                case BUILDING:
+                    if (!order.getTimeout().cancel()) {
+                        return false; // the timer is finishing it right now
+                    }
+                    order.setStatus(BuildOrder.Status.CANCELLED);
+                    activeBuilds.remove(order);
+                    startQueuedBuilds();
+                    break;
+                default:
+                    return false;
+            }
+        } finally {
+            queueLock.unlock();
+        }
+        // Only the thread that moved the order to CANCELLED gets here, so the cost goes back exactly once
+        if (order.getPayer() != null) {
+            order.getPayer().addResources(order.getCost());
+        }
+        return true;
+    }
+
+    /*
+     * Finishes a queued or in-progress build immediately
+     * @return true if the ship was delivered now, false if it had already finished or been cancelled
+     */
+    public boolean rushBuild(BuildOrder order) {
+        queueLock.lock();
+        try {
+            switch (order.getStatus()) {
+                case QUEUED:
+                    queuedBuilds--;
+                    break;
+                case BUILDING:
+                    if (!order.getTimeout().cancel()) {
+                        return false;
+                    }
+                    activeBuilds.remove(order);
+                    break;
+                default:
+                    return false;
+            }
+            order.setStatus(BuildOrder.Status.COMPLETED);
+            startQueuedBuilds();
+        } finally {
+            queueLock.unlock();
+        }
+        deliver(order);
+        return true;
+    }
+
+    public int getQueuedBuildCount() {
+        queueLock.lock();
+        try {
+            return queuedBuilds;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    public int getActiveBuildCount() {
+        queueLock.lock();
+        try {
+            return activeBuilds.size();
+        } finally {
+            queueLock.unlock();
+        }
     }
 
     /*
@@ -104,29 +410,65 @@ public class Shipyard {
      */
 
     public void upgradeShip(String shipName) {
-        synchronized (playerFleet) {
-            for (GalacticShip ship : playerFleet) {
-                if (ship.getName().equalsIgnoreCase(shipName)) {
-                    ship.takeDamage(-50); // Increases health by 50
-                    System.out.println(shipName + " upgraded! New Health: " + ship.getHealth());
-                    saveShipyardState(); // Save fleet upgrades
-                    return;
+        synchronized (fleetWriteLock) {
+            int index = indexOfShip(shipName);
+            if (index >= 0) {
+                GalacticShip ship = playerFleet.get(index);
+                ship.takeDamage(-50); // Increases health by 50
+                System.out.println(shipName + " upgraded! New Health: " + ship.getHealth());
+                if (journal != null) {
+                    journal.appendUpdate(index, ship); // Save fleet upgrades
                 }
+                journalChanged();
+                return;
             }
         }
         System.out.println("Ship not found in your fleet.");
     }
 
+    /*
+     * Removes a ship from the player's fleet, e.g. when it is destroyed in combat
+     * @param shipName The name of the ship to remove; the first match goes
+     * @return The removed ship, or null if none matched
+     */
+    public GalacticShip scrapShip(String shipName) {
+        GalacticShip removed;
+        synchronized (fleetWriteLock) {
+            int index = indexOfShip(shipName);
+            if (index < 0) {
+                System.out.println("Ship not found in your fleet.");
+                return null;
+            }
+            removed = playerFleet.removeAt(index);
+            if (journal != null) {
+                journal.appendDestroy(index);
+            }
+        }
+        journalChanged();
+        System.out.println(shipName + " removed from your fleet.");
+        return removed;
+    }
+
+    // Position of the first ship with this name, or -1; caller must hold the fleet write lock
+    private int indexOfShip(String shipName) {
+        int index = 0;
+        for (GalacticShip ship : playerFleet) {
+            if (ship.getName().equalsIgnoreCase(shipName)) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
     // Displays the player's current fleet
     public void displayPlayerFleet() {
         System.out.println("\nYour Fleet: ");
-        synchronized (playerFleet) {
-            if (playerFleet.isEmpty()) {
-                System.out.println("No ships in fleet.");
-            } else {
-                for (GalacticShip ship : playerFleet) {
-                    System.out.println("- " + ship.getName() + " | Health: " + ship.getHealth() + " | Attack: " + ship.getAttackPower());
-                }
+        if (playerFleet.isEmpty()) {
+            System.out.println("No ships in fleet.");
+        } else {
+            for (GalacticShip ship : playerFleet) {
+                System.out.println("- " + ship.getName() + " | Health: " + ship.getHealth() + " | Attack: " + ship.getAttackPower());
             }
         }
     }
@@ -139,45 +481,130 @@ public class Shipyard {
         return playerFleet.toList();
     }
 
-    // Saves the player's fleet to a file using ObjectOutputStream
-    private void saveShipyardState() {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(saveFile))) {
-            out.writeObject(playerFleet.toList());
+    /*
+     * Returns a future that completes once every fleet change made so far has been written
+     * Only wait on it when a change must be durable, e.g. before reporting a purchase as final
+     */
+    public CompletableFuture<Void> saveAsync() {
+        return journal == null ? CompletableFuture.completedFuture(null) : persistenceWriter.markDirty(journal);
+    }
+
+    // Hands new journal records to the persistence writer and compacts if the journal got long
+    private void journalChanged() {
+        if (journal != null) {
+            persistenceWriter.markDirty(journal);
+        }
+        requestCompaction();
+    }
+
+    // Schedules a compaction once the journal is long enough to be worth folding into a snapshot
+    private void requestCompaction() {
+        if (journal == null || journal.getRecordsSinceSnapshot() < COMPACTION_THRESHOLD) {
+            return;
+        }
+        if (compactionScheduled.compareAndSet(false, true)) {
+            try {
+                saveExecutor.execute(() -> {
+                    compactionScheduled.set(false);
+                    compact();
+                });
+            } catch (RejectedExecutionException e) {
+                compactionScheduled.set(false); // shut down; the journal already has everything
+            }
+        }
+    }
+
+    // Snapshots the fleet and drops the journals it replaces; only the in-memory copy holds the fleet write lock
+    private void compact() {
+        try {
+            ShipyardJournal.Snapshot snapshot;
+            synchronized (fleetWriteLock) {
+                snapshot = journal.rollover(playerFleet.toList());
+            }
+            journal.writeSnapshot(snapshot);
             System.out.println("Shipyard state saved.");
         } catch (IOException e) {
             System.err.println("Error saving shipyard state: " + e.getMessage());
         }
     }
 
-    // Load the player's fleet from a file using ObjectInputStream
+    // Load the player's fleet from the latest snapshot plus the journal written since
     private void loadShipyardState() {
-        File file = new File(saveFile);
-        if (!file.exists()) return; // No save file yet
-
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(saveFile))) {
-            List<GalacticShip> loadedFleet = (List<GalacticShip>) in.readObject();
-            synchronized (playerFleet) {
+        ShipyardJournal opened = new ShipyardJournal(saveFile);
+        try {
+            List<GalacticShip> loadedFleet = opened.recover(opened.hasSnapshot() ? null : loadLegacySave());
+            synchronized (fleetWriteLock) {
                 playerFleet.clear();
                 for (GalacticShip ship : loadedFleet) {
                     playerFleet.add(ship);
                 }
             }
-            System.out.println("Shipyard state loaded.");
+            journal = opened;
+            if (!loadedFleet.isEmpty()) {
+                System.out.println("Shipyard state loaded.");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading shipyard states: " + e.getMessage());
+            return;
+        }
+        requestCompaction();
+    }
+
+    // Reads a fleet saved whole with ObjectOutputStream, from before the journal existed
+    private List<GalacticShip> loadLegacySave() {
+        File file = new File(saveFile);
+        if (!file.exists()) return null; // No save file yet
+
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(saveFile))) {
+            return (List<GalacticShip>) in.readObject();
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Error loading shipyard states: " + e.getMessage());
+            return null;
         }
     }
 
-    // Shuts down the ExecutorService for clean-up
+    /*
+     * Cancels unfinished builds, refunding their payers, lets a running compaction finish,
+     * and flushes and closes the journal
+     * Save the payers' inventories after this, so the refunds outlive the session
+     */
     public void shutdown() {
-        shipBuilderPool.shutdown();
+        List<BuildOrder> unfinished;
+        queueLock.lock();
+        try {
+            unfinished = new ArrayList<>(buildQueue);
+            buildQueue.clear();
+            unfinished.addAll(activeBuilds);
+        } finally {
+            queueLock.unlock();
+        }
+        for (BuildOrder order : unfinished) {
+            cancelBuild(order); // refunds outside the queue lock
+        }
+        saveExecutor.shutdown();
+        try {
+            saveExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ownsPersistenceWriter) {
+            persistenceWriter.close();
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Error closing shipyard journal: " + e.getMessage());
+            }
+        }
     }
 
     // Test the Shipyard functionality
     public static void main(String[] args) {
+        // No JavaFX toolkit here, so callbacks run on the timer thread
         Shipyard shipyard = new Shipyard(ship -> {
             System.out.println("Built ship: " + ship.getName());
-        });
+        }, DEFAULT_BUILD_SLOTS, HashedWheelTimer.shared(), DEFAULT_SAVE_FILE, null, Runnable::run);
 
         shipyard.displayAvailableShips();
         shipyard.buildShip("Fighter");
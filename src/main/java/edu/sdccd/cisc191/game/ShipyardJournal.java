@@ -0,0 +1,322 @@
+package edu.sdccd.cisc191.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+    /*
+     * Features added:
+     * Append-only journal of fleet changes (build, update, destroy), so saving a change costs O(1) disk I/O
+     * Ships are written with GameStateCodec, so records are small and carry their own version
+     * Appends only buffer in memory; the persistence writer flushes them in groups
+     * Compaction: the fleet is written to a snapshot and the journals it covers are deleted
+     * Recovery loads the latest snapshot, then replays the journals written after it
+     * A half-written record at the end of a journal (crash mid-append) is dropped, not fatal
+     * Journal records carry a CRC32C and snapshots are written with SnapshotFile, so torn writes are caught
+     */
+
+/*
+ * On-disk layout, next to the base save file:
+ *   <base>.snapshot     the fleet as of the start of journal generation G
+ *   <base>.journal.<g>  changes made during generation g; recovery replays every g >= G
+ * A generation ends when compaction starts, so the snapshot can be written in the background
+ * while new changes go to the next journal. Journals are only deleted once their snapshot is in place.
+ */
+final class ShipyardJournal implements Closeable, PersistenceWriter.Committable {
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES * 2; // length, crc
+    private static final byte BUILD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte DESTROY = 3;
+    private static final byte BUILD_BATCH = 4;
+
+    private final Path snapshotFile;
+    private final Path directory;
+    private final String journalPrefix;
+
+    // Guarded by this
+    private FileChannel journal;
+    private long generation;
+    private int recordsSinceSnapshot;
+    private ByteBuffer pending = ByteBuffer.allocate(4096); // appended records waiting for the next commit
+    private boolean unsynced; // the journal has records that weren't forced to the device
+
+    ShipyardJournal(String baseFile) {
+        Path base = Paths.get(baseFile).toAbsolutePath();
+        this.directory = base.getParent();
+        this.snapshotFile = base.resolveSibling(base.getFileName() + ".snapshot");
+        this.journalPrefix = base.getFileName() + ".journal.";
+    }
+
+    // A fleet frozen for compaction; written to disk later, off the caller's thread
+    static final class Snapshot {
+        private final long generation;
+        private final byte[] ships;
+
+        private Snapshot(long generation, byte[] ships) {
+            this.generation = generation;
+            this.ships = ships;
+        }
+    }
+
+    boolean hasSnapshot() {
+        return Files.exists(snapshotFile);
+    }
+
+    /*
+     * Rebuilds the fleet from the snapshot and journals, then opens the journal for appending
+     * @param legacyFleet Fleet from the old whole-file save, used as the base when there is no snapshot yet
+     * @return The recovered fleet, in fleet order
+     */
+    synchronized List<GalacticShip> recover(List<GalacticShip> legacyFleet) throws IOException {
+        List<GalacticShip> fleet = new ArrayList<>();
+        long baseGeneration = 0;
+        if (Files.exists(snapshotFile)) {
+            try (SnapshotFile snapshot = SnapshotFile.open(snapshotFile)) {
+                ByteBuffer header = snapshot.get("generation");
+                ByteBuffer ships = snapshot.get("fleet");
+                if (header == null || ships == null) {
+                    throw new IOException("Not a shipyard snapshot: " + snapshotFile);
+                }
+                baseGeneration = header.getLong();
+                int count = ships.getInt();
+                for (int i = 0; i < count; i++) {
+                    fleet.add(GameStateCodec.readShip(ships));
+                }
+            }
+        } else if (legacyFleet != null) {
+            fleet.addAll(legacyFleet);
+        }
+
+        TreeMap<Long, Path> journals = listJournals();
+        long current = baseGeneration;
+        for (Map.Entry<Long, Path> entry : journals.entrySet()) {
+            if (entry.getKey() < baseGeneration) {
+                Files.deleteIfExists(entry.getValue()); // left behind by a compaction that didn't finish cleaning up
+                continue;
+            }
+            current = entry.getKey();
+            long valid = replay(entry.getValue(), fleet);
+            if (valid < Files.size(entry.getValue())) {
+                System.err.println("Dropping torn record at the end of " + entry.getValue().getFileName());
+                try (FileChannel channel = FileChannel.open(entry.getValue(), StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+            }
+        }
+        generation = current;
+        journal = openJournal(generation);
+        return fleet;
+    }
+
+    // Applies one journal's records to the fleet; returns the length of the intact prefix
+    private long replay(Path file, List<GalacticShip> fleet) throws IOException {
+        // Read, not mapped: compaction keeps journals short, and a mapped file couldn't be truncated on every platform
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                return start;
+            }
+            ByteBuffer in = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            if (crc(in.duplicate()) != crc) {
+                return start; // torn write: the length made it to disk but not all of the body
+            }
+            switch (in.get()) {
+                case BUILD:
+                    fleet.add(GameStateCodec.readShip(in));
+                    break;
+                case UPDATE:
+                    fleet.set(in.getInt(), GameStateCodec.readShip(in));
+                    break;
+                case DESTROY:
+                    fleet.remove(in.getInt());
+                    break;
+                case BUILD_BATCH:
+                    int count = in.getInt();
+                    for (int i = 0; i < count; i++) {
+                        fleet.add(GameStateCodec.readShip(in));
+                    }
+                    break;
+                default:
+                    return start;
+            }
+            recordsSinceSnapshot++;
+        }
+        return buffer.position();
+    }
+
+    // Records a ship added to the end of the fleet
+    synchronized void appendBuild(GalacticShip ship) {
+        append(BUILD, 1, out -> GameStateCodec.writeShip(out, ship));
+    }
+
+    // Records ships added to the end of the fleet together, as a single record
+    synchronized void appendBuilds(List<GalacticShip> ships) {
+        if (ships.size() == 1) {
+            appendBuild(ships.get(0));
+            return;
+        }
+        append(BUILD_BATCH, ships.size(), out -> {
+            out.putInt(ships.size());
+            for (GalacticShip ship : ships) {
+                GameStateCodec.writeShip(out, ship);
+            }
+        });
+    }
+
+    // Records a ship whose stats changed, by its position in the fleet
+    synchronized void appendUpdate(int index, GalacticShip ship) {
+        append(UPDATE, 1, out -> {
+            out.putInt(index);
+            GameStateCodec.writeShip(out, ship);
+        });
+    }
+
+    // Records a ship removed from the fleet, by its position before removal
+    synchronized void appendDestroy(int index) {
+        append(DESTROY, 1, out -> out.putInt(index));
+    }
+
+    /*
+     * Frames one record at the end of the pending buffer, growing it if the body doesn't fit
+     * @param ships How many ships the record touches; compaction is paced by ships, not records
+     */
+    private void append(byte kind, int ships, Consumer<ByteBuffer> body) {
+        if (journal == null) {
+            return; // persistence unavailable; already reported when opening
+        }
+        while (true) {
+            int start = pending.position();
+            try {
+                pending.putInt(0).putInt(0); // length and crc, filled in below
+                pending.put(kind);
+                body.accept(pending);
+                int length = pending.position() - start - RECORD_HEADER_BYTES;
+                pending.putInt(start, length);
+                pending.putInt(start + Integer.BYTES, crc(pending.slice(start + RECORD_HEADER_BYTES, length)));
+                break;
+            } catch (BufferOverflowException e) {
+                pending.position(start);
+                ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+                larger.put(pending.flip());
+                pending = larger;
+            }
+        }
+        recordsSinceSnapshot += ships;
+    }
+
+    /*
+     * Writes the records appended since the last commit; run by the persistence writer
+     * @param fsync Whether to force them, and any written unforced before, to the storage device
+     */
+    @Override
+    public synchronized void commit(boolean fsync) throws IOException {
+        if (journal == null) {
+            return;
+        }
+        if (pending.position() > 0) {
+            pending.flip();
+            try {
+                while (pending.hasRemaining()) {
+                    journal.write(pending);
+                }
+            } finally {
+                pending.compact();
+            }
+            unsynced = true;
+        }
+        if (fsync && unsynced) {
+            journal.force(false); // also covers records an earlier commit wrote without forcing
+            unsynced = false;
+        }
+    }
+
+    synchronized int getRecordsSinceSnapshot() {
+        return recordsSinceSnapshot;
+    }
+
+    /*
+     * Ends the current generation: later changes go to a new journal
+     * Call while holding the fleet's lock, so the snapshot and the journal split agree
+     * @param fleet The fleet as it is right now
+     * @return The snapshot to hand to writeSnapshot
+     */
+    synchronized Snapshot rollover(List<GalacticShip> fleet) throws IOException {
+        byte[] ships = GameStateCodec.toBytes(fleet, (out, list) -> {
+            out.putInt(list.size());
+            for (GalacticShip ship : list) {
+                GameStateCodec.writeShip(out, ship);
+            }
+        });
+        if (journal != null) {
+            commit(true); // records from before the split belong to the old journal
+            journal.close();
+        }
+        generation++;
+        journal = openJournal(generation);
+        recordsSinceSnapshot = 0;
+        return new Snapshot(generation, ships);
+    }
+
+    /*
+     * Writes a snapshot next to the old one and swaps it in, then deletes the journals it replaces
+     * Safe to run on a background thread while changes keep being appended
+     */
+    void writeSnapshot(Snapshot snapshot) throws IOException {
+        Map<String, ByteBuffer> records = new LinkedHashMap<>();
+        records.put("generation", ByteBuffer.allocate(Long.BYTES).putLong(0, snapshot.generation));
+        records.put("fleet", ByteBuffer.wrap(snapshot.ships));
+        SnapshotFile.write(snapshotFile, records, true);
+        for (Path old : listJournals().headMap(snapshot.generation).values()) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private FileChannel openJournal(long generation) throws IOException {
+        return FileChannel.open(directory.resolve(journalPrefix + generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Journal files by generation, oldest first
+    private TreeMap<Long, Path> listJournals() throws IOException {
+        TreeMap<Long, Path> journals = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, journalPrefix + "*")) {
+            for (Path file : files) {
+                try {
+                    journals.put(Long.parseLong(file.getFileName().toString().substring(journalPrefix.length())), file);
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return journals;
+    }
+
+    private static int crc(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            commit(true);
+            journal.close();
+            journal = null;
+        }
+    }
+}
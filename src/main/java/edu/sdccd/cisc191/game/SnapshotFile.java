@@ -0,0 +1,223 @@
+package edu.sdccd.cisc191.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+    /*
+     * Features added:
+     * Crash-consistent snapshots: written to a temp file, forced to disk, then atomically renamed into place
+     * Every record and the index carry a CRC32C, so a damaged file is reported instead of half-loaded
+     * Opening reads only the index at the end of the file; records are memory-mapped and checked when first used,
+     * so opening a snapshot costs about the same whether it holds kilobytes or gigabytes
+     */
+
+/*
+ * File layout:
+ *   [int magic][short version]
+ *   records: [int length][int crc][body]...
+ *   index:   per record [int name length][name][long body offset][int length][int crc]
+ *   footer:  [long index offset][int index length][int index crc][int record count][int magic]
+ * The footer is written last, so a file cut short anywhere has no valid footer.
+ */
+public final class SnapshotFile implements Closeable {
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES * 2;
+    private static final int FOOTER_BYTES = Long.BYTES + Integer.BYTES * 4;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, Entry> index;
+
+    // Where one record's body lives in the file
+    private static final class Entry {
+        final long offset;
+        final int length;
+        final int crc;
+        ByteBuffer body; // mapped and verified on first use
+
+        Entry(long offset, int length, int crc) {
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+        }
+    }
+
+    private SnapshotFile(Path file, FileChannel channel, Map<String, Entry> index) {
+        this.file = file;
+        this.channel = channel;
+        this.index = index;
+    }
+
+    /*
+     * Writes a snapshot beside the target and renames it over the target, so readers see the old file or the new one
+     * @param records Record name to body, in the order they should be laid out
+     * @param fsync Whether to force the file and its directory entry to the storage device
+     */
+    public static void write(Path target, Map<String, ByteBuffer> records, boolean fsync) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        List<ByteBuffer> indexEntries = new ArrayList<>(records.size());
+        int indexLength = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putShort(VERSION).flip();
+            writeFully(out, header);
+            long position = HEADER_BYTES;
+            for (Map.Entry<String, ByteBuffer> record : records.entrySet()) {
+                ByteBuffer body = record.getValue().duplicate();
+                int length = body.remaining();
+                int crc = crc(body.duplicate());
+                writeFully(out, ByteBuffer.allocate(RECORD_HEADER_BYTES).putInt(length).putInt(crc).flip());
+                writeFully(out, body);
+
+                byte[] name = record.getKey().getBytes(StandardCharsets.UTF_8);
+                ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + name.length + Long.BYTES + Integer.BYTES * 2);
+                entry.putInt(name.length).put(name).putLong(position + RECORD_HEADER_BYTES).putInt(length).putInt(crc).flip();
+                indexEntries.add(entry);
+                indexLength += entry.remaining();
+                position += RECORD_HEADER_BYTES + length;
+            }
+
+            ByteBuffer indexBytes = ByteBuffer.allocate(indexLength);
+            for (ByteBuffer entry : indexEntries) {
+                indexBytes.put(entry);
+            }
+            indexBytes.flip();
+            int indexCrc = crc(indexBytes.duplicate());
+            writeFully(out, indexBytes);
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES);
+            footer.putLong(position).putInt(indexLength).putInt(indexCrc).putInt(records.size()).putInt(MAGIC).flip();
+            writeFully(out, footer);
+            if (fsync) {
+                out.force(true);
+            }
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (fsync) {
+            forceDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    /*
+     * Opens a snapshot by reading its footer and index; record bodies stay on disk until asked for
+     * @throws IOException If the file is not a complete snapshot or its index is damaged
+     */
+    public static SnapshotFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES + FOOTER_BYTES) {
+                throw new IOException("Snapshot is truncated: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot: " + file);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - FOOTER_BYTES, FOOTER_BYTES);
+            long indexOffset = footer.getLong();
+            int indexLength = footer.getInt();
+            int indexCrc = footer.getInt();
+            int count = footer.getInt();
+            if (footer.getInt() != MAGIC || indexOffset < HEADER_BYTES || indexOffset + indexLength != size - FOOTER_BYTES) {
+                throw new IOException("Snapshot is truncated or damaged: " + file);
+            }
+            ByteBuffer indexBytes = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, indexLength);
+            if (crc(indexBytes.duplicate()) != indexCrc) {
+                throw new IOException("Snapshot index checksum mismatch: " + file);
+            }
+            Map<String, Entry> index = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[indexBytes.getInt()];
+                indexBytes.get(name);
+                Entry entry = new Entry(indexBytes.getLong(), indexBytes.getInt(), indexBytes.getInt());
+                if (entry.offset + entry.length > indexOffset) {
+                    throw new IOException("Snapshot index points past the records: " + file);
+                }
+                index.put(new String(name, StandardCharsets.UTF_8), entry);
+            }
+            return new SnapshotFile(file, channel, index);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("Snapshot is damaged: " + file, e);
+        }
+    }
+
+    // Record names in file order
+    public Set<String> names() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public boolean contains(String name) {
+        return index.containsKey(name);
+    }
+
+    /*
+     * Maps a record and checks its checksum the first time it is asked for
+     * @return A read-only view of the record body, positioned at its start, or null if there is no such record
+     * @throws IOException If the record's checksum doesn't match
+     */
+    public synchronized ByteBuffer get(String name) throws IOException {
+        Entry entry = index.get(name);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.body == null) {
+            ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, entry.offset, entry.length);
+            if (crc(body.duplicate()) != entry.crc) {
+                throw new IOException("Checksum mismatch in record '" + name + "' of " + file);
+            }
+            entry.body = body;
+        }
+        return entry.body.duplicate();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close(); // mapped records stay readable until they are garbage collected
+    }
+
+    private static int crc(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+
+    // Makes the rename itself durable; not every platform lets a directory be opened, and that's fine
+    private static void forceDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package edu.sdccd.cisc191.network;
+
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.subsystems.Order;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+    /*
+     * Features added:
+     * Load generator for soak tests: opens many loopback connections with MultiplayerClient and plays bots on them
+     * Bots replay a script of actions in a loop, or pick random ones, at a fixed rate per bot
+     * Open-loop pacing: actions go out on schedule whether or not the server keeps up, so a slow server
+     * shows up as latency instead of being hidden by bots that wait
+     * Reports probe latency percentiles, throughput and error counts
+     */
+
+public class BotDriver {
+    private static final String[] SHIP_TYPES = {"Fighter", "Cruiser", "Battleship"};
+    private static final String[] PLANETS = {"Mars", "Andromeda", "Kepler", "Vulcan"};
+    private static final long DRAIN_MILLIS = 2_000;
+
+    // One scripted or random step a bot takes
+    private interface Action {
+        void perform(MultiplayerClient.Session session, Random random);
+    }
+
+    private final String host;
+    private final int port;
+    private int bots = 100;
+    private int clientThreads = 1;
+    private double actionsPerSecond = 1;
+    private long durationMillis = 10_000;
+    private int boardSize = -1; // negative: pick one with about 10 cells per bot
+    private List<Action> script; // null: random actions
+
+    public BotDriver(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public void setBots(int bots) {
+        this.bots = bots;
+    }
+
+    // Selector threads sharing the bots' connections
+    public void setClientThreads(int clientThreads) {
+        this.clientThreads = Math.max(1, clientThreads);
+    }
+
+    // Per bot
+    public void setActionsPerSecond(double actionsPerSecond) {
+        this.actionsPerSecond = actionsPerSecond;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    /*
+     * Bots start at random cells of a square board and send MOVE, so the server only fans events out locally
+     * @param boardSize Rows and columns; 0 keeps bots unplaced, so every bot hears every other
+     */
+    public void setBoardSize(int boardSize) {
+        this.boardSize = boardSize;
+    }
+
+    /*
+     * Replaces random actions with a script that every bot plays in a loop
+     * @param lines One action per line: PROBE, CHAT <text>, MOVE <row> <col> or MOVE random, BUILD <type> <count>,
+     *              EXPLORE <planet>, TRADE <BUY|SELL> <resource> <quantity> <price>; blank lines and # comments are skipped
+     */
+    public void setScript(List<String> lines) {
+        List<Action> actions = new ArrayList<>();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                actions.add(parse(trimmed));
+            }
+        }
+        if (actions.isEmpty()) {
+            throw new IllegalArgumentException("The script has no actions");
+        }
+        this.script = actions;
+    }
+
+    private Action parse(String line) {
+        String[] words = line.split("\\s+");
+        try {
+            switch (words[0].toUpperCase()) {
+                case "PROBE":
+                    return (session, random) -> session.probe();
+                case "CHAT":
+                    String text = line.substring(words[0].length()).trim();
+                    return (session, random) -> session.chat(text);
+                case "MOVE":
+                    if (words[1].equalsIgnoreCase("random")) {
+                        return (session, random) -> moveRandomly(session, random);
+                    }
+                    int row = Integer.parseInt(words[1]);
+                    int col = Integer.parseInt(words[2]);
+                    return (session, random) -> session.move(row, col);
+                case "BUILD":
+                    int count = Integer.parseInt(words[2]);
+                    return (session, random) -> session.build(words[1], count);
+                case "EXPLORE":
+                    return (session, random) -> session.explore(words[1]);
+                case "TRADE":
+                    Order.Side side = Order.Side.valueOf(words[1].toUpperCase());
+                    ResourceType resource = ResourceType.fromName(words[2]);
+                    if (resource == null) {
+                        throw new IllegalArgumentException("Unknown resource in: " + line);
+                    }
+                    int quantity = Integer.parseInt(words[3]);
+                    int price = Integer.parseInt(words[4]);
+                    return (session, random) -> session.trade(side, resource, quantity, price);
+                default:
+                    throw new IllegalArgumentException("Unknown action: " + line);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed action: " + line, e);
+        }
+    }
+
+    // The mix a typical player produces; chats double as latency probes
+    private void randomAction(MultiplayerClient.Session session, Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 40) {
+            session.probe();
+        } else if (roll < 60) {
+            moveRandomly(session, random);
+        } else if (roll < 75) {
+            session.build(SHIP_TYPES[random.nextInt(SHIP_TYPES.length)], 1 + random.nextInt(10));
+        } else if (roll < 90) {
+            session.explore(PLANETS[random.nextInt(PLANETS.length)]);
+        } else {
+            session.trade(random.nextBoolean() ? Order.Side.BUY : Order.Side.SELL,
+                    ResourceType.byOrdinal(random.nextInt(ResourceType.count())), 1 + random.nextInt(50), 1 + random.nextInt(20));
+        }
+    }
+
+    private void moveRandomly(MultiplayerClient.Session session, Random random) {
+        int size = effectiveBoardSize();
+        if (size > 0) {
+            session.move(random.nextInt(size), random.nextInt(size));
+        }
+    }
+
+    private int effectiveBoardSize() {
+        return boardSize >= 0 ? boardSize : (int) Math.ceil(Math.sqrt(bots * 10.0));
+    }
+
+    /*
+     * Connects the bots, plays them for the configured duration, waits briefly for the last echoes and reports
+     * Open-loop: the k-th action overall is due at k / (bots * rate) seconds, and late actions are sent at once
+     */
+    public Report run() throws IOException {
+        List<MultiplayerClient> clients = new ArrayList<>();
+        List<MultiplayerClient.Session> sessions = new ArrayList<>();
+        Random random = new Random();
+        try {
+            for (int i = 0; i < clientThreads; i++) {
+                MultiplayerClient client = new MultiplayerClient(host, port);
+                client.start();
+                clients.add(client);
+            }
+            long connectBegin = System.nanoTime();
+            for (int i = 0; i < bots; i++) {
+                MultiplayerClient.Session session = clients.get(i % clients.size()).connect();
+                if (session != null) {
+                    // Placed first, so even the join only reaches nearby bots
+                    moveRandomly(session, random);
+                    session.join("bot-" + session.getId(), "Bot " + i);
+                    sessions.add(session);
+                }
+            }
+            long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectBegin);
+            if (sessions.isEmpty()) {
+                return report(clients, sessions, connectMillis, 0, 0);
+            }
+
+            double actionsPerNano = sessions.size() * actionsPerSecond / 1e9;
+            long[] step = new long[sessions.size()];
+            long performed = 0;
+            long begin = System.nanoTime();
+            long end = begin + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                long due = (long) ((now - begin) * actionsPerNano);
+                while (performed < due) {
+                    int bot = (int) (performed % sessions.size());
+                    MultiplayerClient.Session session = sessions.get(bot);
+                    if (session.isOpen()) {
+                        if (script == null) {
+                            randomAction(session, random);
+                        } else {
+                            script.get((int) (step[bot]++ % script.size())).perform(session, random);
+                        }
+                    }
+                    performed++;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            long elapsedNanos = System.nanoTime() - begin;
+
+            // Give the last probes time to come back before counting them as lost
+            long drainEnd = System.currentTimeMillis() + DRAIN_MILLIS;
+            while (System.currentTimeMillis() < drainEnd && inFlight(sessions) > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            return report(clients, sessions, connectMillis, performed, elapsedNanos);
+        } finally {
+            for (MultiplayerClient client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    private static int inFlight(List<MultiplayerClient.Session> sessions) {
+        int waiting = 0;
+        for (MultiplayerClient.Session session : sessions) {
+            waiting += session.getProbesInFlight();
+        }
+        return waiting;
+    }
+
+    private Report report(List<MultiplayerClient> clients, List<MultiplayerClient.Session> sessions,
+                          long connectMillis, long actions, long elapsedNanos) {
+        Report report = new Report();
+        report.bots = bots;
+        report.connected = sessions.size();
+        report.connectMillis = connectMillis;
+        report.actions = actions;
+        report.elapsedNanos = elapsedNanos;
+        for (MultiplayerClient client : clients) {
+            report.latency.add(client.getLatency());
+            report.framesSent += client.getFramesSent();
+            report.framesReceived += client.getFramesReceived();
+            report.bytesSent += client.getBytesSent();
+            report.bytesReceived += client.getBytesReceived();
+            report.connectFailures += client.getConnectFailures();
+            report.disconnects += client.getDisconnects();
+            report.sendsDropped += client.getSendsDropped();
+            report.probesLost += client.getProbesLost();
+            report.badFrames += client.getBadFrames();
+        }
+        report.probesLost += inFlight(sessions); // never answered within the drain time
+        return report;
+    }
+
+    /**
+     * What a run measured. Latencies are probe round trips in nanoseconds.
+     */
+    public static final class Report {
+        public final LatencyHistogram latency = new LatencyHistogram();
+        public int bots;
+        public int connected;
+        public long connectMillis;
+        public long actions;
+        public long elapsedNanos;
+        public long framesSent;
+        public long framesReceived;
+        public long bytesSent;
+        public long bytesReceived;
+        public long connectFailures;
+        public long disconnects;
+        public long sendsDropped;
+        public long probesLost;
+        public long badFrames;
+
+        public long getErrorCount() {
+            return connectFailures + disconnects + sendsDropped + probesLost + badFrames;
+        }
+
+        private double perSecond(long count) {
+            return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Bots: %d of %d connected in %d ms%n", connected, bots, connectMillis)
+                    + String.format("Throughput: %.0f actions/s, %.0f frames/s sent, %.0f frames/s received, %.1f MB/s in%n",
+                    perSecond(actions), perSecond(framesSent), perSecond(framesReceived), perSecond(bytesReceived) / 1e6)
+                    + String.format("Probe latency (us): p50 %d, p90 %d, p99 %d, p99.9 %d, max %d, mean %d over %d probes%n",
+                    latency.percentile(50) / 1_000, latency.percentile(90) / 1_000, latency.percentile(99) / 1_000,
+                    latency.percentile(99.9) / 1_000, latency.getMax() / 1_000, latency.getMean() / 1_000, latency.getCount())
+                    + String.format("Errors: %d connect failures, %d disconnects, %d sends dropped, %d probes lost, %d bad frames",
+                    connectFailures, disconnects, sendsDropped, probesLost, badFrames);
+        }
+    }
+
+    /*
+     * Options:
+     * --host=H --port=P       server to load (default 127.0.0.1:5000)
+     * --bots=N                connections to open
+     * --rate=R                actions per second per bot
+     * --seconds=S             how long to play
+     * --threads=T             client selector threads
+     * --board=B               board size bots spread over; 0 for no MOVEs
+     * --script=FILE           actions to replay instead of random ones
+     */
+    public static void main(String[] args) throws IOException {
+        String host = "127.0.0.1";
+        int port = 5000;
+        for (String arg : args) {
+            if (arg.startsWith("--host=")) {
+                host = arg.substring("--host=".length());
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            }
+        }
+        BotDriver driver = new BotDriver(host, port);
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--bots=")) {
+                driver.setBots(Integer.parseInt(value));
+            } else if (arg.startsWith("--rate=")) {
+                driver.setActionsPerSecond(Double.parseDouble(value));
+            } else if (arg.startsWith("--seconds=")) {
+                driver.setDurationMillis((long) (Double.parseDouble(value) * 1_000));
+            } else if (arg.startsWith("--threads=")) {
+                driver.setClientThreads(Integer.parseInt(value));
+            } else if (arg.startsWith("--board=")) {
+                driver.setBoardSize(Integer.parseInt(value));
+            } else if (arg.startsWith("--script=")) {
+                driver.setScript(Files.readAllLines(Paths.get(value)));
+            }
+        }
+        System.out.println(driver.run());
+    }
+}
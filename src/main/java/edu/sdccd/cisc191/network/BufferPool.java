@@ -0,0 +1,55 @@
+package edu.sdccd.cisc191.network;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Reusable direct buffers of one size; lets connections hold a receive buffer only while a message is arriving
+public final class BufferPool {
+    private final int bufferBytes;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    /*
+     * @param bufferBytes Size of every buffer
+     * @param maxPooled Most idle buffers kept; buffers released beyond that are left to the garbage collector
+     */
+    public BufferPool(int bufferBytes, int maxPooled) {
+        this.bufferBytes = bufferBytes;
+        this.maxPooled = maxPooled;
+    }
+
+    // A cleared buffer, reused if one is free
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            allocated.incrementAndGet();
+            return ByteBuffer.allocateDirect(bufferBytes);
+        }
+        pooled.decrementAndGet();
+        return buffer.clear();
+    }
+
+    // Returns a buffer from acquire; it must not be used afterwards
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferBytes || !buffer.isDirect()) {
+            throw new IllegalArgumentException("Not a buffer from this pool");
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            free.add(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    public int getBufferBytes() {
+        return bufferBytes;
+    }
+
+    // Buffers ever allocated, for checking that reuse works
+    public int getAllocatedCount() {
+        return allocated.get();
+    }
+}
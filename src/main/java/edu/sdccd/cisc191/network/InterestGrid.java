@@ -0,0 +1,194 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+    /*
+     * Features added:
+     * Area-of-interest index over GameBoard coordinates: which subscribers should hear about an event at a cell
+     * Each subscriber is listed in every grid cell its range overlaps, so a lookup reads one cell's list
+     * instead of every player; cost follows local density, not player count
+     * Moves are incremental: only the cells entering and leaving a subscriber's range are touched
+     * Lookups take no lock and can run on every I/O thread at once; moves are serialized
+     */
+
+public final class InterestGrid<S> {
+    // Where a subscriber's fleet is and how far it sees; replaced, never changed, on every move
+    private static final class Area {
+        final int row;
+        final int col;
+        final int range;
+
+        Area(int row, int col, int range) {
+            this.row = row;
+            this.col = col;
+            this.range = range;
+        }
+
+        boolean covers(int eventRow, int eventCol) {
+            return Math.abs(eventRow - row) <= range && Math.abs(eventCol - col) <= range;
+        }
+    }
+
+    private final int cellSize;
+    private final Map<Long, Set<S>> cells = new ConcurrentHashMap<>();
+    private final Map<S, Area> areas = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private long cellUpdates; // guarded by writeLock
+
+    /*
+     * @param cellSize Board cells per grid cell; about a typical range keeps each subscriber in a few grid cells
+     */
+    public InterestGrid(int cellSize) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("cellSize must be at least 1");
+        }
+        this.cellSize = cellSize;
+    }
+
+    /*
+     * Adds a subscriber, or moves it and changes its range if it is already in the grid
+     * @param range Events at most this many rows and columns away are delivered
+     */
+    public void subscribe(S subscriber, int row, int col, int range) {
+        if (range < 0) {
+            throw new IllegalArgumentException("range must not be negative");
+        }
+        writeLock.lock();
+        try {
+            Area old = areas.get(subscriber);
+            Area moved = new Area(row, col, range);
+            // Join the new cells before leaving the old ones, so a concurrent lookup never misses the subscriber
+            forEachCell(moved, key -> {
+                if (old == null || !overlaps(old, key)) {
+                    cells.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+                    cellUpdates++;
+                }
+            });
+            areas.put(subscriber, moved);
+            if (old != null) {
+                forEachCell(old, key -> {
+                    if (!overlaps(moved, key)) {
+                        leave(key, subscriber);
+                    }
+                });
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /*
+     * Moves a subscriber's fleet, keeping its range
+     * @return false if it isn't subscribed
+     */
+    public boolean move(S subscriber, int row, int col) {
+        writeLock.lock();
+        try {
+            Area old = areas.get(subscriber);
+            if (old == null) {
+                return false;
+            }
+            subscribe(subscriber, row, col, old.range); // the lock is reentrant
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void unsubscribe(S subscriber) {
+        writeLock.lock();
+        try {
+            Area old = areas.remove(subscriber);
+            if (old != null) {
+                forEachCell(old, key -> leave(key, subscriber));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /*
+     * Hands every subscriber whose range covers a board cell to an action
+     * @return How many subscribers were given to the action
+     */
+    public int forEachInterested(int row, int col, Consumer<? super S> action) {
+        Set<S> cell = cells.get(cellKey(Math.floorDiv(row, cellSize), Math.floorDiv(col, cellSize)));
+        if (cell == null) {
+            return 0;
+        }
+        int delivered = 0;
+        for (S subscriber : cell) {
+            Area area = areas.get(subscriber);
+            // Grid cells are coarser than ranges, so check the exact area
+            if (area != null && area.covers(row, col)) {
+                action.accept(subscriber);
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    /*
+     * Whether an event at a board cell reaches one subscriber; takes no lock
+     * @return false if the subscriber isn't in the grid
+     */
+    public boolean covers(S subscriber, int row, int col) {
+        Area area = areas.get(subscriber);
+        return area != null && area.covers(row, col);
+    }
+
+    public boolean contains(S subscriber) {
+        return areas.containsKey(subscriber);
+    }
+
+    public int size() {
+        return areas.size();
+    }
+
+    // Subscriber list entries added or removed so far, to check that moves stay incremental
+    public long getCellUpdateCount() {
+        writeLock.lock();
+        try {
+            return cellUpdates;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void leave(long key, S subscriber) {
+        Set<S> cell = cells.get(key);
+        if (cell != null && cell.remove(subscriber)) {
+            cellUpdates++;
+            if (cell.isEmpty()) {
+                cells.remove(key, cell);
+            }
+        }
+    }
+
+    private void forEachCell(Area area, Consumer<Long> action) {
+        for (int cellRow = Math.floorDiv(area.row - area.range, cellSize);
+             cellRow <= Math.floorDiv(area.row + area.range, cellSize); cellRow++) {
+            for (int cellCol = Math.floorDiv(area.col - area.range, cellSize);
+                 cellCol <= Math.floorDiv(area.col + area.range, cellSize); cellCol++) {
+                action.accept(cellKey(cellRow, cellCol));
+            }
+        }
+    }
+
+    private boolean overlaps(Area area, long key) {
+        int cellRow = (int) (key >> 32);
+        int cellCol = (int) key;
+        return cellRow >= Math.floorDiv(area.row - area.range, cellSize)
+                && cellRow <= Math.floorDiv(area.row + area.range, cellSize)
+                && cellCol >= Math.floorDiv(area.col - area.range, cellSize)
+                && cellCol <= Math.floorDiv(area.col + area.range, cellSize);
+    }
+
+    private static long cellKey(int cellRow, int cellCol) {
+        return (long) cellRow << 32 | (cellCol & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,492 @@
+package edu.sdccd.cisc191.network;
+
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.subsystems.Order;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+    /*
+     * Features added:
+     * Headless multiplayer client: one selector thread drives any number of binary connections, so a single
+     * process can stand in for thousands of players
+     * Sessions send WireProtocol frames from any thread without blocking; the selector thread writes them
+     * Probes are chats tagged with the session and a sequence number; the server relays them back to the
+     * sender, and the round trip goes into a latency histogram
+     * State updates from StateSync are applied to the session's copy of the world and acked automatically
+     * Counts frames, bytes and errors for load reports
+     */
+
+// Multiplayer Client for Player Connection
+public class MultiplayerClient implements Closeable {
+    private static final int READ_BUFFER_BYTES = 8192;
+    private static final int SEND_QUEUE_CAPACITY = 1024;
+    private static final String PROBE_PREFIX = "probe ";
+    private static final AtomicInteger nextSessionId = new AtomicInteger(); // unique across clients in one process
+
+    /**
+     * Receives every frame a session reads, on the client's selector thread; the frame is only valid during the call.
+     */
+    public interface FrameListener {
+        void onFrame(Session session, WireProtocol.Frame frame);
+    }
+
+    private final InetSocketAddress server;
+    private final Selector selector;
+    private final Thread thread;
+    private final WireProtocol.Frame frame = new WireProtocol.Frame(); // reused for every frame read
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong connectFailures = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+    private final AtomicLong sendsDropped = new AtomicLong();
+    private final AtomicLong probesLost = new AtomicLong();
+    private final AtomicLong badFrames = new AtomicLong();
+    private volatile FrameListener listener;
+    private volatile boolean running;
+
+    public MultiplayerClient(String host, int port) throws IOException {
+        this.server = new InetSocketAddress(host, port);
+        this.selector = Selector.open();
+        this.thread = new Thread(this::run, "multiplayer-client");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    public void setListener(FrameListener listener) {
+        this.listener = listener;
+    }
+
+    /*
+     * Opens one more connection and announces it as a binary client
+     * @return The new session, or null if the server couldn't be reached (counted as a connect failure)
+     */
+    public Session connect() {
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open(server);
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            connectFailures.incrementAndGet();
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // never connected
+                }
+            }
+            return null;
+        }
+        Session session = new Session(channel);
+        openSessions.incrementAndGet();
+        execute(session::register); // queued first, so it runs before the hello is flushed
+        session.send(ByteBuffer.wrap(new byte[]{WireProtocol.BINARY_HELLO}), false);
+        return session;
+    }
+
+    // Runs a task on the selector thread; many calls between two selects cost one wakeup
+    private void execute(Runnable task) {
+        tasks.add(task);
+        if (Thread.currentThread() != thread && wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                System.err.println("Client selector error: " + e.getMessage());
+                break;
+            }
+            wakeupPending.set(false);
+            runTasks();
+            Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+            while (selected.hasNext()) {
+                SelectionKey key = selected.next();
+                selected.remove();
+                Session session = (Session) key.attachment();
+                if (key.isValid() && key.isReadable()) {
+                    session.read();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    session.flush();
+                }
+            }
+            runTasks(); // e.g. acks queued while reading
+        }
+        for (SelectionKey key : selector.keys()) {
+            ((Session) key.attachment()).close(false);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // shutting down anyway
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    // Closes every session and stops the selector thread
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Round trips of probes, in nanoseconds
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public int getOpenSessionCount() {
+        return openSessions.get();
+    }
+
+    public long getFramesSent() {
+        return framesSent.get();
+    }
+
+    public long getFramesReceived() {
+        return framesReceived.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getConnectFailures() {
+        return connectFailures.get();
+    }
+
+    // Sessions the server closed, or that failed while reading or writing
+    public long getDisconnects() {
+        return disconnects.get();
+    }
+
+    // Frames not sent because the session's send queue was full
+    public long getSendsDropped() {
+        return sendsDropped.get();
+    }
+
+    // Probes whose echo never came back, e.g. because the server dropped it for a slow client
+    public long getProbesLost() {
+        return probesLost.get();
+    }
+
+    public long getBadFrames() {
+        return badFrames.get();
+    }
+
+    /**
+     * One connection to the server. The send methods may be called from any thread and never block.
+     */
+    public final class Session {
+        private final int id = nextSessionId.incrementAndGet();
+        private final SocketChannel channel;
+        private final OutboundQueue<ByteBuffer> outbound = new OutboundQueue<>(SEND_QUEUE_CAPACITY, OutboundQueue.SlowConsumerPolicy.DROP);
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final ArrayDeque<long[]> probes = new ArrayDeque<>(); // {sequence, sent nanos}, oldest first
+        private final Map<Long, Integer> world = new HashMap<>(); // selector thread only
+        private long probeSequence; // guarded by probes
+        private long appliedTick = -1; // selector thread only
+        private SelectionKey key;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES); // selector thread only
+        private ByteBuffer writing; // selector thread only
+        private boolean handshaken; // selector thread only; set once the server's hello reply has been read
+        private volatile boolean open = true;
+
+        private Session(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public boolean isOpen() {
+            return open;
+        }
+
+        // This session's copy of the synced world; only read it from a FrameListener
+        public Map<Long, Integer> getWorld() {
+            return world;
+        }
+
+        public void chat(String text) {
+            send(frame(WireProtocol.LENGTH_BYTES + 1 + Short.BYTES + text.length() * 3,
+                    out -> WireProtocol.writeChat(out, text)), true);
+        }
+
+        // Sends a chat the server relays back to this session, to time the round trip
+        public void probe() {
+            synchronized (probes) {
+                long sequence = ++probeSequence;
+                probes.add(new long[]{sequence, System.nanoTime()});
+                chat(PROBE_PREFIX + id + " " + sequence);
+            }
+        }
+
+        public void join(String playerId, String playerName) {
+            send(frame(64 + (playerId.length() + playerName.length()) * 3,
+                    out -> WireProtocol.writeJoin(out, playerId, playerName)), true);
+        }
+
+        public void leave(String playerId) {
+            send(frame(64 + playerId.length() * 3, out -> WireProtocol.writeLeave(out, playerId)), true);
+        }
+
+        public void build(String shipType, int count) {
+            send(frame(64 + shipType.length() * 3, out -> WireProtocol.writeBuild(out, shipType, count)), true);
+        }
+
+        public void explore(String planet) {
+            send(frame(64 + planet.length() * 3, out -> WireProtocol.writeExplore(out, planet)), true);
+        }
+
+        public void trade(Order.Side side, ResourceType resource, int quantity, int price) {
+            send(frame(64, out -> WireProtocol.writeTrade(out, side, resource, quantity, price)), true);
+        }
+
+        public void move(int row, int col) {
+            send(frame(64, out -> WireProtocol.writeMove(out, row, col)), true);
+        }
+
+        private ByteBuffer frame(int capacity, Consumer<ByteBuffer> writer) {
+            ByteBuffer out = ByteBuffer.allocate(capacity);
+            writer.accept(out);
+            return out.flip();
+        }
+
+        private void send(ByteBuffer bytes, boolean isFrame) {
+            if (!open) {
+                return;
+            }
+            OutboundQueue.Offer offer = outbound.offer(bytes, null);
+            if (offer == OutboundQueue.Offer.DROPPED) {
+                sendsDropped.incrementAndGet();
+                return;
+            }
+            if (isFrame && offer == OutboundQueue.Offer.QUEUED) {
+                framesSent.incrementAndGet();
+            }
+            if (flushScheduled.compareAndSet(false, true)) {
+                execute(this::flush);
+            }
+        }
+
+        private void register() {
+            try {
+                key = channel.register(selector, SelectionKey.OP_READ, this);
+            } catch (IOException e) {
+                close(true);
+            }
+        }
+
+        private void read() {
+            int read;
+            try {
+                read = channel.read(readBuffer);
+            } catch (IOException e) {
+                close(true);
+                return;
+            }
+            if (read < 0) {
+                close(true);
+                return;
+            }
+            bytesReceived.addAndGet(read);
+            readBuffer.flip();
+            if (!handshaken && !skipToHello()) {
+                readBuffer.clear();
+                return;
+            }
+            int length;
+            while ((length = WireProtocol.frameLength(readBuffer)) > 0) {
+                WireProtocol.Frame received = frame.wrap(readBuffer, length);
+                if (received == null) {
+                    badFrames.incrementAndGet();
+                } else {
+                    framesReceived.incrementAndGet();
+                    onFrame(received);
+                }
+                readBuffer.position(readBuffer.position() + length);
+            }
+            readBuffer.compact();
+            if (!readBuffer.hasRemaining()) {
+                // A frame larger than the buffer; make room for the biggest possible one
+                ByteBuffer larger = ByteBuffer.allocate(WireProtocol.MAX_FRAME_BYTES);
+                larger.put(readBuffer.flip());
+                readBuffer = larger;
+            }
+        }
+
+        // Drops text the server sent before it saw our hello, up to and including its one byte reply
+        private boolean skipToHello() {
+            while (readBuffer.hasRemaining()) {
+                if (readBuffer.get() == WireProtocol.BINARY_HELLO) {
+                    handshaken = true;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void onFrame(WireProtocol.Frame received) {
+            switch (received.type()) {
+                case CHAT -> {
+                    String text = received.string(0);
+                    if (text.startsWith(PROBE_PREFIX)) {
+                        onProbe(text);
+                    }
+                }
+                case STATE_UPDATE -> {
+                    if (received.stateTick() > appliedTick) {
+                        StateSync.applyUpdate(received.stateBody(), world);
+                        appliedTick = received.stateTick();
+                        ByteBuffer ack = ByteBuffer.allocate(WireProtocol.LENGTH_BYTES + 1 + Long.BYTES);
+                        WireProtocol.writeAck(ack, appliedTick);
+                        send(ack.flip(), true);
+                    }
+                }
+                default -> {
+                }
+            }
+            FrameListener current = listener;
+            if (current != null) {
+                current.onFrame(this, received);
+            }
+        }
+
+        // "probe <session> <sequence>"; other sessions' probes are ignored
+        private void onProbe(String text) {
+            String[] words = text.split(" ");
+            long sequence;
+            try {
+                if (words.length != 3 || Integer.parseInt(words[1]) != id) {
+                    return;
+                }
+                sequence = Long.parseLong(words[2]);
+            } catch (NumberFormatException e) {
+                return; // someone else's chat that happens to start like a probe
+            }
+            long now = System.nanoTime();
+            synchronized (probes) {
+                // Echoes come back in order, so anything older than this one is lost
+                while (!probes.isEmpty() && probes.peek()[0] < sequence) {
+                    probes.poll();
+                    probesLost.incrementAndGet();
+                }
+                if (!probes.isEmpty() && probes.peek()[0] == sequence) {
+                    latency.record(now - probes.poll()[1]);
+                }
+            }
+        }
+
+        // Probes still waiting for their echo; the caller decides when they count as lost
+        public int getProbesInFlight() {
+            synchronized (probes) {
+                return probes.size();
+            }
+        }
+
+        private void flush() {
+            flushScheduled.set(false);
+            if (key == null || !key.isValid()) {
+                return;
+            }
+            try {
+                while (true) {
+                    if (writing == null) {
+                        writing = outbound.poll();
+                        if (writing == null) {
+                            break;
+                        }
+                    }
+                    bytesSent.addAndGet(channel.write(writing));
+                    if (writing.hasRemaining()) {
+                        break;
+                    }
+                    writing = null;
+                }
+            } catch (IOException e) {
+                close(true);
+                return;
+            }
+            int ops = writing == null ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+
+        // Closes this session from any thread
+        public void close() {
+            execute(() -> close(false));
+        }
+
+        private void close(boolean failed) {
+            if (!open) {
+                return;
+            }
+            open = false;
+            openSessions.decrementAndGet();
+            if (failed && running) {
+                disconnects.incrementAndGet();
+            }
+            outbound.close();
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing left to clean up
+            }
+            synchronized (probes) {
+                probesLost.addAndGet(probes.size());
+                probes.clear();
+            }
+        }
+    }
+}
@@ -4,19 +4,30 @@ import org.mortbay.jetty.security.ClientCertAuthenticator;
 
 import java.io.IOException;
 import java.net.ServerSocket;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /*
  * Features added:
  * - Manages connected players and their data
  * - Handles player-specific actions (e.g., joining, leaving, and in-game updates)
  * - Provides utility methods for managing game state
+ * - Concurrent registry: lookups never lock, and joins and leaves only lock the player's stripe
+ * - Players can be looked up by ID, by name and by connection; every player in an index is also in players
  */
 
 public class MultiplayerHandler {
+    private static final int DEFAULT_STRIPES = 64;
 
     public final Map<String, PlayerData> players; // Map to store player data by unique ID
+    private final Map<String, Set<PlayerData>> playersByName = new ConcurrentHashMap<>(); // names need not be unique
+    private final Map<Integer, PlayerData> playersByConnection = new ConcurrentHashMap<>();
+    private final Lock[] playerLocks;
+    private final int stripeMask;
 
     public void initializeServer(int port) {
         try {
@@ -36,8 +47,36 @@ public class MultiplayerHandler {
 
 
     public MultiplayerHandler(ServerSocket serverSocket) {
+        this(DEFAULT_STRIPES);
         ClientCertAuthenticator authenticator = new ClientCertAuthenticator();
-        this.players = new HashMap<>();
+    }
+
+    // A registry on its own, e.g. for a server that accepts connections itself
+    public MultiplayerHandler() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /*
+     * @param stripes Number of write locks, rounded up to a power of two
+     */
+    public MultiplayerHandler(int stripes) {
+        this.players = new ConcurrentHashMap<>();
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.playerLocks = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            playerLocks[i] = new ReentrantLock();
+        }
+        this.stripeMask = size - 1;
+    }
+
+    // Picks the lock stripe guarding the given player ID
+    private Lock lockFor(String playerId) {
+        int h = playerId.hashCode();
+        h ^= (h >>> 16);
+        return playerLocks[h & stripeMask];
     }
 
     /**
@@ -45,13 +84,45 @@ public class MultiplayerHandler {
      *
      * @param playerId Unique ID for the player
      * @param playerName Name of the player
+     * @return true if the player was added
+     */
+    public boolean addPlayer(String playerId, String playerName) {
+        return addPlayer(new PlayerData(playerId, playerName));
+    }
+
+    /**
+     * Adds a new player who is connected to the server.
+     *
+     * @param playerId Unique ID for the player
+     * @param playerName Name of the player
+     * @param connectionId The server's ID for the player's connection
+     * @return true if the player was added; false if the ID or the connection is already taken
      */
-    public synchronized void addPlayer(String playerId, String playerName) {
-        if (!players.containsKey(playerId)) {
-            players.put(playerId, new PlayerData(playerId, playerName));
-            System.out.println("Player added: " + playerName + " (ID: " + playerId + ")");
-        } else {
-            System.out.println("Player with ID " + playerId + " already exists.");
+    public boolean addPlayer(String playerId, String playerName, int connectionId) {
+        return addPlayer(new PlayerData(playerId, playerName, connectionId));
+    }
+
+    private boolean addPlayer(PlayerData player) {
+        String playerId = player.getPlayerId();
+        Lock lock = lockFor(playerId);
+        lock.lock();
+        try {
+            if (players.containsKey(playerId)) {
+                System.out.println("Player with ID " + playerId + " already exists.");
+                return false;
+            }
+            // Into players before the indexes, so every player an index finds can also be found by ID
+            players.put(playerId, player);
+            // Another stripe may be claiming the same connection, so take it atomically
+            if (player.hasConnection() && playersByConnection.putIfAbsent(player.getConnectionId(), player) != null) {
+                players.remove(playerId, player);
+                System.out.println("Connection " + player.getConnectionId() + " already has a player.");
+                return false;
+            }
+            indexName(player);
+            return true;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -59,13 +130,48 @@ public class MultiplayerHandler {
      * Removes a player from the game.
      *
      * @param playerId Unique ID for the player
+     * @return The removed player's data, or null if there was no such player
+     */
+    public PlayerData removePlayer(String playerId) {
+        Lock lock = lockFor(playerId);
+        lock.lock();
+        try {
+            PlayerData removedPlayer = players.get(playerId);
+            if (removedPlayer == null) {
+                System.out.println("No player found with ID: " + playerId);
+                return null;
+            }
+            unindex(removedPlayer);
+            players.remove(playerId);
+            return removedPlayer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes whichever player was using a connection, e.g. when it closes.
+     *
+     * @param connectionId The server's ID for the connection
+     * @return The removed player's data, or null if the connection had no player
      */
-    public synchronized void removePlayer(String playerId) {
-        if (players.containsKey(playerId)) {
-            PlayerData removedPlayer = players.remove(playerId);
-            System.out.println("Player removed: " + removedPlayer.getPlayerName() + " (ID: " + playerId + ")");
-        } else {
-            System.out.println("No player found with ID: " + playerId);
+    public PlayerData removeConnection(int connectionId) {
+        PlayerData player = playersByConnection.get(connectionId);
+        if (player == null) {
+            return null;
+        }
+        Lock lock = lockFor(player.getPlayerId());
+        lock.lock();
+        try {
+            // Only if the player wasn't replaced or removed while we waited for the lock
+            if (players.get(player.getPlayerId()) != player) {
+                return null;
+            }
+            unindex(player);
+            players.remove(player.getPlayerId());
+            return player;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -75,30 +181,96 @@ public class MultiplayerHandler {
      * @param playerId Unique ID for the player
      * @param newData Updated data for the player
      */
-    public synchronized void updatePlayerData(String playerId, PlayerData newData) {
-        if (players.containsKey(playerId)) {
+    public void updatePlayerData(String playerId, PlayerData newData) {
+        Lock lock = lockFor(playerId);
+        lock.lock();
+        try {
+            PlayerData old = players.get(playerId);
+            if (old == null) {
+                System.out.println("No player found with ID: " + playerId);
+                addPlayer(new PlayerData(playerId, newData.getPlayerName(), newData.getConnectionId()));
+                return;
+            }
+            // As when adding: the new data is in players before any index points at it
             players.put(playerId, newData);
-            System.out.println("Updated data for player: " + newData.getPlayerName());
-        } else {
-            players.put(playerId, new PlayerData(playerId, newData.getPlayerName()));
-            System.out.println("No player found with ID: " + playerId);
+            if (newData.hasConnection() && newData.getConnectionId() != old.getConnectionId()) {
+                PlayerData holder = playersByConnection.putIfAbsent(newData.getConnectionId(), newData);
+                if (holder != null && holder != old) {
+                    players.put(playerId, old);
+                    System.out.println("Connection " + newData.getConnectionId() + " already has a player.");
+                    return;
+                }
+            }
+            indexName(newData);
+            if (newData.hasConnection()) {
+                playersByConnection.put(newData.getConnectionId(), newData);
+            }
+            unindex(old, newData);
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Retrieves a player's data.
+     * Retrieves a player's data without locking.
      *
      * @param playerId Unique ID for the player
+     * @return The player's data, or null if there is no such player
+     */
+    public PlayerData getPlayerData(String playerId) {
+        return players.get(playerId);
+    }
+
+    /**
+     * Retrieves every player with a name.
+     *
+     * @param playerName Name to look for, matched exactly
+     * @return The matching players; empty if there are none
+     */
+    public Set<PlayerData> getPlayersByName(String playerName) {
+        Set<PlayerData> named = playersByName.get(playerName);
+        return named == null ? Collections.emptySet() : Collections.unmodifiableSet(named);
+    }
+
+    /**
+     * Retrieves the player using a connection.
+     *
+     * @param connectionId The server's ID for the connection
+     * @return The player's data, or null if the connection has no player
      */
-    public synchronized void getPlayerData(String playerId) {
-        if (players.containsKey(playerId)) {
-            getPlayerData(playerId);
-            players.get(playerId);
+    public PlayerData getPlayerByConnection(int connectionId) {
+        return playersByConnection.get(connectionId);
+    }
+
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    // Adds inside compute, so a player leaving under another stripe can't drop the set while it is joined
+    private void indexName(PlayerData player) {
+        playersByName.compute(player.getPlayerName(), (name, named) -> {
+            Set<PlayerData> joined = named == null ? ConcurrentHashMap.newKeySet() : named;
+            joined.add(player);
+            return joined;
+        });
+    }
+
+    private void unindex(PlayerData player) {
+        unindex(player, null);
+    }
+
+    // Drops a player's index entries, except those the replacement also holds; caller holds the player's stripe
+    private void unindex(PlayerData player, PlayerData replacement) {
+        if (player == replacement) {
             return;
-        } else {
-            System.out.println("No player found with ID: " + playerId);
         }
-        players.get(playerId);
+        if (player.hasConnection() && (replacement == null || replacement.getConnectionId() != player.getConnectionId())) {
+            playersByConnection.remove(player.getConnectionId(), player);
+        }
+        playersByName.computeIfPresent(player.getPlayerName(), (name, named) -> {
+            named.remove(player);
+            return named.isEmpty() ? null : named;
+        });
     }
 
     /**
@@ -106,7 +278,7 @@ public class MultiplayerHandler {
      *
      * @param message The message to broadcast
      */
-    public synchronized void broadcastMessage(String message) {
+    public void broadcastMessage(String message) {
         System.out.println("Broadcasting message to all players: " + message);
         // In a real implementation, this would send messages to connected clients.
     }
@@ -1,9 +1,15 @@
 package edu.sdccd.cisc191.network;
 
+import edu.sdccd.cisc191.game.GameBoard;
+
 import java.io.*;
 import java.net.*;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
     /*
      * Features added:
@@ -11,13 +17,41 @@ import java.util.Set;
      * Creates a server that listens for connections
      * Accepts multiple players
      * Broadcasts messages to all connected client
+     * Each client has a bounded outbound queue and its own writer thread, so one slow client can't stall the rest
+     * --nio runs the event-driven NioMultiplayerServer instead, for thousands of players
+     * The NIO server keeps binary clients in sync with a shared world: the board, and the fleets in range of theirs
+     * "MOVE <row> <col>" places a player's fleet; from then on it only hears players within range
      */
 
 public class MultiplayerServer {
-    private static final int PORT = 5000; // Port for communication
-    private static Set<PrintWriter> clientWriters = new HashSet<>();
+    public static final int PORT = 5000; // Port for communication
+    public static final long STATE_SYNC_TICK_MILLIS = 100;
+    private static final int NIO_IO_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int DEFAULT_QUEUE_CAPACITY = 256;
+    private static final Set<ClientHandler> clients = ConcurrentHashMap.newKeySet(); // broadcasts iterate without a lock
+    private static final Set<ClientHandler> unplaced = ConcurrentHashMap.newKeySet(); // no fleet position yet, so hear everything
+    private static final InterestGrid<ClientHandler> interest = new InterestGrid<>(NioMultiplayerServer.DEFAULT_INTEREST_RANGE);
+    private static int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private static OutboundQueue.SlowConsumerPolicy slowConsumerPolicy = OutboundQueue.SlowConsumerPolicy.DROP;
 
+    /*
+     * Options:
+     * --nio                              use NioMultiplayerServer
+     * --queue=N                          messages queued per client before the slow consumer policy applies
+     * --policy=drop|coalesce|disconnect  what to do with a client whose queue is full
+     */
     public static void main(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--queue=")) {
+                queueCapacity = Integer.parseInt(arg.substring("--queue=".length()));
+            } else if (arg.startsWith("--policy=")) {
+                slowConsumerPolicy = OutboundQueue.SlowConsumerPolicy.valueOf(arg.substring("--policy=".length()).toUpperCase());
+            }
+        }
+        if (Arrays.asList(args).contains("--nio")) {
+            runNio();
+            return;
+        }
         System.out.println("Multiplayer Server Started...");
         try (ServerSocket serverSocket = new ServerSocket (PORT)) {
             while (true) {
@@ -28,10 +62,42 @@ public class MultiplayerServer {
         }
     }
 
+    private static void runNio() {
+        WorldState world = new WorldState();
+        world.updateBoard(new GameBoard()); // players' fleets join it as they MOVE
+        try (NioMultiplayerServer server = startNio(world)) {
+            server.join();
+        } catch (IOException e) {
+            System.err.println("server Error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Starts a NIO server on PORT whose binary clients are kept in sync with a world, e.g. one a hosting Game feeds
+     * @return The running server; closing it stops the sync too
+     */
+    public static NioMultiplayerServer startNio(WorldState world) throws IOException {
+        NioMultiplayerServer server = new NioMultiplayerServer(PORT, NIO_IO_THREADS, queueCapacity, slowConsumerPolicy);
+        server.enableStateSync(world, STATE_SYNC_TICK_MILLIS, StateSync.DEFAULT_MAX_ENTRIES);
+        try {
+            server.start();
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    // Reads one player's messages; its writer thread sends theirs, so a slow reader never blocks a broadcast
     private static class ClientHandler extends Thread {
         private Socket socket;
-        private PrintWriter out;
         private BufferedReader in;
+        private final OutboundQueue<String> outbound = new OutboundQueue<>(queueCapacity, slowConsumerPolicy);
+        private volatile boolean placed; // set by this handler's reader thread; row and col are written before it
+        private volatile int row;
+        private volatile int col;
 
         public ClientHandler(Socket socket) {
             this.socket = socket;
@@ -39,40 +105,123 @@ public class MultiplayerServer {
 
         @Override
         public void run() {
+            Thread writer = null;
             try {
                 in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                out = new PrintWriter(socket.getOutputStream(), true);
-                synchronized (clientWriters) {
-                    clientWriters.add(out);
-                }
+                PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream())));
+                writer = new Thread(() -> drain(out), "client-writer-" + socket.getPort());
+                writer.setDaemon(true);
+                writer.start();
+                clients.add(this);
+                unplaced.add(this);
 
                 System.out.println("New Player Connected: " + socket.getInetAddress());
 
                 String message;
                 while ((message = in.readLine()) != null) {
                     System.out.println("Received: " + message);
-                    broadcastMessage("Player: " + message);
+                    if (message.startsWith("MOVE ") && !move(message)) {
+                        send("Usage: MOVE <row> <col>");
+                        continue;
+                    }
+                    if (placed) {
+                        broadcastNear(row, col, "Player: " + message);
+                    } else {
+                        broadcastMessage("Player: " + message);
+                    }
                 }
             } catch (IOException e) {
                 System.err.println("Connection Lost: " + e.getMessage());
             } finally {
+                clients.remove(this);
+                unplaced.remove(this);
+                interest.unsubscribe(this);
+                outbound.close();
                 try {
                     socket.close();
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
-                synchronized (clientWriters) {
-                    clientWriters.remove(out);
+                if (writer != null) {
+                    writer.interrupt();
+                }
+            }
+        }
+
+        // Places this player's fleet from a "MOVE <row> <col>" line; false if the line is malformed
+        private boolean move(String message) {
+            String[] words = message.trim().split("\\s+");
+            int newRow;
+            int newCol;
+            try {
+                newRow = Integer.parseInt(words[1]);
+                newCol = Integer.parseInt(words[2]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                return false; // the fleet stays where it was, in the grid too
+            }
+            row = newRow;
+            col = newCol;
+            interest.subscribe(this, row, col, NioMultiplayerServer.DEFAULT_INTEREST_RANGE);
+            placed = true;
+            unplaced.remove(this);
+            return true;
+        }
+
+        // Writer thread: sends everything queued, flushing once the queue runs dry
+        private void drain(PrintWriter out) {
+            try {
+                while (!socket.isClosed()) {
+                    String message = outbound.take(1, TimeUnit.SECONDS);
+                    if (message == null) {
+                        continue;
+                    }
+                    out.println(message);
+                    while ((message = outbound.poll()) != null) {
+                        out.println(message);
+                    }
+                    out.flush();
+                    if (out.checkError()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // the connection closed
+            }
+        }
+
+        // Never blocks: a full queue drops the message or, under DISCONNECT, closes this client
+        void send(String message) {
+            if (outbound.offer(message, null) == OutboundQueue.Offer.OVERFLOW) {
+                System.err.println("Slow client, disconnecting " + socket.getInetAddress());
+                try {
+                    socket.close(); // ends the read loop, which cleans up
+                } catch (IOException e) {
+                    e.printStackTrace();
                 }
             }
         }
     }
 
     private static void broadcastMessage(String message) {
-        synchronized (clientWriters) {
-            for (PrintWriter writer : clientWriters) {
-                writer.println(message);
-            }
+        for (ClientHandler client : clients) {
+            client.send(message);
+        }
+    }
+
+    // Only players whose fleets are in range of the cell, plus those that haven't placed a fleet yet
+    private static void broadcastNear(int row, int col, String message) {
+        for (ClientHandler client : unplaced) {
+            client.send(message);
+        }
+        interest.forEachInterested(row, col, client -> client.send(message));
+    }
+
+    // Messages waiting to be sent, per connected player
+    public static Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new HashMap<>();
+        for (ClientHandler client : clients) {
+            depths.put(String.valueOf(client.socket.getRemoteSocketAddress()), client.outbound.depth());
         }
+        return depths;
     }
 }
@@ -0,0 +1,686 @@
+package edu.sdccd.cisc191.network;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+    /*
+     * Features added:
+     * Event-driven multiplayer server: a few selector threads serve every connection, instead of a thread per player
+     * Non-blocking reads and writes; each client has a bounded outbound queue with a slow consumer policy
+     * Receive buffers come from a pool and are only held while a message is partly received, so idle players hold none
+     * Broadcasts encode a message once and share the bytes between every connection
+     * Same newline-terminated text protocol as MultiplayerServer, so existing clients work unchanged
+     * Binary clients speak WireProtocol frames, decoded in place from pooled receive buffers
+     * Optional state sync: binary clients are sent deltas of a WorldState at a fixed rate and ack each one
+     * With state sync on, each player's fleet is a ship in the world, placed by MOVE, and a client is only
+     * sent the ships its own fleet is in range of
+     * Area of interest: once a player reports where its fleet is, it only hears events from players in range
+     * JOIN and LEAVE frames keep a MultiplayerHandler registry, indexed by connection, up to date
+     */
+
+public class NioMultiplayerServer implements Closeable {
+    private static final int READ_BUFFER_BYTES = 4096;
+    private static final int MAX_POOLED_BUFFERS = 1024;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int MAX_LINE_BYTES = 8192;
+    private static final int ACCEPT_BACKLOG = 4096;
+    // State updates are cumulative, so a queued one is replaced by the next rather than sent late
+    private static final Object STATE_SYNC_KEY = new Object();
+    public static final int DEFAULT_INTEREST_RANGE = 3;
+    private static final String MOVE_COMMAND = "MOVE ";
+    private static final ByteBuffer BINARY_HELLO_REPLY = ByteBuffer.wrap(new byte[]{WireProtocol.BINARY_HELLO}).asReadOnlyBuffer();
+
+    private final int port;
+    private final IoLoop[] loops;
+    private final int queueCapacity;
+    private final OutboundQueue.SlowConsumerPolicy slowConsumerPolicy;
+    private final AtomicInteger slowDisconnects = new AtomicInteger();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    // Players that have not said where their fleet is yet still hear everything, as before
+    private final Set<Connection> unplaced = ConcurrentHashMap.newKeySet();
+    private final InterestGrid<Connection> interest = new InterestGrid<>(DEFAULT_INTEREST_RANGE);
+    private volatile int interestRange = DEFAULT_INTEREST_RANGE;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final AtomicInteger nextConnectionId = new AtomicInteger();
+    private final BufferPool bufferPool = new BufferPool(READ_BUFFER_BYTES, MAX_POOLED_BUFFERS);
+    private final MultiplayerHandler players = new MultiplayerHandler();
+    private ServerSocketChannel serverChannel;
+    private volatile boolean running;
+    private StateSync stateSync; // set before start, so the loop threads see it
+    private WorldState world;    // likewise
+
+    /*
+     * Creates a server; nothing is opened until start
+     * @param port Port to listen on, or 0 for any free port
+     * @param ioThreads Number of selector threads sharing the connections
+     */
+    public NioMultiplayerServer(int port, int ioThreads) {
+        this(port, ioThreads, DEFAULT_QUEUE_CAPACITY, OutboundQueue.SlowConsumerPolicy.DROP);
+    }
+
+    /*
+     * @param queueCapacity Most messages waiting to be sent to one client
+     * @param slowConsumerPolicy What to do when a client's queue is full
+     */
+    public NioMultiplayerServer(int port, int ioThreads, int queueCapacity, OutboundQueue.SlowConsumerPolicy slowConsumerPolicy) {
+        if (ioThreads < 1) {
+            throw new IllegalArgumentException("ioThreads must be at least 1");
+        }
+        this.port = port;
+        this.loops = new IoLoop[ioThreads];
+        this.queueCapacity = queueCapacity;
+        this.slowConsumerPolicy = slowConsumerPolicy;
+    }
+
+    // Binds the port and starts the selector threads; the first one also accepts new connections
+    public void start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+        serverChannel.configureBlocking(false);
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new IoLoop("nio-server-" + i);
+        }
+        serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        for (IoLoop loop : loops) {
+            loop.thread.start();
+        }
+        System.out.println("Multiplayer Server Started (NIO, " + loops.length + " I/O threads) on port " + getPort());
+    }
+
+    /*
+     * Keeps binary clients in sync with a world; must be called before start
+     * Each player's fleet is the world's ship with the player's connection id, placed where it last moved;
+     * a binary client sees its own inventory, the board, and the ships in range of its fleet
+     * (every ship until its fleet is placed, and ships without a position wherever they are)
+     * @param tickMillis Milliseconds between updates
+     * @param maxEntries Most values in one update; see StateSync
+     */
+    public StateSync enableStateSync(WorldState world, long tickMillis, int maxEntries) {
+        if (running) {
+            throw new IllegalStateException("State sync must be enabled before the server starts");
+        }
+        this.world = world;
+        stateSync = new StateSync(world, maxEntries);
+        stateSync.start(tickMillis);
+        return stateSync;
+    }
+
+    /*
+     * How far a fleet hears events; applies to fleets as they next move
+     * @param range Board rows and columns in each direction
+     */
+    public void setInterestRange(int range) {
+        if (range < 0) {
+            throw new IllegalArgumentException("range must not be negative");
+        }
+        interestRange = range;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    // Players that have joined, by ID, name or connection; safe to read from any thread
+    public MultiplayerHandler getPlayers() {
+        return players;
+    }
+
+    // Messages waiting to be sent, per client address
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new HashMap<>();
+        for (Connection connection : connections) {
+            depths.put(connection.name, connection.outbound.depth());
+        }
+        return depths;
+    }
+
+    // Clients closed by the DISCONNECT policy
+    public int getSlowDisconnectCount() {
+        return slowDisconnects.get();
+    }
+
+    /*
+     * Sends a message to every connected player: a line to text clients, a chat frame to binary ones
+     * @param message Text without the trailing newline
+     */
+    public void broadcastMessage(String message) {
+        connections.forEach(new Fanout(message, null, null));
+    }
+
+    /*
+     * Sends a message about something at a board cell, e.g. a battle, only to players whose fleets are in range
+     * Players that have not reported a fleet position get it too
+     * @return How many players it was sent to
+     */
+    public int broadcastNear(int row, int col, String message) {
+        return broadcastNear(row, col, new Fanout(message, null, null));
+    }
+
+    private int broadcastNear(int row, int col, Fanout fanout) {
+        unplaced.forEach(fanout);
+        return unplaced.size() + interest.forEachInterested(row, col, fanout);
+    }
+
+    // Relays a player's message to the players that can see its fleet, or to everyone if it has no position yet
+    private void relay(Connection from, String text, ByteBuffer frame, Object coalesceKey) {
+        Fanout fanout = new Fanout(text, frame, coalesceKey);
+        if (from.placed) {
+            broadcastNear(from.row, from.col, fanout);
+        } else {
+            connections.forEach(fanout);
+        }
+    }
+
+    // Called on a selector thread for every complete line a text client sends
+    private void onMessage(Connection from, String message) {
+        if (message.startsWith(MOVE_COMMAND)) {
+            String[] position = message.substring(MOVE_COMMAND.length()).trim().split("\\s+");
+            try {
+                moveFleet(from, Integer.parseInt(position[0]), Integer.parseInt(position[1]));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                from.send(bytes(ByteBuffer.wrap("Usage: MOVE <row> <col>\n".getBytes(StandardCharsets.UTF_8))), null);
+                return;
+            }
+        }
+        relay(from, "Player: " + message, null, null);
+    }
+
+    // Called on a selector thread for every frame a binary client sends; the frame is only valid during the call
+    private void onFrame(Connection from, WireProtocol.Frame frame) {
+        if (frame.type() == WireProtocol.MessageType.ACK) {
+            if (from.syncClient != null) {
+                stateSync.acknowledge(from.syncClient, frame.ackTick());
+            }
+            return;
+        }
+        if (frame.type() == WireProtocol.MessageType.STATE_UPDATE) {
+            // Only StateSync sends state; relaying a client's would let it overwrite everyone's copy of the world
+            return;
+        }
+        switch (frame.type()) {
+            case JOIN -> players.addPlayer(frame.string(0), frame.string(1), from.id);
+            case LEAVE -> players.removeConnection(from.id);
+            case MOVE -> moveFleet(from, frame.moveRow(), frame.moveCol());
+            default -> {
+            }
+        }
+        // Binary clients get the frame's bytes as they came; text clients, a readable line, rendered only once
+        relay(from, "Player: " + frame, frame.copy().asReadOnlyBuffer(), null);
+    }
+
+    // Only the connection's own loop thread moves it, so its position fields need no lock
+    private void moveFleet(Connection connection, int row, int col) {
+        connection.row = row;
+        connection.col = col;
+        interest.subscribe(connection, row, col, interestRange);
+        if (!connection.placed) {
+            connection.placed = true;
+            unplaced.remove(connection);
+        }
+        if (world != null && row >= 0 && col >= 0 && col <= 0xFFFF) { // a cell id can't hold anything else
+            world.moveShip(connection.id, row, col);
+        }
+        if (connection.syncClient != null) {
+            stateSync.rescan(connection.syncClient); // other fleets came into range, or left it
+        }
+    }
+
+    // StateSync's interest for a binary client; runs on the sync thread, which holds the world's lock
+    private boolean sees(Connection viewer, long key) {
+        int id = WorldState.idOf(key);
+        return switch (WorldState.kindOf(key)) {
+            case INVENTORY -> WorldState.playerOf(id) == viewer.id;
+            case SHIP_HEALTH, SHIP_POSITION -> seesShip(viewer, id);
+            default -> true;
+        };
+    }
+
+    private boolean seesShip(Connection viewer, int shipId) {
+        if (shipId == viewer.id || !interest.contains(viewer)) {
+            return true;
+        }
+        Integer position = world.value(WorldState.key(WorldState.Kind.SHIP_POSITION, shipId));
+        return position == null || interest.covers(viewer, WorldState.rowOf(position), WorldState.colOf(position));
+    }
+
+    // A queued message, encoded by the connection's own loop when it is written, once the client's mode is settled
+    private interface Outgoing {
+        ByteBuffer encode(boolean binary);
+    }
+
+    // Bytes that are the same for every kind of client, e.g. a state update or the hello reply
+    private static Outgoing bytes(ByteBuffer bytes) {
+        return binary -> bytes;
+    }
+
+    /*
+     * One message on its way to many connections; each encoding is made at most once, and only if someone needs it
+     * Loops encode it concurrently, so at worst two of them build the same immutable buffer
+     */
+    private static final class Fanout implements Consumer<Connection>, Outgoing {
+        private final String text;
+        private final Object coalesceKey;
+        private volatile ByteBuffer frame;
+        private volatile ByteBuffer line;
+
+        Fanout(String text, ByteBuffer frame, Object coalesceKey) {
+            this.text = text;
+            this.frame = frame;
+            this.coalesceKey = coalesceKey;
+        }
+
+        @Override
+        public void accept(Connection connection) {
+            connection.send(this, coalesceKey);
+        }
+
+        @Override
+        public ByteBuffer encode(boolean binary) {
+            if (binary) {
+                ByteBuffer encoded = frame;
+                if (encoded == null) {
+                    // At most 3 UTF-8 bytes per char
+                    ByteBuffer chat = ByteBuffer.allocate(WireProtocol.LENGTH_BYTES + 1 + Short.BYTES + text.length() * 3);
+                    WireProtocol.writeChat(chat, text);
+                    encoded = chat.flip().asReadOnlyBuffer();
+                    frame = encoded;
+                }
+                return encoded.duplicate();
+            }
+            ByteBuffer encoded = line;
+            if (encoded == null) {
+                // A binary client skips text up to the first NUL, so lines never carry one
+                String safe = text.replace('\0', ' ');
+                encoded = ByteBuffer.wrap((safe + "\n").getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+                line = encoded;
+            }
+            return encoded.duplicate();
+        }
+    }
+
+    // Waits until the server has been closed
+    public void join() throws InterruptedException {
+        for (IoLoop loop : loops) {
+            if (loop != null) { // null if start failed before creating it
+                loop.thread.join();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (stateSync != null) {
+            stateSync.shutdown();
+        }
+        for (IoLoop loop : loops) {
+            if (loop != null) {
+                loop.selector.wakeup();
+            }
+        }
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (serverChannel != null) {
+            serverChannel.close();
+        }
+    }
+
+    private enum Mode {
+        UNKNOWN, TEXT, BINARY
+    }
+
+    // One selector and the thread that polls it; other threads hand it work through tasks
+    private final class IoLoop implements Runnable {
+        final Selector selector;
+        final Thread thread;
+        final WireProtocol.Frame frame = new WireProtocol.Frame(); // reused for every frame this loop reads
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+        IoLoop(String name) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        // Runs a task on this loop's thread; many calls between two selects cost one wakeup
+        void execute(Runnable task) {
+            tasks.add(task);
+            if (Thread.currentThread() != thread && wakeupPending.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                } catch (IOException e) {
+                    System.err.println("Selector error: " + e.getMessage());
+                    break;
+                }
+                wakeupPending.set(false);
+                runTasks();
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    handle(key);
+                }
+                runTasks(); // e.g. flushes queued by broadcasts from the messages just read
+            }
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // shutting down anyway
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                acceptAll();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+            }
+        }
+
+        // Accepts everything waiting and spreads the new connections over the loops
+        private void acceptAll() {
+            while (true) {
+                SocketChannel channel;
+                try {
+                    channel = serverChannel.accept();
+                    if (channel == null) {
+                        return;
+                    }
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                } catch (IOException e) {
+                    System.err.println("Accept failed: " + e.getMessage());
+                    return;
+                }
+                IoLoop owner = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+                owner.execute(() -> owner.register(channel));
+            }
+        }
+
+        private void register(SocketChannel channel) {
+            try {
+                Connection connection = new Connection(channel, this);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connections.add(connection);
+                unplaced.add(connection);
+            } catch (IOException e) {
+                System.err.println("Connection Lost: " + e.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // already failed
+                }
+            }
+        }
+    }
+
+    // One player's socket with its own read buffer and outbound queue
+    private final class Connection {
+        private final SocketChannel channel;
+        private final IoLoop loop;
+        private SelectionKey key;
+        private ByteBuffer readBuffer; // loop thread only; null while no message is partly received
+        private Mode mode = Mode.UNKNOWN; // loop thread only; decided by the first byte the client sends
+        private final String name;
+        private final int id = nextConnectionId.incrementAndGet();
+        private StateSync.Client syncClient; // set once the client turns out to be binary, if state sync is on
+        private boolean placed; // loop thread only, like row and col: has reported a fleet position
+        private int row;
+        private int col;
+        private final OutboundQueue<Outgoing> outbound = new OutboundQueue<>(queueCapacity, slowConsumerPolicy);
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final AtomicBoolean disconnecting = new AtomicBoolean();
+        private ByteBuffer writing; // loop thread only: taken off the queue and partly written
+
+        Connection(SocketChannel channel, IoLoop loop) {
+            this.channel = channel;
+            this.loop = loop;
+            String address;
+            try {
+                address = String.valueOf(channel.getRemoteAddress());
+            } catch (IOException e) {
+                address = channel.toString();
+            }
+            this.name = address;
+        }
+
+        // Queues a message from any thread without blocking; the owning loop encodes and writes it
+        void send(Outgoing message, Object coalesceKey) {
+            OutboundQueue.Offer offer = outbound.offer(message, coalesceKey);
+            if (offer == OutboundQueue.Offer.OVERFLOW) {
+                if (disconnecting.compareAndSet(false, true)) {
+                    slowDisconnects.incrementAndGet();
+                    System.err.println("Slow client, disconnecting " + name);
+                    loop.execute(this::close);
+                }
+            } else if (offer == OutboundQueue.Offer.QUEUED && flushScheduled.compareAndSet(false, true)) {
+                loop.execute(this::flush);
+            }
+        }
+
+        void read() {
+            if (readBuffer == null) {
+                readBuffer = bufferPool.acquire();
+            }
+            int read;
+            try {
+                read = channel.read(readBuffer);
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (read < 0) {
+                close();
+                return;
+            }
+            readBuffer.flip();
+            if (mode == Mode.UNKNOWN && readBuffer.hasRemaining()) {
+                if (readBuffer.get(readBuffer.position()) == WireProtocol.BINARY_HELLO) {
+                    readBuffer.get();
+                    mode = Mode.BINARY;
+                    replyToHello();
+                    if (stateSync != null) {
+                        syncClient = stateSync.register(id, key -> sees(this, key),
+                                update -> send(bytes(update), STATE_SYNC_KEY));
+                    }
+                } else {
+                    mode = Mode.TEXT;
+                }
+            }
+            int maxMessage;
+            try {
+                if (mode == Mode.BINARY) {
+                    readFrames();
+                    maxMessage = WireProtocol.MAX_FRAME_BYTES;
+                } else {
+                    readLines();
+                    maxMessage = MAX_LINE_BYTES;
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Bad message, disconnecting " + channel + ": " + e.getMessage());
+                close();
+                return;
+            }
+            readBuffer.compact();
+            if (readBuffer.position() == 0) {
+                releaseReadBuffer(); // nothing half-received, so an idle player holds no buffer
+            } else if (!readBuffer.hasRemaining()) {
+                if (readBuffer.capacity() >= maxMessage) {
+                    System.err.println("Message too long, disconnecting " + channel);
+                    close();
+                    return;
+                }
+                grow(Math.min(readBuffer.capacity() * 2, maxMessage));
+            }
+        }
+
+        // Hands every complete frame to onFrame without copying it out of the buffer
+        private void readFrames() {
+            int length;
+            while ((length = WireProtocol.frameLength(readBuffer)) > 0) {
+                WireProtocol.Frame frame = loop.frame.wrap(readBuffer, length);
+                if (frame == null) {
+                    throw new IllegalArgumentException("Unknown or malformed frame");
+                }
+                onFrame(this, frame);
+                readBuffer.position(readBuffer.position() + length);
+            }
+        }
+
+        private void readLines() {
+            int lineStart = readBuffer.position();
+            for (int i = lineStart; i < readBuffer.limit(); i++) {
+                if (readBuffer.get(i) == '\n') {
+                    int end = i > lineStart && readBuffer.get(i - 1) == '\r' ? i - 1 : i;
+                    byte[] line = new byte[end - lineStart];
+                    readBuffer.get(lineStart, line);
+                    onMessage(this, new String(line, StandardCharsets.UTF_8));
+                    lineStart = i + 1;
+                }
+            }
+            readBuffer.position(lineStart);
+        }
+
+        // Moves the unread bytes into a larger buffer; expects and leaves the buffer ready for reading into
+        private void grow(int capacity) {
+            ByteBuffer larger = ByteBuffer.allocate(capacity);
+            readBuffer.flip();
+            larger.put(readBuffer);
+            releaseReadBuffer();
+            readBuffer = larger;
+        }
+
+        private void releaseReadBuffer() {
+            if (readBuffer != null && readBuffer.isDirect()) {
+                bufferPool.release(readBuffer);
+            }
+            readBuffer = null;
+        }
+
+        /*
+         * Puts the hello reply right after whatever text already went out, ahead of everything still queued
+         * Queued messages are encoded on the way out, so from here on they all become frames
+         */
+        private void replyToHello() {
+            ByteBuffer hello = BINARY_HELLO_REPLY.duplicate();
+            if (writing != null) {
+                // The rest of a text line; the client skips it along with the other text before the reply
+                ByteBuffer rest = ByteBuffer.allocate(writing.remaining() + hello.remaining());
+                writing = rest.put(writing).put(hello).flip();
+            } else {
+                writing = hello;
+            }
+            if (flushScheduled.compareAndSet(false, true)) {
+                loop.execute(this::flush);
+            }
+        }
+
+        // Writes as much as the socket takes; the rest waits for OP_WRITE
+        void flush() {
+            flushScheduled.set(false);
+            if (!key.isValid()) {
+                return;
+            }
+            try {
+                while (true) {
+                    if (writing == null) {
+                        Outgoing next = outbound.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        writing = next.encode(mode == Mode.BINARY);
+                    }
+                    channel.write(writing);
+                    if (writing.hasRemaining()) {
+                        break;
+                    }
+                    writing = null;
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            int ops = writing == null ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+
+        void close() {
+            connections.remove(this);
+            unplaced.remove(this);
+            interest.unsubscribe(this);
+            players.removeConnection(id);
+            if (syncClient != null) {
+                stateSync.unregister(syncClient);
+            }
+            if (world != null) {
+                world.removeShip(id);
+            }
+            outbound.close();
+            releaseReadBuffer();
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing left to clean up
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+    /*
+     * Features added:
+     * Bounded per-connection send queue, so a slow client can only ever hold back its own messages
+     * Slow consumer policy when the queue is full: drop the new message, coalesce it, or disconnect the client
+     * Coalescing replaces a still-queued message with the same key, e.g. an older state update, in its place
+     * Depth, high-water mark and drop counts are kept per queue for reporting
+     */
+
+public final class OutboundQueue<M> {
+    /**
+     * Enum representing what happens to a message that arrives while the queue is full.
+     */
+    public enum SlowConsumerPolicy {
+        DROP,       // discard the new message
+        COALESCE,   // keyed messages replace their queued predecessor even before the queue fills; others are dropped
+        DISCONNECT  // report overflow, so the caller closes the connection
+    }
+
+    /**
+     * Enum representing the outcome of offering a message.
+     */
+    public enum Offer {
+        QUEUED, COALESCED, DROPPED, OVERFLOW, CLOSED
+    }
+
+    // A queued message; keyed entries can have their message swapped while they wait
+    private static final class Entry<M> {
+        final Object key;
+        M message;
+
+        Entry(Object key, M message) {
+            this.key = key;
+            this.message = message;
+        }
+    }
+
+    private final int capacity;
+    private final SlowConsumerPolicy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    // Guarded by lock
+    private final ArrayDeque<Entry<M>> entries = new ArrayDeque<>();
+    private final Map<Object, Entry<M>> keyed = new HashMap<>();
+    private boolean closed;
+    private int highWaterMark;
+    private long dropped;
+    private long coalesced;
+
+    public OutboundQueue(int capacity, SlowConsumerPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /*
+     * Queues a message without ever blocking
+     * @param key Messages with equal keys supersede each other under COALESCE; null for messages that never do
+     * @return What happened to it; OVERFLOW means the caller should disconnect the client
+     */
+    public Offer offer(M message, Object key) {
+        lock.lock();
+        try {
+            if (closed) {
+                return Offer.CLOSED;
+            }
+            if (policy == SlowConsumerPolicy.COALESCE && key != null) {
+                Entry<M> waiting = keyed.get(key);
+                if (waiting != null) {
+                    waiting.message = message;
+                    coalesced++;
+                    return Offer.COALESCED;
+                }
+            }
+            if (entries.size() >= capacity) {
+                if (policy == SlowConsumerPolicy.DISCONNECT) {
+                    return Offer.OVERFLOW;
+                }
+                dropped++;
+                return Offer.DROPPED;
+            }
+            Entry<M> entry = new Entry<>(key, message);
+            entries.add(entry);
+            if (key != null && policy == SlowConsumerPolicy.COALESCE) {
+                keyed.put(key, entry);
+            }
+            highWaterMark = Math.max(highWaterMark, entries.size());
+            if (entries.size() == 1) {
+                notEmpty.signal();
+            }
+            return Offer.QUEUED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Next message to send, or null if none is waiting
+    public M poll() {
+        lock.lock();
+        try {
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Waits for a message, for writers that have a thread of their own
+     * @return The next message, or null if the queue was closed or the wait timed out
+     */
+    public M take(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (entries.isEmpty() && !closed) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private M removeFirst() {
+        Entry<M> entry = entries.poll();
+        if (entry == null) {
+            return null;
+        }
+        if (entry.key != null) {
+            keyed.remove(entry.key, entry);
+        }
+        return entry.message;
+    }
+
+    // Drops everything waiting and wakes a writer blocked in take
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            entries.clear();
+            keyed.clear();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Messages waiting to be sent
+    public int depth() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getHighWaterMark() {
+        lock.lock();
+        try {
+            return highWaterMark;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCoalescedCount() {
+        lock.lock();
+        try {
+            return coalesced;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SlowConsumerPolicy getPolicy() {
+        return policy;
+    }
+}
@@ -3,15 +3,23 @@ package edu.sdccd.cisc191.network;
 import java.net.Socket;
 
 public class PlayerData {
+    public static final int NO_CONNECTION = -1;
+
     private final String playerId;
     private final String playerName;
+    private final int connectionId; // the server's ID for this player's connection
     private Socket socket;
 
     // Additional fields such as score, position, etc., can be added here.
 
     public PlayerData(String playerId, String playerName) {
+        this(playerId, playerName, NO_CONNECTION);
+    }
+
+    public PlayerData(String playerId, String playerName, int connectionId) {
         this.playerId = playerId;
         this.playerName = playerName;
+        this.connectionId = connectionId;
     }
 
     public String getPlayerId() {
@@ -30,11 +38,20 @@ public class PlayerData {
         return playerName;
     }
 
+    public int getConnectionId() {
+        return connectionId;
+    }
+
+    public boolean hasConnection() {
+        return connectionId != NO_CONNECTION;
+    }
+
     @Override
     public String toString() {
         return "PlayerData{" +
                 "playerId='" + playerId + '\'' +
                 ", playerName='" + playerName + '\'' +
+                ", connectionId=" + connectionId +
                 '}';
     }
 }
@@ -0,0 +1,391 @@
+package edu.sdccd.cisc191.network;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+    /*
+     * Features added:
+     * Fixed-rate sync loop that sends each client only what differs from the state it last acknowledged
+     * Each client has its own baseline: the values carried by the last update it acked
+     * Updates are cumulative, so a client that missed one, or had it coalesced away, loses nothing
+     * Every update is capped at a fixed number of entries, so bandwidth per client tracks the rate of
+     * visible change, not the size of the world; a backlog just takes a few more ticks to drain
+     * New clients, and clients that stop acking, fall back to a snapshot of everything they can see
+     * What a client can see may change, e.g. as fleets move in and out of range; keys it stops seeing are
+     * sent as removed
+     */
+
+public final class StateSync {
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    private static final int MAX_ENTRIES_LIMIT = 4096; // 15 bytes per entry at most, so an update fits one frame
+    // Unacked updates kept per client; a client this far behind is resynced from a snapshot
+    private static final int MAX_IN_FLIGHT = 64;
+    // The value sent for a key the world no longer has
+    public static final int REMOVED = Integer.MIN_VALUE;
+    // Body flag: the client must clear its state before applying the update
+    private static final int FLAG_FULL = 1;
+
+    /**
+     * Decides which keys a client is sent, e.g. to keep other players' inventories private.
+     */
+    public interface Interest {
+        // Called on the sync thread while it holds the world's lock
+        boolean sees(long key);
+    }
+
+    // An update that was sent but not yet acked
+    private static final class Update {
+        final long[] keys;
+        final int[] values;
+        final boolean full;
+
+        Update(long[] keys, int[] values, boolean full) {
+            this.keys = keys;
+            this.values = values;
+            this.full = full;
+        }
+    }
+
+    /**
+     * One subscriber. Everything but the requested ack is only touched by the sync thread.
+     */
+    public final class Client {
+        private final int playerId;
+        private final Interest interest;
+        private final Consumer<ByteBuffer> sender;
+        private final AtomicLong ackRequested = new AtomicLong(-1);
+        private final AtomicBoolean rescanRequested = new AtomicBoolean();
+        private final AtomicLong bytesSent = new AtomicLong();
+        private final Map<Long, Integer> baseline = new HashMap<>();
+        private final TreeMap<Long, Update> inFlight = new TreeMap<>();
+        private final Set<Long> pending = new HashSet<>(); // changed keys not sent since they changed
+        private long ackedTick = -1;
+        private boolean needsSnapshot = true;
+        private boolean full = true; // until an update sent from an empty baseline is acked
+
+        private Client(int playerId, Interest interest, Consumer<ByteBuffer> sender) {
+            this.playerId = playerId;
+            this.interest = interest;
+            this.sender = sender;
+        }
+
+        public int getPlayerId() {
+            return playerId;
+        }
+
+        // The newest tick this client has acknowledged, or -1
+        public long getAckedTick() {
+            return ackRequested.get();
+        }
+
+        public long getBytesSent() {
+            return bytesSent.get();
+        }
+    }
+
+    private final WorldState world;
+    private final int maxEntries;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock tickLock = new ReentrantLock();
+    private final AtomicLong updatesSent = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    /*
+     * @param world State to keep clients in sync with
+     * @param maxEntries Most values in one update, which bounds each client's bandwidth per tick
+     */
+    public StateSync(WorldState world, int maxEntries) {
+        if (maxEntries < 1 || maxEntries > MAX_ENTRIES_LIMIT) {
+            throw new IllegalArgumentException("maxEntries must be between 1 and " + MAX_ENTRIES_LIMIT);
+        }
+        this.world = world;
+        this.maxEntries = maxEntries;
+    }
+
+    /*
+     * Subscribes a client that sees everything except other players' inventories
+     * @param sender Given each update as a complete STATE_UPDATE frame; called on the sync thread and must not block
+     */
+    public Client register(int playerId, Consumer<ByteBuffer> sender) {
+        return register(playerId, key -> WorldState.kindOf(key) != WorldState.Kind.INVENTORY
+                || WorldState.playerOf(WorldState.idOf(key)) == playerId, sender);
+    }
+
+    public Client register(int playerId, Interest interest, Consumer<ByteBuffer> sender) {
+        Client client = new Client(playerId, interest, sender);
+        clients.add(client);
+        return client;
+    }
+
+    public void unregister(Client client) {
+        clients.remove(client);
+    }
+
+    /*
+     * Checks every key against a client's interest again at the next tick, e.g. after the client's own fleet moved
+     * May be called from any thread
+     */
+    public void rescan(Client client) {
+        client.rescanRequested.set(true);
+    }
+
+    // Records that a client has applied the update for a tick; may be called from any thread
+    public void acknowledge(Client client, long tick) {
+        client.ackRequested.set(tick);
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    public long getUpdatesSent() {
+        return updatesSent.get();
+    }
+
+    // Times a client was sent everything it can see, on joining or after falling too far behind
+    public long getSnapshotCount() {
+        return snapshots.get();
+    }
+
+    /*
+     * Ends the world's current tick and sends every client its update
+     * Game writes wait while updates are built, so all clients see the world as of the same tick
+     */
+    public void tick() {
+        tickLock.lock();
+        world.lock();
+        try {
+            Set<Long> changed = withHealthOfMovedShips(world.advanceTick());
+            long tick = world.getTick();
+            for (Client client : clients) {
+                sync(client, tick, changed);
+            }
+        } finally {
+            world.unlock();
+            tickLock.unlock();
+        }
+    }
+
+    private void sync(Client client, long tick, Set<Long> changed) {
+        applyAck(client);
+        if (client.inFlight.size() >= MAX_IN_FLIGHT) {
+            // Stopped acking; what it holds is unknown, so start again from nothing
+            client.baseline.clear();
+            client.inFlight.clear();
+            client.pending.clear();
+            client.needsSnapshot = true;
+            client.full = true;
+        }
+        if (client.needsSnapshot) {
+            client.needsSnapshot = false;
+            client.rescanRequested.set(false);
+            snapshots.incrementAndGet();
+            addVisible(client, world.keys());
+        } else if (client.rescanRequested.getAndSet(false)) {
+            addVisible(client, world.keys());
+            addVisible(client, client.baseline.keySet());
+        } else {
+            addVisible(client, changed);
+        }
+
+        TreeMap<Long, Integer> entries = new TreeMap<>();
+        // The client may have applied any unacked update, so keys they carried go out again until the baseline agrees
+        for (Update update : client.inFlight.values()) {
+            for (int i = 0; i < update.keys.length; i++) {
+                long key = update.keys[i];
+                if (!Objects.equals(client.baseline.get(key), present(update.values[i]))) {
+                    Integer current = visibleValue(client, key);
+                    entries.put(key, current == null ? REMOVED : current);
+                }
+            }
+        }
+        Iterator<Long> keys = client.pending.iterator();
+        while (entries.size() < maxEntries && keys.hasNext()) {
+            long key = keys.next();
+            keys.remove();
+            Integer current = visibleValue(client, key);
+            if (!entries.containsKey(key) && !Objects.equals(current, client.baseline.get(key))) {
+                entries.put(key, current == null ? REMOVED : current);
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        long[] sentKeys = new long[entries.size()];
+        int[] sentValues = new int[entries.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : entries.entrySet()) {
+            sentKeys[i] = entry.getKey();
+            sentValues[i++] = entry.getValue();
+        }
+        client.inFlight.put(tick, new Update(sentKeys, sentValues, client.full));
+        ByteBuffer frame = encode(tick, sentKeys, sentValues, client.full);
+        client.bytesSent.addAndGet(frame.remaining());
+        updatesSent.incrementAndGet();
+        client.sender.accept(frame);
+    }
+
+    // Folds the newest acked update into the baseline; older unacked ones are covered by it
+    private void applyAck(Client client) {
+        long acked = client.ackRequested.get();
+        if (acked <= client.ackedTick) {
+            return;
+        }
+        Update update = client.inFlight.get(acked);
+        if (update == null) {
+            return; // sent before a resync, or never sent
+        }
+        if (update.full) {
+            client.baseline.clear();
+            client.full = false;
+        }
+        for (int i = 0; i < update.keys.length; i++) {
+            if (update.values[i] == REMOVED) {
+                client.baseline.remove(update.keys[i]);
+            } else {
+                client.baseline.put(update.keys[i], update.values[i]);
+            }
+        }
+        client.inFlight.headMap(acked, true).clear();
+        client.ackedTick = acked;
+    }
+
+    // Keys the client can see, and keys it holds but may no longer see, so they can be sent as removed
+    private static void addVisible(Client client, Set<Long> keys) {
+        for (Long key : keys) {
+            if (client.interest.sees(key) || client.baseline.containsKey(key)) {
+                client.pending.add(key);
+            }
+        }
+    }
+
+    // What the client should hold for a key: null if the world doesn't have it or the client can't see it
+    private Integer visibleValue(Client client, long key) {
+        return client.interest.sees(key) ? world.value(key) : null;
+    }
+
+    // A ship's position can decide who sees it, so a move re-checks its health for every client too
+    private static Set<Long> withHealthOfMovedShips(Set<Long> changed) {
+        Set<Long> health = new HashSet<>();
+        for (long key : changed) {
+            if (WorldState.kindOf(key) == WorldState.Kind.SHIP_POSITION) {
+                health.add(WorldState.key(WorldState.Kind.SHIP_HEALTH, WorldState.idOf(key)));
+            }
+        }
+        changed.addAll(health);
+        return changed;
+    }
+
+    private static Integer present(int value) {
+        return value == REMOVED ? null : value;
+    }
+
+    /*
+     * Body: [byte flags][varint count] then per entry [varint key minus previous key][zigzag varint value]
+     * Keys are sorted, so neighbouring ships and cells cost a byte or two of key each
+     */
+    private static ByteBuffer encode(long tick, long[] keys, int[] values, boolean full) {
+        ByteBuffer body = ByteBuffer.allocate(1 + 5 + keys.length * 15);
+        body.put((byte) (full ? FLAG_FULL : 0));
+        putVarLong(body, keys.length);
+        long previous = 0;
+        for (int i = 0; i < keys.length; i++) {
+            putVarLong(body, keys[i] - previous);
+            putVarLong(body, Integer.toUnsignedLong((values[i] << 1) ^ (values[i] >> 31)));
+            previous = keys[i];
+        }
+        body.flip();
+        ByteBuffer frame = ByteBuffer.allocate(WireProtocol.LENGTH_BYTES + 1 + Long.BYTES + body.remaining());
+        WireProtocol.writeStateUpdate(frame, tick, body);
+        return frame.flip();
+    }
+
+    /*
+     * Applies an update body to a client's copy of the world; the client then acks the frame's tick
+     * Updates older than one already applied must be skipped by the caller
+     * @param state Keyed like WorldState; removed keys are deleted from it
+     */
+    public static void applyUpdate(ByteBuffer body, Map<Long, Integer> state) {
+        ByteBuffer in = body.duplicate();
+        if ((in.get() & FLAG_FULL) != 0) {
+            state.clear();
+        }
+        long count = getVarLong(in);
+        long key = 0;
+        for (long i = 0; i < count; i++) {
+            key += getVarLong(in);
+            int zigzag = (int) getVarLong(in);
+            int value = (zigzag >>> 1) ^ -(zigzag & 1);
+            if (value == REMOVED) {
+                state.remove(key);
+            } else {
+                state.put(key, value);
+            }
+        }
+    }
+
+    private static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    /*
+     * Runs tick at a fixed rate on a background thread
+     * @param tickMillis Milliseconds between updates
+     */
+    public synchronized void start(long tickMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "state-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                System.err.println("State sync failed: " + e.getMessage());
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+}
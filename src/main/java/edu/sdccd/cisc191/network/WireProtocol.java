@@ -0,0 +1,321 @@
+package edu.sdccd.cisc191.network;
+
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.subsystems.Order;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+    /*
+     * Features added:
+     * Compact binary framing for multiplayer messages: [unsigned short length][byte type][payload]
+     * One type id per message kind: chat, join, leave, build, explore, trade, state update, ack and move
+     * Frame is a flyweight: it reads fields in place from the receive buffer, allocating nothing per message
+     * Fixed-size fields come first in every payload, so they sit at fixed offsets; strings follow
+     * A binary client opens with a single zero byte, which no text line starts with, so text clients keep working
+     * The server answers with a zero byte of its own; text sent before it, while the connection was still
+     * undecided, is skipped by the client
+     */
+
+public final class WireProtocol {
+    /** The first byte a binary client sends, and the server's reply once it has switched; text never contains it. */
+    public static final byte BINARY_HELLO = 0;
+    public static final int LENGTH_BYTES = Short.BYTES;
+    public static final int MAX_FRAME_BYTES = LENGTH_BYTES + 0xFFFF;
+
+    /**
+     * Enum representing the message kinds; the id is the byte sent on the wire and must never change.
+     */
+    public enum MessageType {
+        CHAT(1),            // [str text]
+        JOIN(2),            // [str player id][str player name]
+        LEAVE(3),           // [str player id]
+        BUILD(4),           // [short count][str ship type]
+        EXPLORE(5),         // [str planet]
+        TRADE(6),           // [byte side][byte resource][int quantity][int price]
+        STATE_UPDATE(7),    // [long tick][bytes body]
+        ACK(8),             // [long tick]: the client has applied the state update for that tick
+        MOVE(9);            // [short row][short col]: where the player's fleet now is on the board
+
+        private static final MessageType[] BY_ID = new MessageType[10];
+
+        static {
+            for (MessageType type : values()) {
+                BY_ID[type.id] = type;
+            }
+        }
+
+        private final byte id;
+
+        MessageType(int id) {
+            this.id = (byte) id;
+        }
+
+        public byte getId() {
+            return id;
+        }
+
+        // The type for an id, or null if the id is unknown
+        public static MessageType byId(int id) {
+            return id > 0 && id < BY_ID.length ? BY_ID[id] : null;
+        }
+    }
+
+    private WireProtocol() {
+    }
+
+    /*
+     * Checks whether a whole frame has arrived
+     * @param buffer Received bytes, read from its position without moving it
+     * @return The frame's total size including the length prefix, or -1 if more bytes are needed
+     */
+    public static int frameLength(ByteBuffer buffer) {
+        if (buffer.remaining() < LENGTH_BYTES) {
+            return -1;
+        }
+        int total = LENGTH_BYTES + Short.toUnsignedInt(buffer.getShort(buffer.position()));
+        return buffer.remaining() < total ? -1 : total;
+    }
+
+    public static void writeChat(ByteBuffer out, String text) {
+        int start = begin(out, MessageType.CHAT);
+        putString(out, text);
+        end(out, start);
+    }
+
+    public static void writeJoin(ByteBuffer out, String playerId, String playerName) {
+        int start = begin(out, MessageType.JOIN);
+        putString(out, playerId);
+        putString(out, playerName);
+        end(out, start);
+    }
+
+    public static void writeLeave(ByteBuffer out, String playerId) {
+        int start = begin(out, MessageType.LEAVE);
+        putString(out, playerId);
+        end(out, start);
+    }
+
+    public static void writeBuild(ByteBuffer out, String shipType, int count) {
+        int start = begin(out, MessageType.BUILD);
+        out.putShort((short) count);
+        putString(out, shipType);
+        end(out, start);
+    }
+
+    public static void writeExplore(ByteBuffer out, String planet) {
+        int start = begin(out, MessageType.EXPLORE);
+        putString(out, planet);
+        end(out, start);
+    }
+
+    public static void writeTrade(ByteBuffer out, Order.Side side, ResourceType resource, int quantity, int price) {
+        int start = begin(out, MessageType.TRADE);
+        out.put((byte) side.ordinal()).put((byte) resource.ordinal()).putInt(quantity).putInt(price);
+        end(out, start);
+    }
+
+    /*
+     * Writes a state update around a body the caller has already encoded
+     * @param body Bytes from position to limit are copied; its position is not moved
+     */
+    public static void writeStateUpdate(ByteBuffer out, long tick, ByteBuffer body) {
+        int start = begin(out, MessageType.STATE_UPDATE);
+        out.putLong(tick).put(body.duplicate());
+        end(out, start);
+    }
+
+    public static void writeAck(ByteBuffer out, long tick) {
+        int start = begin(out, MessageType.ACK);
+        out.putLong(tick);
+        end(out, start);
+    }
+
+    public static void writeMove(ByteBuffer out, int row, int col) {
+        int start = begin(out, MessageType.MOVE);
+        out.putShort((short) row).putShort((short) col);
+        end(out, start);
+    }
+
+    // Reserves the length prefix and writes the type; returns where the frame starts
+    private static int begin(ByteBuffer out, MessageType type) {
+        int start = out.position();
+        out.putShort((short) 0).put(type.id);
+        return start;
+    }
+
+    private static void end(ByteBuffer out, int start) {
+        int length = out.position() - start - LENGTH_BYTES;
+        if (length > 0xFFFF) {
+            throw new IllegalArgumentException("Frame too large: " + length + " bytes");
+        }
+        out.putShort(start, (short) length);
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * A view over one frame in a receive buffer. Wrap it, read what is needed, and move on;
+     * the fields are only valid until the buffer is reused.
+     */
+    public static final class Frame {
+        private static final Order.Side[] SIDES = Order.Side.values();
+
+        private ByteBuffer buffer;
+        private int offset;   // of the type byte
+        private int end;      // one past the last payload byte
+        private MessageType type;
+
+        /*
+         * Points this view at the frame starting at the buffer's position
+         * @param length The frame's total size, as returned by frameLength
+         * @return This frame, or null if the type is unknown or its fixed fields don't fit
+         */
+        public Frame wrap(ByteBuffer buffer, int length) {
+            this.buffer = buffer;
+            this.offset = buffer.position() + LENGTH_BYTES;
+            this.end = buffer.position() + length;
+            this.type = offset < end ? MessageType.byId(buffer.get(offset)) : null;
+            if (type == null || end - offset - 1 < fixedBytes()) {
+                return null;
+            }
+            if (type == MessageType.TRADE && (Byte.toUnsignedInt(buffer.get(offset + 1)) >= SIDES.length
+                    || Byte.toUnsignedInt(buffer.get(offset + 2)) >= ResourceType.count())) {
+                return null;
+            }
+            return this;
+        }
+
+        public MessageType type() {
+            return type;
+        }
+
+        // Number of bytes in the frame, length prefix included
+        public int length() {
+            return end - offset + LENGTH_BYTES;
+        }
+
+        public int buildCount() {
+            return Short.toUnsignedInt(buffer.getShort(offset + 1));
+        }
+
+        public Order.Side tradeSide() {
+            return SIDES[buffer.get(offset + 1)];
+        }
+
+        public ResourceType tradeResource() {
+            return ResourceType.byOrdinal(buffer.get(offset + 2));
+        }
+
+        public int tradeQuantity() {
+            return buffer.getInt(offset + 3);
+        }
+
+        public int tradePrice() {
+            return buffer.getInt(offset + 7);
+        }
+
+        public long stateTick() {
+            return buffer.getLong(offset + 1);
+        }
+
+        public long ackTick() {
+            return buffer.getLong(offset + 1);
+        }
+
+        public int moveRow() {
+            return buffer.getShort(offset + 1);
+        }
+
+        public int moveCol() {
+            return buffer.getShort(offset + 3);
+        }
+
+        // The state update body, as a view of the receive buffer
+        public ByteBuffer stateBody() {
+            return buffer.slice(offset + 1 + Long.BYTES, end - offset - 1 - Long.BYTES);
+        }
+
+        /*
+         * Decodes one of the frame's strings; the only accessor that allocates
+         * @param index 0 for the first string in the payload, 1 for the second
+         */
+        public String string(int index) {
+            int position = offset + 1 + fixedBytes();
+            for (int i = 0; i < index; i++) {
+                position += Short.BYTES + Short.toUnsignedInt(buffer.getShort(position));
+            }
+            int length = Short.toUnsignedInt(buffer.getShort(position));
+            if (position + Short.BYTES + length > end) {
+                throw new IllegalArgumentException("String runs past the end of the frame");
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position + Short.BYTES, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // Compares a string field without decoding it
+        public boolean stringEquals(int index, byte[] expected) {
+            int position = offset + 1 + fixedBytes();
+            for (int i = 0; i < index; i++) {
+                position += Short.BYTES + Short.toUnsignedInt(buffer.getShort(position));
+            }
+            if (Short.toUnsignedInt(buffer.getShort(position)) != expected.length) {
+                return false;
+            }
+            return buffer.slice(position + Short.BYTES, expected.length).equals(ByteBuffer.wrap(expected));
+        }
+
+        // Copies the whole frame, length prefix included, e.g. to relay it after the receive buffer is reused
+        public ByteBuffer copy() {
+            ByteBuffer copy = ByteBuffer.allocate(length());
+            copy.put(buffer.slice(offset - LENGTH_BYTES, length())).flip();
+            return copy;
+        }
+
+        private int fixedBytes() {
+            switch (type) {
+                case BUILD:
+                    return Short.BYTES;
+                case MOVE:
+                    return Short.BYTES * 2;
+                case TRADE:
+                    return 2 + Integer.BYTES * 2;
+                case STATE_UPDATE:
+                case ACK:
+                    return Long.BYTES;
+                default:
+                    return 0;
+            }
+        }
+
+        // Human-readable form for text clients and logs, e.g. "BUILD 3 Fighter"
+        @Override
+        public String toString() {
+            switch (type) {
+                case CHAT:
+                    return string(0);
+                case JOIN:
+                    return "JOIN " + string(0) + " " + string(1);
+                case LEAVE:
+                case EXPLORE:
+                    return type + " " + string(0);
+                case BUILD:
+                    return "BUILD " + buildCount() + " " + string(0);
+                case TRADE:
+                    return "TRADE " + tradeSide() + " " + tradeQuantity() + " " + tradeResource().getDisplayName() + " @ " + tradePrice();
+                case STATE_UPDATE:
+                    return "STATE_UPDATE tick " + stateTick() + " (" + (end - offset - 1 - Long.BYTES) + " bytes)";
+                case ACK:
+                    return "ACK tick " + ackTick();
+                case MOVE:
+                    return "MOVE " + moveRow() + " " + moveCol();
+                default:
+                    return type.toString();
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package edu.sdccd.cisc191.network;
+
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.GameBoard;
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+    /*
+     * Features added:
+     * The server's copy of the shared world, flattened to int values under long keys: ship HP, ship positions,
+     * inventories and board cells
+     * Every write records its key as changed in the current tick, so StateSync only looks at what changed
+     * Writes that don't change a value are not recorded, so game code can push whole objects every tick
+     */
+
+public final class WorldState {
+    /**
+     * Enum representing what a key describes; the ordinal is sent on the wire inside the key and must never change.
+     */
+    public enum Kind {
+        SHIP_HEALTH,    // id: ship id; value: hit points
+        SHIP_POSITION,  // id: ship id; value: row << 16 | col
+        INVENTORY,      // id: player id << 8 | resource ordinal; value: amount
+        BOARD_CELL      // id: row << 16 | col; value: planet id
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private final Map<Long, Integer> values = new HashMap<>();
+    private Set<Long> changed = new HashSet<>();
+    private long tick;
+
+    public static long key(Kind kind, int id) {
+        return (long) kind.ordinal() << 32 | (id & 0xFFFFFFFFL);
+    }
+
+    public static Kind kindOf(long key) {
+        return KINDS[(int) (key >>> 32)];
+    }
+
+    public static int idOf(long key) {
+        return (int) key;
+    }
+
+    public static int inventoryId(int playerId, ResourceType type) {
+        return playerId << 8 | type.ordinal();
+    }
+
+    // The player an INVENTORY id belongs to
+    public static int playerOf(int inventoryId) {
+        return inventoryId >>> 8;
+    }
+
+    public static int cellId(int row, int col) {
+        return row << 16 | col;
+    }
+
+    public static int rowOf(int cellId) {
+        return cellId >>> 16;
+    }
+
+    public static int colOf(int cellId) {
+        return cellId & 0xFFFF;
+    }
+
+    /*
+     * Stores a value, marking it changed only if it differs from what was there
+     * @param id Meaning depends on kind; see Kind
+     */
+    public void set(Kind kind, int id, int value) {
+        long key = key(kind, id);
+        lock.lock();
+        try {
+            Integer old = values.put(key, value);
+            if (old == null || old != value) {
+                changed.add(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deletes a value, e.g. a destroyed ship; clients are told it is gone
+    public void remove(Kind kind, int id) {
+        long key = key(kind, id);
+        lock.lock();
+        try {
+            if (values.remove(key) != null) {
+                changed.add(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The stored value, or null if there is none
+    public Integer get(Kind kind, int id) {
+        lock.lock();
+        try {
+            return values.get(key(kind, id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setShipHealth(int shipId, int health) {
+        set(Kind.SHIP_HEALTH, shipId, health);
+    }
+
+    public void moveShip(int shipId, int row, int col) {
+        set(Kind.SHIP_POSITION, shipId, cellId(row, col));
+    }
+
+    // Publishes a whole fleet as one ship whose hit points are the fleet's total, e.g. a Shipyard's fleet
+    public void updateFleet(int shipId, List<GalacticShip> fleet) {
+        int health = 0;
+        for (GalacticShip ship : fleet) {
+            health += ship.getHealth();
+        }
+        setShipHealth(shipId, health);
+    }
+
+    // Drops everything known about a ship
+    public void removeShip(int shipId) {
+        remove(Kind.SHIP_HEALTH, shipId);
+        remove(Kind.SHIP_POSITION, shipId);
+    }
+
+    public void setInventory(int playerId, ResourceType type, int amount) {
+        set(Kind.INVENTORY, inventoryId(playerId, type), amount);
+    }
+
+    // Copies every resource amount; unchanged ones cost nothing downstream
+    public void updateInventory(int playerId, PlayerInventory inventory) {
+        int[] amounts = inventory.getResourceAmounts();
+        for (ResourceType type : ResourceType.values()) {
+            setInventory(playerId, type, amounts[type.ordinal()]);
+        }
+    }
+
+    // Copies every board cell; unchanged ones cost nothing downstream
+    public void updateBoard(GameBoard board) {
+        int[][] planets = board.getBoardSnapshot();
+        for (int row = 0; row < planets.length; row++) {
+            for (int col = 0; col < planets[row].length; col++) {
+                set(Kind.BOARD_CELL, cellId(row, col), planets[row][col]);
+            }
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return values.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The last tick sealed by StateSync
+    public long getTick() {
+        lock.lock();
+        try {
+            return tick;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // StateSync holds the lock while it reads, so every client sees the world as of the same tick
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    /*
+     * Ends the current tick; caller holds the lock
+     * @return The keys changed during the tick just ended
+     */
+    Set<Long> advanceTick() {
+        tick++;
+        Set<Long> sealed = changed;
+        changed = new HashSet<>();
+        return sealed;
+    }
+
+    // Caller holds the lock
+    Integer value(long key) {
+        return values.get(key);
+    }
+
+    // Caller holds the lock
+    Set<Long> keys() {
+        return values.keySet();
+    }
+}
@@ -0,0 +1,345 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+    /*
+     * Features added:
+     * Call auction: orders collect during a tick and clear together at one price per resource
+     * The clearing price is the one that trades the most volume
+     * Orders are ranked by price then arrival by sorting packed (price, sequence) keys,
+     * with a linear counting sort when prices fall in a narrow band
+     * Settlements go to inventories as one parallel batch of atomic credits, with no per-trade locking
+     * Orders last one auction; whatever doesn't trade is refunded
+     */
+
+// Periodic uniform-price auction for resources, priced in Credits
+public class BatchAuction {
+    private static final int PARALLEL_THRESHOLD = 4096;
+    private static final long SEQUENCE_MASK = 0xFFFFFFFFL;
+
+    private final ConcurrentLinkedQueue<Order>[] pendingOrders;   // by ResourceType ordinal
+    private final ConcurrentLinkedQueue<Order> cancelRequests = new ConcurrentLinkedQueue<>();
+    private final AtomicLong nextOrderId = new AtomicLong();
+
+    // Written by clear() only
+    private final AtomicIntegerArray clearingPrices = new AtomicIntegerArray(ResourceType.count());
+    private final AtomicLongArray clearedVolumes = new AtomicLongArray(ResourceType.count());
+    private volatile long auctionCount;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BatchAuction() {
+        pendingOrders = new ConcurrentLinkedQueue[ResourceType.count()];
+        for (ResourceType type : ResourceType.values()) {
+            if (type != ResourceType.CREDITS) {
+                pendingOrders[type.ordinal()] = new ConcurrentLinkedQueue<>();
+            }
+        }
+    }
+
+    /*
+     * Enters a bid in the next auction, escrowing price x quantity Credits
+     * @return The order, or null if the trader can't cover it
+     */
+    public Order placeBuyOrder(PlayerInventory trader, ResourceType resource, int price, int quantity) {
+        return place(trader, resource, Order.Side.BUY, price, quantity);
+    }
+
+    /*
+     * Enters an offer in the next auction, escrowing the resources being sold
+     * @return The order, or null if the trader doesn't hold enough
+     */
+    public Order placeSellOrder(PlayerInventory trader, ResourceType resource, int price, int quantity) {
+        return place(trader, resource, Order.Side.SELL, price, quantity);
+    }
+
+    private Order place(PlayerInventory trader, ResourceType resource, Order.Side side, int price, int quantity) {
+        ConcurrentLinkedQueue<Order> queue = queueFor(resource);
+        if (price <= 0 || quantity <= 0) {
+            throw new IllegalArgumentException("Price and quantity must be positive: " + quantity + " @ " + price);
+        }
+        boolean escrowed = side == Order.Side.BUY
+                ? trader.useResource(ResourceType.CREDITS, Math.multiplyExact(price, quantity))
+                : trader.useResource(resource, quantity);
+        if (!escrowed) {
+            return null;
+        }
+        Order order = new Order(nextOrderId.incrementAndGet(), Order.Venue.CALL_AUCTION, trader, resource, side, price, quantity);
+        queue.add(order);
+        return order;
+    }
+
+    /*
+     * Withdraws an order before the next auction clears
+     * An order already cleared is unaffected
+     */
+    public void cancelOrder(Order order) {
+        cancelRequests.add(order);
+    }
+
+    /*
+     * Clears every resource's auction; call once per tick from a single thread
+     * Orders placed while this runs go into the next auction
+     */
+    public void clear() {
+        Order cancelled;
+        while ((cancelled = cancelRequests.poll()) != null) {
+            if (cancelled.getVenue() == Order.Venue.CALL_AUCTION && cancelled.getStatus() == Order.Status.PENDING) {
+                cancelled.cancel();
+                refund(cancelled);
+            }
+        }
+        for (ResourceType type : ResourceType.values()) {
+            if (pendingOrders[type.ordinal()] != null) {
+                clear(type);
+            }
+        }
+        auctionCount++;
+    }
+
+    private void clear(ResourceType resource) {
+        Order[] orders = drain(pendingOrders[resource.ordinal()]);
+        int n = orders.length;
+        if (n == 0) {
+            clearedVolumes.set(resource.ordinal(), 0);
+            return;
+        }
+
+        // Rank each side by packing (price, arrival) into one long so a primitive sort does the work;
+        // bids invert the price so the highest sorts first. Quantities go in a flat array so the
+        // clearing passes below never chase Order pointers.
+        long[] bidKeys = new long[n];
+        long[] askKeys = new long[n];
+        int[] quantities = new int[n];
+        int bidCount = 0;
+        int askCount = 0;
+        for (int seq = 0; seq < n; seq++) {
+            Order order = orders[seq];
+            quantities[seq] = order.getQuantity();
+            if (order.getSide() == Order.Side.BUY) {
+                bidKeys[bidCount++] = ((long) (Integer.MAX_VALUE - order.getPrice()) << 32) | seq;
+            } else {
+                askKeys[askCount++] = ((long) order.getPrice() << 32) | seq;
+            }
+        }
+        bidKeys = Arrays.copyOf(bidKeys, bidCount);
+        askKeys = Arrays.copyOf(askKeys, askCount);
+        rank(bidKeys);
+        rank(askKeys);
+
+        int price = clearingPrice(quantities, bidKeys, askKeys);
+        long volume = 0;
+        if (price > 0) {
+            volume = Math.min(
+                    quantityWithin(quantities, bidKeys, price, true),
+                    quantityWithin(quantities, askKeys, price, false));
+            // Fill both sides up to the matched volume, best price first and then by arrival
+            allocateFills(orders, quantities, bidKeys, volume);
+            allocateFills(orders, quantities, askKeys, volume);
+            clearingPrices.set(resource.ordinal(), price);
+        }
+        clearedVolumes.set(resource.ordinal(), volume);
+        settle(orders, resource, price);
+    }
+
+    private static Order[] drain(ConcurrentLinkedQueue<Order> queue) {
+        Order[] orders = new Order[64];
+        int count = 0;
+        Order order;
+        while ((order = queue.poll()) != null) {
+            if (order.getStatus() != Order.Status.PENDING) {
+                continue; // cancelled before the auction
+            }
+            if (count == orders.length) {
+                orders = Arrays.copyOf(orders, count * 2);
+            }
+            orders[count++] = order;
+        }
+        return Arrays.copyOf(orders, count);
+    }
+
+    /*
+     * Sorts packed (price, sequence) keys
+     * Keys are built in arrival order, so when prices span a narrow band a stable counting sort on
+     * the price alone gives the same order in linear time; wide bands fall back to a parallel sort
+     */
+    private static void rank(long[] keys) {
+        if (keys.length < 2) {
+            return;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (long key : keys) {
+            int price = (int) (key >>> 32);
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+        }
+        long range = (long) max - min + 1;
+        if (range > Math.max(1024, keys.length)) {
+            Arrays.parallelSort(keys);
+            return;
+        }
+        int[] starts = new int[(int) range + 1];
+        for (long key : keys) {
+            starts[(int) (key >>> 32) - min + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        long[] sorted = new long[keys.length];
+        for (long key : keys) {
+            sorted[starts[(int) (key >>> 32) - min]++] = key;
+        }
+        System.arraycopy(sorted, 0, keys, 0, keys.length);
+    }
+
+    private static int bidPrice(long key) {
+        return Integer.MAX_VALUE - (int) (key >>> 32);
+    }
+
+    private static int askPrice(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int sequence(long key) {
+        return (int) (key & SEQUENCE_MASK);
+    }
+
+    /*
+     * Finds the price that trades the most volume
+     * Walks candidate prices upward: supply at p grows and demand at p shrinks; ties go to the
+     * smaller imbalance, then the lower price
+     * @return The clearing price, or 0 if no bid meets any offer
+     */
+    private static int clearingPrice(int[] quantities, long[] bidKeys, long[] askKeys) {
+        if (bidKeys.length == 0 || askKeys.length == 0) {
+            return 0;
+        }
+        long demand = 0;   // quantity bid at or above the candidate price
+        for (long key : bidKeys) {
+            demand += quantities[sequence(key)];
+        }
+        long supply = 0;   // quantity offered at or below the candidate price
+        int bid = bidKeys.length - 1;   // lowest remaining bid; bidKeys run from highest to lowest price
+        int ask = 0;
+        int bestPrice = 0;
+        long bestVolume = 0;
+        long bestImbalance = Long.MAX_VALUE;
+        while (ask < askKeys.length || bid >= 0) {
+            int candidate = Math.min(
+                    ask < askKeys.length ? askPrice(askKeys[ask]) : Integer.MAX_VALUE,
+                    bid >= 0 ? bidPrice(bidKeys[bid]) : Integer.MAX_VALUE);
+            while (ask < askKeys.length && askPrice(askKeys[ask]) == candidate) {
+                supply += quantities[sequence(askKeys[ask++])];
+            }
+            long volume = Math.min(demand, supply);
+            long imbalance = Math.abs(demand - supply);
+            if (volume > bestVolume || (volume == bestVolume && volume > 0 && imbalance < bestImbalance)) {
+                bestPrice = candidate;
+                bestVolume = volume;
+                bestImbalance = imbalance;
+            }
+            // Bids priced exactly at the candidate stop counting once the price moves above it
+            while (bid >= 0 && bidPrice(bidKeys[bid]) == candidate) {
+                demand -= quantities[sequence(bidKeys[bid--])];
+            }
+        }
+        return bestPrice;
+    }
+
+    // Sums the quantity of the ranked orders willing to trade at the price
+    private static long quantityWithin(int[] quantities, long[] keys, int price, boolean bids) {
+        long total = 0;
+        for (long key : keys) {
+            if (bids ? bidPrice(key) < price : askPrice(key) > price) {
+                break; // ranked best first, so the rest are worse
+            }
+            total += quantities[sequence(key)];
+        }
+        return total;
+    }
+
+    // Fills ranked orders until the volume is used up; the marginal order may fill partially
+    private static void allocateFills(Order[] orders, int[] quantities, long[] keys, long volume) {
+        long left = volume;
+        for (int i = 0; i < keys.length && left > 0; i++) {
+            int seq = sequence(keys[i]);
+            int fill = (int) Math.min(left, quantities[seq]);
+            orders[seq].fill(fill);
+            left -= fill;
+        }
+    }
+
+    // Applies every order's outcome in one batch; inventories are atomic, so no locks are needed
+    private static void settle(Order[] orders, ResourceType resource, int price) {
+        if (orders.length < PARALLEL_THRESHOLD) {
+            for (Order order : orders) {
+                settle(order, resource, price);
+            }
+        } else {
+            IntStream.range(0, orders.length).parallel().forEach(i -> settle(orders[i], resource, price));
+        }
+    }
+
+    private static void settle(Order order, ResourceType resource, int price) {
+        PlayerInventory trader = order.getTrader();
+        int filled = order.getFilled();
+        if (filled > 0) {
+            if (order.getSide() == Order.Side.BUY) {
+                trader.addResource(resource, filled);
+                // Escrowed at the limit, paid at the clearing price
+                int change = (order.getPrice() - price) * filled;
+                if (change > 0) {
+                    trader.addResource(ResourceType.CREDITS, change);
+                }
+            } else {
+                trader.addResource(ResourceType.CREDITS, price * filled);
+            }
+        }
+        if (order.getRemaining() > 0) {
+            order.cancel();
+            refund(order);
+        }
+    }
+
+    // Returns the escrow held for the order's unfilled quantity
+    private static void refund(Order order) {
+        int remaining = order.getRemaining();
+        if (order.getSide() == Order.Side.BUY) {
+            order.getTrader().addResource(ResourceType.CREDITS, order.getPrice() * remaining);
+        } else {
+            order.getTrader().addResource(order.getResource(), remaining);
+        }
+    }
+
+    private ConcurrentLinkedQueue<Order> queueFor(ResourceType resource) {
+        ConcurrentLinkedQueue<Order> queue = pendingOrders[resource.ordinal()];
+        if (queue == null) {
+            throw new IllegalArgumentException(resource + " is the auction currency and can't be traded");
+        }
+        return queue;
+    }
+
+    /*
+     * Gets the price of the most recent auction that traded this resource
+     * @return The price in Credits, or 0 if it has never traded
+     */
+    public int getLastClearingPrice(ResourceType resource) {
+        return clearingPrices.get(resource.ordinal());
+    }
+
+    public long getLastClearedVolume(ResourceType resource) {
+        return clearedVolumes.get(resource.ordinal());
+    }
+
+    public long getAuctionCount() {
+        return auctionCount;
+    }
+}
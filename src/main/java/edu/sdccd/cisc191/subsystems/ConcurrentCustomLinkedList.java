@@ -0,0 +1,231 @@
+package edu.sdccd.cisc191.subsystems;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+    /*
+     * Features added:
+     * Lock-free append in the style of the Michael-Scott queue: one CAS links a node, a second swings the tail
+     * Readers never lock; iteration is weakly consistent and never throws ConcurrentModificationException
+     * Removal clears a node's item first and unlinks it afterwards, so a slow remover can't hide a new append
+     * Null items are not allowed, since a null item marks a removed node
+     */
+
+// Thread-safe counterpart of CustomLinkedList for lists written by game threads while the UI reads them
+public class ConcurrentCustomLinkedList<T> implements Iterable<T> {
+    private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+    private static final AtomicReferenceFieldUpdater<Node, Object> ITEM =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "item");
+
+    private static final class Node {
+        volatile Object item; // null once removed
+        volatile Node next;   // only the last node's is null, and a node's next is never set back to null
+
+        Node(Object item) {
+            this.item = item;
+        }
+    }
+
+    private final Node head = new Node(null); // sentinel, never removed
+    private final AtomicReference<Node> tail = new AtomicReference<>(head); // the last node or one a little behind it
+    private final AtomicInteger size = new AtomicInteger();
+
+    public void add(T item) {
+        if (item == null) {
+            throw new NullPointerException("Null items are not allowed");
+        }
+        Node node = new Node(item);
+        while (true) {
+            Node last = tail.get();
+            Node next = last.next;
+            if (next != null) {
+                tail.compareAndSet(last, next); // help a lagging append finish, then retry
+            } else if (NEXT.compareAndSet(last, null, node)) {
+                tail.compareAndSet(last, node);
+                size.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    // Returns the item at a position among the items present while walking, counting from the head
+    public T get(int index) {
+        Node node = liveNodeAt(index);
+        if (node == null) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        return item(node);
+    }
+
+    /*
+     * Removes the item at a position, counting from the head
+     * Positions are only stable if removals don't race each other; Shipyard orders them with its journal lock
+     */
+    public T removeAt(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        while (true) {
+            Node previous = head;
+            Node node = head.next;
+            int remaining = index;
+            while (node != null && (node.item == null || remaining-- > 0)) {
+                previous = node;
+                node = node.next;
+            }
+            if (node == null) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            Object removed = node.item;
+            if (removed != null && ITEM.compareAndSet(node, removed, null)) {
+                size.decrementAndGet();
+                unlink(previous, node);
+                @SuppressWarnings("unchecked")
+                T item = (T) removed;
+                return item;
+            }
+            // Someone else removed it first; look again
+        }
+    }
+
+    /*
+     * Bypasses a removed node. The last node is left in place, since an append may be linking onto it;
+     * losing a race here only leaves a removed node linked, which every reader already skips
+     */
+    private void unlink(Node previous, Node node) {
+        Node next = node.next;
+        if (next != null) {
+            NEXT.compareAndSet(previous, node, next);
+        }
+    }
+
+    // Removes every item present while walking; items appended meanwhile may stay
+    public void clear() {
+        for (Node node = head.next; node != null; node = node.next) {
+            Object item = node.item;
+            if (item != null && ITEM.compareAndSet(node, item, null)) {
+                size.decrementAndGet();
+            }
+        }
+        // Bypass the leading removed nodes in one step, keeping the last node for in-flight appends
+        Node first = head.next;
+        Node node = first;
+        while (node != null && node.item == null && node.next != null) {
+            node = node.next;
+        }
+        if (node != first) {
+            NEXT.compareAndSet(head, first, node);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    // Exact when nothing is changing; an estimate while appends and removals are in flight
+    public int size() {
+        return size.get();
+    }
+
+    @NotNull
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (Node node = head.next; node != null; node = node.next) {
+            Object item = node.item;
+            if (item != null) {
+                @SuppressWarnings("unchecked")
+                T t = (T) item;
+                action.accept(t);
+            }
+        }
+    }
+
+    public List<T> toList() {
+        List<T> list = new ArrayList<>(size());
+        forEach(list::add);
+        return list;
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.CONCURRENT);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private Node liveNodeAt(int index) {
+        if (index < 0) {
+            return null;
+        }
+        for (Node node = head.next; node != null; node = node.next) {
+            if (node.item != null && index-- == 0) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(Node node) {
+        Object item = node.item;
+        if (item == null) {
+            throw new IndexOutOfBoundsException("Item was removed concurrently");
+        }
+        return (T) item;
+    }
+
+    // Weakly consistent: sees every item present for the whole walk, and maybe some added or removed during it
+    private class Itr implements Iterator<T> {
+        private Node node = head;
+        private Object nextItem;
+
+        @Override
+        public boolean hasNext() {
+            while (nextItem == null) {
+                Node next = node.next;
+                if (next == null) {
+                    return false;
+                }
+                node = next;
+                nextItem = next.item;
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            @SuppressWarnings("unchecked")
+            T item = (T) nextItem;
+            nextItem = null;
+            return item;
+        }
+    }
+}
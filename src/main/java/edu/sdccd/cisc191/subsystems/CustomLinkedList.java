@@ -4,67 +4,269 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+    /*
+     * Features added:
+     * Unrolled list: each node holds a small array of items, so walking the list touches few, dense nodes
+     * size() is O(1); the count is kept up to date instead of recounted
+     * Fail-fast iterator: changing the list while iterating throws ConcurrentModificationException
+     * Splittable spliterator, so fleets can be processed with parallel streams
+     * Not thread-safe; lists shared between threads should use ConcurrentCustomLinkedList
+     */
 
 public class CustomLinkedList<T> implements Iterable<T>, Serializable {
-    private static class Node<T> {
-        T data;
+    static final int CHUNK_CAPACITY = 64;
+
+    private static class Node<T> implements Serializable {
+        final Object[] items = new Object[CHUNK_CAPACITY];
+        int count;
         Node<T> next;
-        Node(T data) {
-            this.data = data;
+
+        @SuppressWarnings("unchecked")
+        T item(int index) {
+            return (T) items[index];
         }
     }
 
     private Node<T> head;
     private Node<T> tail;
+    private int size;
+    private transient int modCount; // bumped on every change, so iterators can detect them
 
     public void add(T item) {
-        Node<T> newNode = new Node<>(item);
-        if (head == null) {
-            head = tail = newNode;
+        if (tail == null) {
+            head = tail = new Node<>();
+        } else if (tail.count == CHUNK_CAPACITY) {
+            tail.next = new Node<>();
+            tail = tail.next;
+        }
+        tail.items[tail.count++] = item;
+        size++;
+        modCount++;
+    }
+
+    // Returns the item at a position, counting from the head
+    public T get(int index) {
+        checkIndex(index);
+        Node<T> node = head;
+        while (index >= node.count) {
+            index -= node.count;
+            node = node.next;
+        }
+        return node.item(index);
+    }
+
+    // Removes and returns the item at a position, counting from the head
+    public T removeAt(int index) {
+        checkIndex(index);
+        Node<T> previous = null;
+        Node<T> node = head;
+        while (index >= node.count) {
+            index -= node.count;
+            previous = node;
+            node = node.next;
+        }
+        T removed = node.item(index);
+        System.arraycopy(node.items, index + 1, node.items, index, node.count - index - 1);
+        node.items[--node.count] = null;
+        size--;
+        modCount++;
+
+        if (node.count == 0) {
+            unlink(previous, node);
+        } else if (node.count < CHUNK_CAPACITY / 4 && node.next != null
+                && node.count + node.next.count <= CHUNK_CAPACITY) {
+            // Keep nodes dense: fold a nearly empty node's neighbour into it
+            Node<T> next = node.next;
+            System.arraycopy(next.items, 0, node.items, node.count, next.count);
+            node.count += next.count;
+            unlink(node, next);
+        }
+        return removed;
+    }
+
+    private void unlink(Node<T> previous, Node<T> node) {
+        if (previous == null) {
+            head = node.next;
         } else {
-            tail.next = newNode;
-            tail = newNode;
+            previous.next = node.next;
+        }
+        if (node == tail) {
+            tail = previous;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
         }
     }
 
     public void clear() {
         head = null;
         tail = null;
+        size = 0;
+        modCount++;
     }
 
     public boolean isEmpty() {
-        return head == null;
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
     }
 
     @NotNull
     @Override
     public Iterator<T> iterator() {
-        return null;
+        return new Itr();
     }
 
+    @Override
     public void forEach(Consumer<? super T> action) {
-        Node<T> current = head;
-        while (current != null) {
-            action.accept(current.data);
-            current = current.next;
+        int expectedModCount = modCount;
+        for (Node<T> node = head; node != null; node = node.next) {
+            for (int i = 0; i < node.count; i++) {
+                action.accept(node.item(i));
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
         }
     }
+
     public List<T> toList() {
-        List<T> list = new ArrayList<>();
+        List<T> list = new ArrayList<>(size);
         forEach(list::add);
         return list;
     }
 
-    public int size() {
-        int count = 0;
-        Node<T> current = head;
-        while (current != null) {
-            count++;
-            current = current.next;
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ChunkSpliterator(head, 0, size, modCount);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private class Itr implements Iterator<T> {
+        private Node<T> node = head;
+        private int offset;
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            while (node != null && offset >= node.count) {
+                node = node.next;
+                offset = 0;
+            }
+            return node != null;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return node.item(offset++);
+        }
+    }
+
+    // Covers `remaining` items starting at `offset` in `node`
+    private class ChunkSpliterator implements Spliterator<T> {
+        private Node<T> node;
+        private int offset;
+        private int remaining;
+        private final int expectedModCount;
+
+        ChunkSpliterator(Node<T> node, int offset, int remaining, int expectedModCount) {
+            this.node = node;
+            this.offset = offset;
+            this.remaining = remaining;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (remaining == 0) {
+                return false;
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            while (offset >= node.count) {
+                node = node.next;
+                offset = 0;
+            }
+            remaining--;
+            action.accept(node.item(offset++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            while (remaining > 0) {
+                int take = Math.min(node.count - offset, remaining);
+                for (int i = 0; i < take; i++) {
+                    action.accept(node.item(offset + i));
+                }
+                remaining -= take;
+                offset += take;
+                if (remaining > 0) {
+                    node = node.next;
+                    offset = 0;
+                }
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        // Hands the first half to a new spliterator; only skips whole nodes to find the midpoint
+        @Override
+        public Spliterator<T> trySplit() {
+            if (remaining <= CHUNK_CAPACITY) {
+                return null;
+            }
+            Node<T> start = node;
+            int startOffset = offset;
+            int prefix = remaining / 2;
+            int skip = prefix;
+            while (skip >= node.count - offset) {
+                skip -= node.count - offset;
+                node = node.next;
+                offset = 0;
+            }
+            offset += skip;
+            remaining -= prefix;
+            return new ChunkSpliterator(start, startOffset, prefix, expectedModCount);
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
         }
-        return count;
     }
 }
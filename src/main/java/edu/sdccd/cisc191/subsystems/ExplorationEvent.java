@@ -0,0 +1,124 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.ResourceType;
+
+import java.util.Arrays;
+
+/**
+ * One possible outcome of exploring a planet, compiled from an exploration event table.
+ * Instances are immutable so they can be shared by every exploring thread.
+ */
+public final class ExplorationEvent {
+
+    /**
+     * Enum representing the kinds of exploration events.
+     */
+    public enum Kind {
+        ENEMY,
+        RESOURCES,
+        SAFE_ZONE
+    }
+
+    private final Kind kind;
+    private final double weight;
+    private final String enemyName;
+    private final int enemyHealth;
+    private final int enemyAttackPower;
+    private final ResourceType[] resourceTypes;
+    private final int[] resourceAmounts;
+    private final int healAmount;
+    private final String description;
+
+    private ExplorationEvent(Kind kind, double weight, String enemyName, int enemyHealth, int enemyAttackPower,
+                             ResourceType[] resourceTypes, int[] resourceAmounts, int healAmount) {
+        this.kind = kind;
+        this.weight = weight;
+        this.enemyName = enemyName;
+        this.enemyHealth = enemyHealth;
+        this.enemyAttackPower = enemyAttackPower;
+        this.resourceTypes = resourceTypes;
+        this.resourceAmounts = resourceAmounts;
+        this.healAmount = healAmount;
+        this.description = describe();
+    }
+
+    public static ExplorationEvent enemy(double weight, String enemyName, int health, int attackPower) {
+        return new ExplorationEvent(Kind.ENEMY, weight, enemyName, health, attackPower,
+                new ResourceType[0], new int[0], 0);
+    }
+
+    public static ExplorationEvent resources(double weight, ResourceType[] resourceTypes, int[] amounts) {
+        if (resourceTypes.length != amounts.length) {
+            throw new IllegalArgumentException("Each resource needs an amount");
+        }
+        return new ExplorationEvent(Kind.RESOURCES, weight, null, 0, 0,
+                resourceTypes.clone(), amounts.clone(), 0);
+    }
+
+    public static ExplorationEvent safeZone(double weight, int healAmount) {
+        return new ExplorationEvent(Kind.SAFE_ZONE, weight, null, 0, 0,
+                new ResourceType[0], new int[0], healAmount);
+    }
+
+    // Builds the player-facing message once so the exploration hot path doesn't have to
+    private String describe() {
+        switch (kind) {
+            case ENEMY:
+                return "Enemy detected: " + enemyName + "!";
+            case RESOURCES:
+                StringBuilder sb = new StringBuilder("You found resources!");
+                for (int i = 0; i < resourceTypes.length; i++) {
+                    sb.append(i == 0 ? " " : ", ").append('+').append(resourceAmounts[i])
+                            .append(' ').append(resourceTypes[i].getDisplayName());
+                }
+                return sb.append('.').toString();
+            default:
+                return "Safe zone detected! Your ships regain +" + healAmount + " HP.";
+        }
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public String getEnemyName() {
+        return enemyName;
+    }
+
+    public int getEnemyHealth() {
+        return enemyHealth;
+    }
+
+    public int getEnemyAttackPower() {
+        return enemyAttackPower;
+    }
+
+    public int getResourceCount() {
+        return resourceTypes.length;
+    }
+
+    public ResourceType getResourceType(int index) {
+        return resourceTypes[index];
+    }
+
+    public int getResourceAmount(int index) {
+        return resourceAmounts[index];
+    }
+
+    public int getHealAmount() {
+        return healAmount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [weight=%s, resources=%s]", kind, weight, Arrays.toString(resourceTypes));
+    }
+}
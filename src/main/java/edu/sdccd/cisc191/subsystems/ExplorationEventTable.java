@@ -0,0 +1,188 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.Planet.PlanetType;
+import edu.sdccd.cisc191.game.ResourceType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+    /*
+     * Features added:
+     * Weighted exploration events per planet type, loaded from exploration_events.csv
+     * Tables are compiled once into alias tables, so each draw is O(1)
+     * Lookups on the exploration hot path are plain array indexing by PlanetType ordinal
+     * Falls back to the original three equally likely events when a table is missing
+     */
+
+public final class ExplorationEventTable {
+    public static final String DEFAULT_RESOURCE = "/exploration_events.csv";
+
+    private final ExplorationEvent[][] eventsByType;
+    private final AliasTable[] samplersByType;
+
+    private ExplorationEventTable(List<List<ExplorationEvent>> events) {
+        int typeCount = PlanetType.values().length;
+        eventsByType = new ExplorationEvent[typeCount][];
+        samplersByType = new AliasTable[typeCount];
+        for (PlanetType type : PlanetType.values()) {
+            List<ExplorationEvent> list = events.get(type.ordinal());
+            if (list.isEmpty()) {
+                list = builtInEvents();
+            }
+            ExplorationEvent[] compiled = list.toArray(new ExplorationEvent[0]);
+            double[] weights = new double[compiled.length];
+            for (int i = 0; i < compiled.length; i++) {
+                weights[i] = compiled[i].getWeight();
+            }
+            eventsByType[type.ordinal()] = compiled;
+            samplersByType[type.ordinal()] = new AliasTable(weights);
+        }
+    }
+
+    // Holder idiom: the default table is parsed and compiled once, the first time it is needed
+    private static final class DefaultHolder {
+        private static final ExplorationEventTable INSTANCE = loadResource(DEFAULT_RESOURCE);
+    }
+
+    /**
+     * Returns the table compiled from exploration_events.csv.
+     *
+     * @return The shared default table.
+     */
+    public static ExplorationEventTable getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Loads and compiles a table from a classpath resource.
+     * A missing resource falls back to the built-in events for every planet type.
+     *
+     * @param resourceName The classpath resource to read.
+     * @return The compiled table.
+     */
+    public static ExplorationEventTable loadResource(String resourceName) {
+        try (InputStream in = ExplorationEventTable.class.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                System.err.println("Exploration events not found: " + resourceName + ", using defaults.");
+                return new ExplorationEventTable(emptyTables());
+            }
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Error loading exploration events: " + e.getMessage());
+            return new ExplorationEventTable(emptyTables());
+        }
+    }
+
+    /**
+     * Parses and compiles a table.
+     * Each line is planetType,event,weight followed by the event's parameters:
+     * ENEMY takes name,health,attack; RESOURCES takes name:amount pairs separated by ';';
+     * SAFE_ZONE takes the HP restored. Blank lines and lines starting with '#' are ignored.
+     *
+     * @param reader The table source.
+     * @return The compiled table.
+     * @throws IOException If the reader fails.
+     */
+    public static ExplorationEventTable parse(Reader reader) throws IOException {
+        List<List<ExplorationEvent>> events = emptyTables();
+        BufferedReader in = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                String[] fields = line.split(",");
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fields[i].trim();
+                }
+                PlanetType type = PlanetType.valueOf(fields[0]);
+                ExplorationEvent event = parseEvent(fields);
+                if (event.getWeight() > 0) {
+                    events.get(type.ordinal()).add(event);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Skipping exploration event on line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return new ExplorationEventTable(events);
+    }
+
+    private static List<List<ExplorationEvent>> emptyTables() {
+        List<List<ExplorationEvent>> events = new ArrayList<>();
+        for (int i = 0; i < PlanetType.values().length; i++) {
+            events.add(new ArrayList<>());
+        }
+        return events;
+    }
+
+    private static ExplorationEvent parseEvent(String[] fields) {
+        ExplorationEvent.Kind kind = ExplorationEvent.Kind.valueOf(fields[1]);
+        double weight = Double.parseDouble(fields[2]);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight " + weight);
+        }
+        switch (kind) {
+            case ENEMY:
+                return ExplorationEvent.enemy(weight, fields[3],
+                        Integer.parseInt(fields[4]), Integer.parseInt(fields[5]));
+            case RESOURCES:
+                String[] grants = fields[3].split(";");
+                ResourceType[] types = new ResourceType[grants.length];
+                int[] amounts = new int[grants.length];
+                for (int i = 0; i < grants.length; i++) {
+                    String[] pair = grants[i].split(":");
+                    types[i] = ResourceType.fromName(pair[0].trim());
+                    if (types[i] == null) {
+                        throw new IllegalArgumentException("Unknown resource " + pair[0].trim());
+                    }
+                    amounts[i] = Integer.parseInt(pair[1].trim());
+                }
+                return ExplorationEvent.resources(weight, types, amounts);
+            default:
+                return ExplorationEvent.safeZone(weight, Integer.parseInt(fields[3]));
+        }
+    }
+
+    // The original hardcoded events: enemy raider, resource cache and safe zone, equally likely
+    private static List<ExplorationEvent> builtInEvents() {
+        List<ExplorationEvent> events = new ArrayList<>();
+        events.add(ExplorationEvent.enemy(1, "Alien Raider", 150, 30));
+        events.add(ExplorationEvent.resources(1,
+                new ResourceType[]{ResourceType.FUEL, ResourceType.MINERALS}, new int[]{10, 10}));
+        events.add(ExplorationEvent.safeZone(1, 20));
+        return events;
+    }
+
+    /**
+     * Draws an event for a planet type in O(1).
+     *
+     * @param type The planet type being explored.
+     * @param random The random source to use.
+     * @return The chosen event.
+     */
+    public ExplorationEvent sample(PlanetType type, Random random) {
+        int index = type.ordinal();
+        return eventsByType[index][samplersByType[index].sample(random)];
+    }
+
+    /**
+     * Gets the compiled events for a planet type, in table order.
+     *
+     * @param type The planet type.
+     * @return A copy of the events.
+     */
+    public ExplorationEvent[] getEvents(PlanetType type) {
+        return eventsByType[type.ordinal()].clone();
+    }
+}
@@ -4,8 +4,9 @@ import edu.sdccd.cisc191.game.GalacticShip;
 import edu.sdccd.cisc191.game.Planet;
 import edu.sdccd.cisc191.game.Player;
 import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -16,13 +17,52 @@ import java.util.concurrent.locks.ReentrantLock;
      * Enemy combat integrated (triggers CombatSystem)
      * UI messages for immersion
      * Ensures the player has a ship before exploring (Prevents crashes)
+     * Striped per-player locking so different players explore in parallel
+     * Weighted events per planet type from ExplorationEventTable
+     * Discovered resources are extracted from the planet's regenerating deposits
      */
 
 // Handles planet exploration with random events
 public class ExplorationSystem {
-    private final Lock lock = new ReentrantLock();
-    private final Random random = new Random();
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final Lock[] playerLocks;
+    private final int stripeMask;
     private final CombatSystem combatSystem = new CombatSystem();
+    private final ExplorationEventTable eventTable;
+
+    public ExplorationSystem() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ExplorationSystem(int stripes) {
+        this(stripes, ExplorationEventTable.getDefault());
+    }
+
+    /*
+     * Creates an exploration system with the given number of lock stripes and event table
+     * @param stripes Number of player locks, rounded up to a power of two
+     * @param eventTable The compiled exploration events to draw from
+     */
+    public ExplorationSystem(int stripes, ExplorationEventTable eventTable) {
+        this.eventTable = eventTable;
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.playerLocks = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            playerLocks[i] = new ReentrantLock();
+        }
+        this.stripeMask = size - 1;
+    }
+
+    // Picks the lock stripe guarding the given player
+    private Lock lockFor(Player player) {
+        int h = System.identityHashCode(player);
+        h ^= (h >>> 16);
+        return playerLocks[h & stripeMask];
+    }
 
     /*
      * Explores a planet and triggers a random event
@@ -30,6 +70,7 @@ public class ExplorationSystem {
      * @param planet The planet is being explored.
      */
     public void explorePlanet(Player player, Planet planet, PlayerInventory inventory) {
+        Lock lock = lockFor(player);
         lock.lock();
         try {
             System.out.println(player.getName() + " is exploring " + planet.getName());
@@ -42,37 +83,50 @@ public class ExplorationSystem {
             // Get Player's first ship for interactions
             GalacticShip playerShip = player.getFleet().get(0);
 
-            // Generate a random event
-            int event = random.nextInt(3);
+            // Draw a weighted event from the planet type's precompiled table
+            ExplorationEvent event = eventTable.sample(planet.getType(), ThreadLocalRandom.current());
 
-            switch (event) {
-                case 0 -> {
+            switch (event.getKind()) {
+                case ENEMY -> {
                     // Enemy Encounter
-                    System.out.println("Enemy detected on " + planet.getName() + "!");
+                    System.out.println(event.getDescription() + " (" + planet.getName() + ")");
                     // Create an AI enemy ship
-                    GalacticShip enemyShip = new GalacticShip("Alien Raider", 150, 30);
+                    GalacticShip enemyShip = new GalacticShip(event.getEnemyName(), event.getEnemyHealth(), event.getEnemyAttackPower());
                     combatSystem.engageCombatAsync(playerShip, enemyShip, result -> {
                         System.out.println(result);
 
                         if (playerShip.isDestroyed()) {
-                            synchronized (player.getFleet()) {
-                                player.getFleet().remove(playerShip);
+                            // Combat finishes on another thread, so take the same stripe before touching the fleet
+                            Lock fleetLock = lockFor(player);
+                            fleetLock.lock();
+                            try {
+                                player.removeShip(playerShip);
                                 System.out.println("Your ship was destroyed!");
+                            } finally {
+                                fleetLock.unlock();
                             }
                         }
                     });
                 }
-                case 1 -> {
+                case RESOURCES -> {
                     // Resource Discovery
-                    System.out.println("You found resources on " + planet.getName() + "! +10 fuel, +10 minerals.");
-                    inventory.addResource("Fuel",10);
-                    inventory.addResource("Minerals",10);
-                    System.out.println("New Totals → Fuel: " + inventory.getResourceAmount("Fuel") + ", Minerals: " + inventory.getResourceAmount ("Minerals"));
+                    System.out.println(event.getDescription() + " (" + planet.getName() + ")");
+                    for (int i = 0; i < event.getResourceCount(); i++) {
+                        // Finds are taken from the planet's deposits, so a mined-out planet yields less
+                        ResourceType type = event.getResourceType(i);
+                        int found = planet.extract(type, event.getResourceAmount(i));
+                        if (found > 0) {
+                            inventory.addResource(type, found);
+                        }
+                        if (found < event.getResourceAmount(i)) {
+                            System.out.println(planet.getName() + " only had " + found + " " + type + " left.");
+                        }
+                    }
                 }
-                case 2 -> {
+                case SAFE_ZONE -> {
                     // Safe Zone Healing
-                    System.out.println("Safe zone detected! Your ships regain +20 HP.");
-                    playerShip.takeDamage(+20); // Heals the ship
+                    System.out.println(event.getDescription());
+                    playerShip.repair(event.getHealAmount()); // Heals the ship
                 }
             }
 
@@ -0,0 +1,286 @@
+package edu.sdccd.cisc191.subsystems;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+    /*
+     * Features added:
+     * Hashed timer wheel: one thread drives any number of pending timeouts
+     * Scheduling and cancelling are O(1) and lock-free; the worker moves new timeouts into buckets
+     * Each tick only visits one bucket, so timeouts far in the future cost nothing until their turn
+     * Precision is one tick, which is plenty for game timers measured in seconds
+     */
+
+// Coarse-grained timer for large numbers of game timeouts (builds, cooldowns)
+public class HashedWheelTimer {
+    private static final long DEFAULT_TICK_MILLIS = 10;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final int WORKER_INIT = 0;
+    private static final int WORKER_STARTED = 1;
+    private static final int WORKER_STOPPED = 2;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final String threadName;
+    private final ConcurrentLinkedQueue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger workerState = new AtomicInteger(WORKER_INIT);
+    private final AtomicLong pending = new AtomicLong();
+    private volatile long startNanos;
+    private Thread worker;
+
+    // Lazily created shared timer, so every shipyard in the game runs on one thread
+    private static class SharedHolder {
+        static final HashedWheelTimer INSTANCE = new HashedWheelTimer("game-timer");
+    }
+
+    public static HashedWheelTimer shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    public HashedWheelTimer(String threadName) {
+        this(threadName, DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /*
+     * Creates a timer; its worker thread starts with the first scheduled timeout
+     * @param threadName Name of the worker thread
+     * @param tick Duration of one tick, the timer's precision
+     * @param unit Unit of the tick
+     * @param wheelSize Number of buckets, rounded up to a power of two
+     */
+    public HashedWheelTimer(String threadName, long tick, TimeUnit unit, int wheelSize) {
+        if (tick <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.threadName = threadName;
+        this.tickNanos = unit.toNanos(tick);
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        mask = size - 1;
+    }
+
+    /*
+     * Runs a task once after a delay, on the timer thread
+     * Tasks should be short: a slow task delays every other timeout
+     * @return A handle that can cancel the task before it runs
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        start();
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(0, delay)) - startNanos;
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void start() {
+        int state = workerState.get();
+        if (state == WORKER_STARTED) {
+            return;
+        }
+        if (state == WORKER_STOPPED) {
+            throw new IllegalStateException("Timer has been stopped");
+        }
+        synchronized (this) {
+            if (workerState.get() == WORKER_INIT) {
+                startNanos = System.nanoTime();
+                worker = new Thread(this::run, threadName);
+                worker.setDaemon(true);
+                workerState.set(WORKER_STARTED);
+                worker.start();
+            }
+        }
+    }
+
+    // Stops the worker; timeouts that haven't run yet never will
+    public void stop() {
+        if (workerState.getAndSet(WORKER_STOPPED) == WORKER_STARTED) {
+            worker.interrupt();
+        }
+    }
+
+    // Number of timeouts scheduled but not yet run or cancelled
+    public long pendingTimeouts() {
+        return pending.get();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (workerState.get() == WORKER_STARTED) {
+            long deadline = waitForNextTick(tick);
+            if (deadline < 0) {
+                break;
+            }
+            removeCancelled();
+            transferNewTimeouts(tick);
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    // Sleeps until the end of the given tick; returns that time relative to start, or -1 if stopped
+    private long waitForNextTick(long tick) {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long now = System.nanoTime() - startNanos;
+            long sleepMillis = (deadline - now + 999_999) / 1_000_000;
+            if (sleepMillis <= 0) {
+                return now;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (workerState.get() == WORKER_STOPPED) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferNewTimeouts(long currentTick) {
+        // Bounded so a flood of new timeouts can't stall this tick forever
+        for (int i = 0; i < 100_000; i++) {
+            Timeout timeout = newTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - currentTick) / wheel.length;
+            // A deadline already in the past goes in the current bucket and runs this tick
+            long ticks = Math.max(calculated, currentTick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    // A scheduled task; cancel it before it runs to stop it
+    public static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Worker-only bucket bookkeeping
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /*
+         * Cancels the task if it hasn't started running
+         * @return true if this call cancelled it, false if it already ran or was cancelled
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrementAndGet();
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) {
+                return;
+            }
+            timer.pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Timer task failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Doubly linked list of the timeouts hashed to one slot; touched by the worker only
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+
+// A limit order on the resource market
+// Price is in Credits per unit; only the book's matcher thread changes the fill state
+public final class Order {
+    public enum Side {
+        BUY, SELL
+    }
+
+    public enum Venue {
+        ORDER_BOOK,     // continuous matching in ResourceMarket
+        CALL_AUCTION    // per-tick clearing in BatchAuction
+    }
+
+    public enum Status {
+        PENDING,    // submitted, not yet seen by the matcher
+        OPEN,       // resting on the book
+        FILLED,
+        CANCELLED
+    }
+
+    private final long id;
+    private final Venue venue;
+    private final PlayerInventory trader;
+    private final ResourceType resource;
+    private final Side side;
+    private final int price;
+    private final int quantity;
+
+    private volatile int remaining;
+    private volatile Status status = Status.PENDING;
+
+    Order(long id, Venue venue, PlayerInventory trader, ResourceType resource, Side side, int price, int quantity) {
+        this.id = id;
+        this.venue = venue;
+        this.trader = trader;
+        this.resource = resource;
+        this.side = side;
+        this.price = price;
+        this.quantity = quantity;
+        this.remaining = quantity;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Venue getVenue() {
+        return venue;
+    }
+
+    public PlayerInventory getTrader() {
+        return trader;
+    }
+
+    public ResourceType getResource() {
+        return resource;
+    }
+
+    public Side getSide() {
+        return side;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    public int getFilled() {
+        return quantity - remaining;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isDone() {
+        Status current = status;
+        return current == Status.FILLED || current == Status.CANCELLED;
+    }
+
+    // Matcher-only updates
+
+    void fill(int amount) {
+        remaining -= amount;
+        if (remaining == 0) {
+            status = Status.FILLED;
+        }
+    }
+
+    void open() {
+        status = Status.OPEN;
+    }
+
+    void cancel() {
+        status = Status.CANCELLED;
+    }
+
+    @Override
+    public String toString() {
+        return side + " " + quantity + " " + resource + " @ " + price + " (" + status + ", " + getFilled() + " filled)";
+    }
+}
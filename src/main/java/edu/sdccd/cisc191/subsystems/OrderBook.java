@@ -0,0 +1,182 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+    /*
+     * Features added:
+     * Limit order book for one resource, matched by price then time
+     * Any thread can submit; commands queue lock-free and a single drainer applies them in order
+     * Only the drainer touches the price levels, so matching itself needs no locks
+     * Cancelled orders are dropped lazily when they reach the front of their level
+     */
+
+// Order book for one resource type; see ResourceMarket for the public API
+final class OrderBook {
+    private final ResourceType resource;
+    private final Executor executor;
+    private final ConcurrentLinkedQueue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    // Drainer-only state: price -> orders at that price in arrival order, best price first
+    private final TreeMap<Integer, ArrayDeque<Order>> bids = new TreeMap<>(Comparator.reverseOrder());
+    private final TreeMap<Integer, ArrayDeque<Order>> asks = new TreeMap<>();
+
+    // Published for readers after every drain
+    private volatile int bestBid;
+    private volatile int bestAsk;
+    private volatile int lastTradePrice;
+    private volatile long tradeCount;
+    private volatile long tradedVolume;
+
+    OrderBook(ResourceType resource, Executor executor) {
+        this.resource = resource;
+        this.executor = executor;
+    }
+
+    ResourceType getResource() {
+        return resource;
+    }
+
+    /*
+     * Queues a command for the drainer and makes sure one is running
+     * @param command Work that touches the book; runs on the drainer only
+     */
+    void submit(Runnable command) {
+        inbox.add(command);
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            Runnable command;
+            while ((command = inbox.poll()) != null) {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    System.err.println(resource + " order book command failed: " + e.getMessage());
+                }
+            }
+            publishTopOfBook();
+            draining.set(false);
+            // A submitter that lost the race above relies on us to pick up its command
+        } while (!inbox.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    // Drainer only: matches an incoming order, then rests whatever is left
+    void match(Order taker) {
+        boolean buying = taker.getSide() == Order.Side.BUY;
+        TreeMap<Integer, ArrayDeque<Order>> opposite = buying ? asks : bids;
+        while (taker.getRemaining() > 0) {
+            Map.Entry<Integer, ArrayDeque<Order>> best = opposite.firstEntry();
+            if (best == null) {
+                break;
+            }
+            int price = best.getKey();
+            if (buying ? price > taker.getPrice() : price < taker.getPrice()) {
+                break;
+            }
+            ArrayDeque<Order> level = best.getValue();
+            Order maker = level.peekFirst();
+            if (maker.getStatus() == Order.Status.OPEN) {
+                // Trades happen at the resting order's price
+                int quantity = Math.min(taker.getRemaining(), maker.getRemaining());
+                settle(buying ? taker : maker, buying ? maker : taker, price, quantity);
+                taker.fill(quantity);
+                maker.fill(quantity);
+                if (maker.getRemaining() > 0) {
+                    continue;
+                }
+            }
+            level.pollFirst();
+            if (level.isEmpty()) {
+                opposite.pollFirstEntry();
+            }
+        }
+        if (taker.getRemaining() > 0) {
+            taker.open();
+            (buying ? bids : asks).computeIfAbsent(taker.getPrice(), p -> new ArrayDeque<>()).addLast(taker);
+        }
+    }
+
+    private void settle(Order buy, Order sell, int price, int quantity) {
+        PlayerInventory buyer = buy.getTrader();
+        buyer.addResource(resource, quantity);
+        sell.getTrader().addResource(ResourceType.CREDITS, price * quantity);
+        // The buyer escrowed at their limit; hand back the difference when they trade below it
+        int refund = (buy.getPrice() - price) * quantity;
+        if (refund > 0) {
+            buyer.addResource(ResourceType.CREDITS, refund);
+        }
+        lastTradePrice = price;
+        tradeCount++;
+        tradedVolume += quantity;
+    }
+
+    // Drainer only: refunds what the order still had escrowed; it leaves the book when it reaches the front
+    void cancel(Order order) {
+        Order.Status status = order.getStatus();
+        if (order.getVenue() != Order.Venue.ORDER_BOOK
+                || (status != Order.Status.OPEN && status != Order.Status.PENDING)) {
+            return;
+        }
+        order.cancel();
+        int remaining = order.getRemaining();
+        if (order.getSide() == Order.Side.BUY) {
+            order.getTrader().addResource(ResourceType.CREDITS, order.getPrice() * remaining);
+        } else {
+            order.getTrader().addResource(resource, remaining);
+        }
+    }
+
+    private void publishTopOfBook() {
+        bestBid = topPrice(bids);
+        bestAsk = topPrice(asks);
+    }
+
+    // Drops cancelled orders from the front of the best levels, then reports the best live price (0 if none)
+    private static int topPrice(TreeMap<Integer, ArrayDeque<Order>> side) {
+        while (!side.isEmpty()) {
+            Map.Entry<Integer, ArrayDeque<Order>> best = side.firstEntry();
+            ArrayDeque<Order> level = best.getValue();
+            while (!level.isEmpty() && level.peekFirst().getStatus() != Order.Status.OPEN) {
+                level.pollFirst();
+            }
+            if (!level.isEmpty()) {
+                return best.getKey();
+            }
+            side.pollFirstEntry();
+        }
+        return 0;
+    }
+
+    int getBestBid() {
+        return bestBid;
+    }
+
+    int getBestAsk() {
+        return bestAsk;
+    }
+
+    int getLastTradePrice() {
+        return lastTradePrice;
+    }
+
+    long getTradeCount() {
+        return tradeCount;
+    }
+
+    long getTradedVolume() {
+        return tradedVolume;
+    }
+}
@@ -0,0 +1,227 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceCost;
+import edu.sdccd.cisc191.game.ResourceType;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+    /*
+     * Features added:
+     * Passive income from owned planets and refineries, credited once per simulation tick
+     * Players live in parallel primitive arrays (slot i = one player) instead of objects
+     * Each tick splits the slots into chunks and credits them as a parallel batch
+     * Runs on a single scheduler thread; the batch itself uses the common ForkJoinPool
+     */
+
+public class ProductionEngine {
+    public static final ResourceCost DEFAULT_PLANET_INCOME =
+            ResourceCost.of(ResourceType.MINERALS, 2, ResourceType.DILITHIUM, 1);
+    public static final ResourceCost DEFAULT_REFINERY_INCOME =
+            ResourceCost.of(ResourceType.FUEL, 2, ResourceType.ENERGY, 2);
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private final int[] planetIncome;    // per ResourceType ordinal, per planet per tick
+    private final int[] refineryIncome;  // per ResourceType ordinal, per refinery per tick
+    private final int[] producedTypes;   // ordinals that either source produces
+
+    // Registration and count changes are rare, so they share one lock; ticks only read and
+    // pick up a changed count on a later tick
+    private final Lock registrationLock = new ReentrantLock();
+    private volatile PlayerInventory[] inventories = new PlayerInventory[64];
+    private volatile int[] ownedPlanets = new int[64];
+    private volatile int[] refineries = new int[64];
+    private volatile int playerCount;
+
+    private ScheduledExecutorService scheduler;
+    private volatile Runnable onTick;
+    private volatile long tickCount;
+
+    public ProductionEngine() {
+        this(DEFAULT_PLANET_INCOME, DEFAULT_REFINERY_INCOME);
+    }
+
+    /*
+     * Creates an engine with the given per-tick incomes
+     * @param perPlanet Resources one owned planet produces each tick
+     * @param perRefinery Resources one refinery produces each tick
+     */
+    public ProductionEngine(ResourceCost perPlanet, ResourceCost perRefinery) {
+        int types = ResourceType.count();
+        planetIncome = new int[types];
+        refineryIncome = new int[types];
+        int[] produced = new int[types];
+        int producedCount = 0;
+        for (int t = 0; t < types; t++) {
+            ResourceType type = ResourceType.byOrdinal(t);
+            planetIncome[t] = perPlanet.getAmount(type);
+            refineryIncome[t] = perRefinery.getAmount(type);
+            if (planetIncome[t] != 0 || refineryIncome[t] != 0) {
+                produced[producedCount++] = t;
+            }
+        }
+        producedTypes = Arrays.copyOf(produced, producedCount);
+    }
+
+    /*
+     * Registers a player's inventory for passive income
+     * @param inventory The inventory to credit each tick
+     * @param planets Number of planets the player owns
+     * @param refineryCount Number of refineries the player owns
+     * @return The player's slot, used to update their counts later
+     */
+    public int registerPlayer(PlayerInventory inventory, int planets, int refineryCount) {
+        registrationLock.lock();
+        try {
+            int slot = playerCount;
+            if (slot == inventories.length) {
+                int capacity = slot * 2;
+                inventories = Arrays.copyOf(inventories, capacity);
+                ownedPlanets = Arrays.copyOf(ownedPlanets, capacity);
+                refineries = Arrays.copyOf(refineries, capacity);
+            }
+            inventories[slot] = inventory;
+            ownedPlanets[slot] = planets;
+            refineries[slot] = refineryCount;
+            playerCount = slot + 1; // volatile write publishes the slot to ticks
+            return slot;
+        } finally {
+            registrationLock.unlock();
+        }
+    }
+
+    public void setOwnedPlanets(int slot, int planets) {
+        registrationLock.lock();
+        try {
+            checkSlot(slot);
+            ownedPlanets[slot] = planets;
+        } finally {
+            registrationLock.unlock();
+        }
+    }
+
+    public void setRefineries(int slot, int refineryCount) {
+        registrationLock.lock();
+        try {
+            checkSlot(slot);
+            refineries[slot] = refineryCount;
+        } finally {
+            registrationLock.unlock();
+        }
+    }
+
+    public int getOwnedPlanets(int slot) {
+        checkSlot(slot);
+        return ownedPlanets[slot];
+    }
+
+    public int getRefineries(int slot) {
+        checkSlot(slot);
+        return refineries[slot];
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= playerCount) {
+            throw new IllegalArgumentException("Unknown player slot: " + slot);
+        }
+    }
+
+    /*
+     * Runs one production tick, crediting every registered player
+     * @return Time the tick took, in nanoseconds
+     */
+    public long tick() {
+        long start = System.nanoTime();
+        // Read the count first: the volatile read makes every slot below it visible
+        int count = playerCount;
+        PlayerInventory[] inv = inventories;
+        int[] planets = ownedPlanets;
+        int[] refinery = refineries;
+
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks <= 1) {
+            creditRange(inv, planets, refinery, 0, count);
+        } else {
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int from = chunk * CHUNK_SIZE;
+                creditRange(inv, planets, refinery, from, Math.min(count, from + CHUNK_SIZE));
+            });
+        }
+
+        tickCount++; // only the scheduler thread (or a test) ticks
+        Runnable listener = onTick;
+        if (listener != null) {
+            listener.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void creditRange(PlayerInventory[] inv, int[] planets, int[] refinery, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int p = planets[i];
+            int r = refinery[i];
+            if ((p | r) == 0) {
+                continue;
+            }
+            PlayerInventory inventory = inv[i];
+            for (int t : producedTypes) {
+                int amount = p * planetIncome[t] + r * refineryIncome[t];
+                if (amount != 0) {
+                    inventory.addResource(ResourceType.byOrdinal(t), amount);
+                }
+            }
+        }
+    }
+
+    /*
+     * Sets a callback run after every tick, e.g. to refresh the UI
+     * @param onTick The callback, or null for none
+     */
+    public void setOnTick(Runnable onTick) {
+        this.onTick = onTick;
+    }
+
+    /*
+     * Starts ticking at a fixed rate on a background thread
+     * @param tickMillis Milliseconds between ticks
+     */
+    public synchronized void start(long tickMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "production-tick");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                System.err.println("Production tick failed: " + e.getMessage());
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+}
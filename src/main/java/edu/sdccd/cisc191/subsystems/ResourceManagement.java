@@ -1,8 +1,10 @@
 package edu.sdccd.cisc191.subsystems;
 
+import edu.sdccd.cisc191.game.Planet;
 import edu.sdccd.cisc191.game.Player;
 import edu.sdccd.cisc191.game.Resource;
 import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
 
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -30,4 +32,25 @@ public class ResourceManagement {
             lock.unlock();
         }
     }
-}
\ No newline at end of file
+
+    /*
+     * Gathers a resource from a planet's deposits
+     * The planet guards its own deposits, so this needs no shared lock
+     * @param player The player gathering
+     * @param planet The planet to gather from
+     * @param type The resource to gather
+     * @param inventory The inventory to credit
+     * @return The amount gathered, which is less than rolled if the planet is running dry
+     */
+    public int gatherResources(Player player, Planet planet, ResourceType type, PlayerInventory inventory) {
+        int requested = (int) (Math.random() * 10 + 5); // Random between 5-15
+        int collectedAmount = planet.extract(type, requested);
+        if (collectedAmount > 0) {
+            // Many miners may feed one inventory at once, so use the striped credit path
+            inventory.creditResource(type, collectedAmount);
+        }
+        System.out.println(player.getName() + " collected " + collectedAmount + " " + type + " from " + planet.getName()
+                + " (" + planet.getDeposit(type) + " left)");
+        return collectedAmount;
+    }
+}
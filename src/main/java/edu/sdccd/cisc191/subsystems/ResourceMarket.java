@@ -0,0 +1,141 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+    /*
+     * Features added:
+     * Exchange with one limit order book per resource, priced in Credits
+     * Orders escrow their Credits or resources up front, so settlement can never bounce
+     * Partial fills, cancels with refunds, and price improvement refunds for buyers
+     * Submission is lock-free; each book is matched by a single drainer on the matcher pool
+     */
+
+// Resource market where players trade resources for Credits
+public class ResourceMarket {
+    private final OrderBook[] books;   // by ResourceType ordinal; Credits has no book
+    private final AtomicLong nextOrderId = new AtomicLong();
+    private final ExecutorService matcherPool;   // null when the caller supplied the executor
+
+    public ResourceMarket() {
+        this(Executors.newFixedThreadPool(
+                Math.min(ResourceType.count() - 1, Runtime.getRuntime().availableProcessors()), r -> {
+                    Thread thread = new Thread(r, "market-matcher");
+                    thread.setDaemon(true);
+                    return thread;
+                }), true);
+    }
+
+    /*
+     * Creates a market whose books drain on the given executor
+     * A direct executor (Runnable::run) makes whichever submitter wins a book's drain flag do the matching
+     * @param executor Runs book drains; each book still has at most one drain at a time
+     */
+    public ResourceMarket(Executor executor) {
+        this(executor, false);
+    }
+
+    private ResourceMarket(Executor executor, boolean owned) {
+        this.matcherPool = owned ? (ExecutorService) executor : null;
+        books = new OrderBook[ResourceType.count()];
+        for (ResourceType type : ResourceType.values()) {
+            if (type != ResourceType.CREDITS) {
+                books[type.ordinal()] = new OrderBook(type, executor);
+            }
+        }
+    }
+
+    /*
+     * Places a limit order to buy, escrowing price x quantity Credits
+     * @return The order, or null if the trader can't cover it
+     */
+    public Order placeBuyOrder(PlayerInventory trader, ResourceType resource, int price, int quantity) {
+        return place(trader, resource, Order.Side.BUY, price, quantity);
+    }
+
+    /*
+     * Places a limit order to sell, escrowing the resources being sold
+     * @return The order, or null if the trader doesn't hold enough
+     */
+    public Order placeSellOrder(PlayerInventory trader, ResourceType resource, int price, int quantity) {
+        return place(trader, resource, Order.Side.SELL, price, quantity);
+    }
+
+    private Order place(PlayerInventory trader, ResourceType resource, Order.Side side, int price, int quantity) {
+        OrderBook book = bookFor(resource);
+        if (price <= 0 || quantity <= 0) {
+            throw new IllegalArgumentException("Price and quantity must be positive: " + quantity + " @ " + price);
+        }
+        boolean escrowed = side == Order.Side.BUY
+                ? trader.useResource(ResourceType.CREDITS, Math.multiplyExact(price, quantity))
+                : trader.useResource(resource, quantity);
+        if (!escrowed) {
+            return null;
+        }
+        Order order = new Order(nextOrderId.incrementAndGet(), Order.Venue.ORDER_BOOK, trader, resource, side, price, quantity);
+        book.submit(() -> book.match(order));
+        return order;
+    }
+
+    /*
+     * Cancels whatever is left of an order and refunds its escrow
+     * Runs asynchronously; an order that fills first stays filled
+     */
+    public void cancelOrder(Order order) {
+        OrderBook book = bookFor(order.getResource());
+        book.submit(() -> book.cancel(order));
+    }
+
+    /*
+     * Waits until every command submitted before this call has been matched
+     */
+    public void flush() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(books.length - 1);
+        for (OrderBook book : books) {
+            if (book != null) {
+                book.submit(done::countDown);
+            }
+        }
+        done.await();
+    }
+
+    public int getBestBid(ResourceType resource) {
+        return bookFor(resource).getBestBid();
+    }
+
+    public int getBestAsk(ResourceType resource) {
+        return bookFor(resource).getBestAsk();
+    }
+
+    public int getLastTradePrice(ResourceType resource) {
+        return bookFor(resource).getLastTradePrice();
+    }
+
+    public long getTradeCount(ResourceType resource) {
+        return bookFor(resource).getTradeCount();
+    }
+
+    public long getTradedVolume(ResourceType resource) {
+        return bookFor(resource).getTradedVolume();
+    }
+
+    private OrderBook bookFor(ResourceType resource) {
+        OrderBook book = books[resource.ordinal()];
+        if (book == null) {
+            throw new IllegalArgumentException(resource + " is the market currency and can't be traded");
+        }
+        return book;
+    }
+
+    public void shutdown() {
+        if (matcherPool != null) {
+            matcherPool.shutdown();
+        }
+    }
+}
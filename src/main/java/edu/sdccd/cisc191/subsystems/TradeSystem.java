@@ -1,24 +1,138 @@
 package edu.sdccd.cisc191.subsystems;
 
 import edu.sdccd.cisc191.game.Player;
+import edu.sdccd.cisc191.game.PlayerInventory;
 import edu.sdccd.cisc191.game.Resource;
+import edu.sdccd.cisc191.game.ResourceCost;
+import edu.sdccd.cisc191.game.ResourceType;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+    /*
+     * Features added:
+     * Resource market with a limit order book per resource (see ResourceMarket)
+     * Call auction mode: orders collect during a tick and clear at one price (see BatchAuction)
+     * Direct swaps between two inventories with no shared lock, so unrelated trades run in parallel
+     */
 
 public class TradeSystem {
-    private final Lock lock = new ReentrantLock();
+    public enum TradingMode {
+        CONTINUOUS,     // orders match as soon as they arrive
+        CALL_AUCTION    // orders wait for the next tick and clear together
+    }
 
-    public void tradeResources(Player player1, Player player2, Resource resource) {
-        lock.lock();
-        try {
-            System.out.println(player1.getName() + " is trading " + resource.getName() + " with " + player2.getName());
-            // Simulate trade logic
-            Thread.sleep(100); // Simulate time taken for trading
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } finally {
-            lock.unlock();
+    private final ResourceMarket market;
+    private final BatchAuction auction = new BatchAuction();
+    private volatile TradingMode mode = TradingMode.CONTINUOUS;
+
+    public TradeSystem() {
+        this(new ResourceMarket());
+    }
+
+    public TradeSystem(ResourceMarket market) {
+        this.market = market;
+    }
+
+    public ResourceMarket getMarket() {
+        return market;
+    }
+
+    public BatchAuction getAuction() {
+        return auction;
+    }
+
+    public TradingMode getMode() {
+        return mode;
+    }
+
+    /*
+     * Switches where new orders go; orders already placed stay where they are
+     * @param mode The trading mode for new orders
+     */
+    public void setMode(TradingMode mode) {
+        this.mode = mode;
+    }
+
+    /*
+     * Runs the per-tick call auction; call once per simulation tick
+     */
+    public void onTick() {
+        auction.clear();
+    }
+
+    /*
+     * Offers to buy a resource for Credits
+     * @param price Most Credits to pay per unit
+     * @return The order, or null if the player can't cover it
+     */
+    public Order buy(PlayerInventory inventory, ResourceType resource, int price, int quantity) {
+        return mode == TradingMode.CALL_AUCTION
+                ? auction.placeBuyOrder(inventory, resource, price, quantity)
+                : market.placeBuyOrder(inventory, resource, price, quantity);
+    }
+
+    /*
+     * Offers to sell a resource for Credits
+     * @param price Fewest Credits to accept per unit
+     * @return The order, or null if the player doesn't hold enough
+     */
+    public Order sell(PlayerInventory inventory, ResourceType resource, int price, int quantity) {
+        return mode == TradingMode.CALL_AUCTION
+                ? auction.placeSellOrder(inventory, resource, price, quantity)
+                : market.placeSellOrder(inventory, resource, price, quantity);
+    }
+
+    // Cancels an order in whichever venue holds it
+    public void cancel(Order order) {
+        if (order.getVenue() == Order.Venue.CALL_AUCTION) {
+            auction.cancelOrder(order);
+        } else {
+            market.cancelOrder(order);
+        }
+    }
+
+    /**
+     * Swaps resources directly between two inventories, all or nothing.
+     * Each side's payment is reserved with an atomic all-or-nothing debit; if the second reservation
+     * fails the first is credited back. A swap holds at most one inventory lock at a time, only while that
+     * inventory folds in striped credits to cover a debit, so two swaps can never deadlock, and
+     * swaps between different inventories never wait on each other.
+     * While a swap is in flight its reserved resources are briefly in neither inventory.
+     *
+     * @param first The first trader's inventory.
+     * @param firstGives What the first trader pays.
+     * @param second The second trader's inventory.
+     * @param secondGives What the second trader pays.
+     * @return true if both sides paid and received, false if either couldn't pay (nothing changes).
+     */
+    public boolean swapResources(PlayerInventory first, ResourceCost firstGives,
+                                 PlayerInventory second, ResourceCost secondGives) {
+        if (first == second) {
+            throw new IllegalArgumentException("An inventory can't trade with itself");
         }
+        if (!first.useResources(firstGives)) {
+            return false;
+        }
+        if (!second.useResources(secondGives)) {
+            first.addResources(firstGives);
+            return false;
+        }
+        second.addResources(firstGives);
+        first.addResources(secondGives);
+        return true;
+    }
+
+    /**
+     * Announces a trade between two players.
+     * Players don't own inventories yet, so nothing moves; this no longer takes a global lock or
+     * sleeps, so it can't hold up other trades.
+     *
+     * @deprecated Use swapResources with the players' inventories.
+     */
+    @Deprecated
+    public void tradeResources(Player player1, Player player2, Resource resource) {
+        System.out.println(player1.getName() + " is trading " + resource.getName() + " with " + player2.getName());
+    }
+
+    public void shutdown() {
+        market.shutdown();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.subsystems.BatchAuction;
+import edu.sdccd.cisc191.subsystems.Order;
+import edu.sdccd.cisc191.subsystems.TradeSystem;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchAuctionTest {
+
+    @Test
+    public void testClearsAtVolumeMaximizingPrice() {
+        BatchAuction auction = new BatchAuction();
+        PlayerInventory buyer = inventoryWith(1000, 0);
+        PlayerInventory seller = inventoryWith(0, 100);
+
+        Order bid12 = auction.placeBuyOrder(buyer, ResourceType.FUEL, 12, 10);
+        Order bid11 = auction.placeBuyOrder(buyer, ResourceType.FUEL, 11, 10);
+        Order bid10 = auction.placeBuyOrder(buyer, ResourceType.FUEL, 10, 10);
+        Order ask9 = auction.placeSellOrder(seller, ResourceType.FUEL, 9, 5);
+        Order ask10 = auction.placeSellOrder(seller, ResourceType.FUEL, 10, 10);
+        Order ask11 = auction.placeSellOrder(seller, ResourceType.FUEL, 11, 10);
+        Order ask13 = auction.placeSellOrder(seller, ResourceType.FUEL, 13, 10);
+        auction.clear();
+
+        // At 11: demand 20, supply 25, the most any price can trade
+        assertEquals(11, auction.getLastClearingPrice(ResourceType.FUEL));
+        assertEquals(20, auction.getLastClearedVolume(ResourceType.FUEL));
+        assertEquals(10, bid12.getFilled());
+        assertEquals(10, bid11.getFilled());
+        assertEquals(0, bid10.getFilled());
+        assertEquals(5, ask9.getFilled());
+        assertEquals(10, ask10.getFilled());
+        assertEquals(5, ask11.getFilled(), "The marginal offer fills partially");
+        assertEquals(0, ask13.getFilled());
+        assertTrue(bid10.isDone() && ask13.isDone(), "Orders only live for one auction");
+
+        // Everyone trades at 11; unfilled escrow comes back
+        assertEquals(20, buyer.getResourceAmount(ResourceType.FUEL));
+        assertEquals(1000 - 20 * 11, buyer.getResourceAmount(ResourceType.CREDITS));
+        assertEquals(20 * 11, seller.getResourceAmount(ResourceType.CREDITS));
+        assertEquals(80, seller.getResourceAmount(ResourceType.FUEL));
+    }
+
+    @Test
+    public void testWidePriceSpreadRanksCorrectly() {
+        BatchAuction auction = new BatchAuction();
+        PlayerInventory buyer = inventoryWith(2_000_000, 0);
+        PlayerInventory seller = inventoryWith(0, 10);
+
+        Order highBid = auction.placeBuyOrder(buyer, ResourceType.ENERGY, 1_000_000, 1);
+        Order lowBid = auction.placeBuyOrder(buyer, ResourceType.ENERGY, 10, 1);
+        Order lowAsk = auction.placeSellOrder(seller, ResourceType.ENERGY, 5, 1);
+        Order highAsk = auction.placeSellOrder(seller, ResourceType.ENERGY, 2_000_000, 1);
+        auction.clear();
+
+        // One unit trades at 5, 10 or 1,000,000; only 1,000,000 leaves no unmatched interest
+        assertEquals(1_000_000, auction.getLastClearingPrice(ResourceType.ENERGY));
+        assertEquals(1, highBid.getFilled());
+        assertEquals(0, lowBid.getFilled());
+        assertEquals(1, lowAsk.getFilled());
+        assertEquals(0, highAsk.getFilled());
+        assertEquals(1_000_000, buyer.getResourceAmount(ResourceType.CREDITS));
+    }
+
+    @Test
+    public void testTradeSystemRoutesToAuctionAndCancels() {
+        TradeSystem tradeSystem = new TradeSystem();
+        tradeSystem.setMode(TradeSystem.TradingMode.CALL_AUCTION);
+        PlayerInventory buyer = inventoryWith(100, 0);
+        PlayerInventory seller = inventoryWith(0, 10);
+
+        Order bid = tradeSystem.buy(buyer, ResourceType.ENERGY, 5, 10);
+        Order ask = tradeSystem.sell(seller, ResourceType.ENERGY, 5, 10);
+        tradeSystem.cancel(ask);
+        assertEquals(Order.Status.PENDING, bid.getStatus(), "Nothing clears until the tick");
+
+        tradeSystem.onTick();
+        assertEquals(Order.Status.CANCELLED, ask.getStatus());
+        assertEquals(0, bid.getFilled(), "The only offer was withdrawn");
+        assertEquals(100, buyer.getResourceAmount(ResourceType.CREDITS));
+        assertEquals(10, seller.getResourceAmount(ResourceType.ENERGY));
+        tradeSystem.shutdown();
+    }
+
+    @Test
+    public void testClearMillionOrders() {
+        int traders = 10_000;
+        BatchAuction auction = new BatchAuction();
+        PlayerInventory[] inventories = placeRandomOrders(auction, 1_000_000, traders);
+        auction.clear();
+
+        long credits = 0;
+        long minerals = 0;
+        for (PlayerInventory inventory : inventories) {
+            credits += inventory.getResourceAmount(ResourceType.CREDITS);
+            minerals += inventory.getResourceAmount(ResourceType.MINERALS);
+        }
+        assertEquals((long) traders * 10_000_000, credits, "Credits only change hands");
+        assertEquals((long) traders * 100_000, minerals, "Minerals only change hands");
+        assertTrue(auction.getLastClearedVolume(ResourceType.MINERALS) > 0);
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testMillionOrdersClearInsideOneTick() {
+        BatchAuction auction = new BatchAuction();
+        placeRandomOrders(auction, 1_000_000, 10_000);
+        long start = System.nanoTime();
+        auction.clear();
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed < 1_000_000_000L, "Clearing should fit well inside a one second tick, but took "
+                + elapsed / 1_000_000 + " ms");
+    }
+
+    // Random mineral bids and asks around 100 from well-stocked traders; returns the traders
+    private static PlayerInventory[] placeRandomOrders(BatchAuction auction, int orders, int traders) {
+        PlayerInventory[] inventories = new PlayerInventory[traders];
+        for (int i = 0; i < traders; i++) {
+            inventories[i] = inventoryWith(10_000_000, 100_000);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < orders; i++) {
+            PlayerInventory trader = inventories[random.nextInt(traders)];
+            int price = 90 + random.nextInt(21);
+            int quantity = 1 + random.nextInt(10);
+            Order order = random.nextBoolean()
+                    ? auction.placeBuyOrder(trader, ResourceType.MINERALS, price, quantity)
+                    : auction.placeSellOrder(trader, ResourceType.MINERALS, price, quantity);
+            assertNotNull(order);
+        }
+        return inventories;
+    }
+
+    private static PlayerInventory inventoryWith(int credits, int resource) {
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.CREDITS, credits);
+        inventory.addResource(ResourceType.FUEL, resource);
+        inventory.addResource(ResourceType.ENERGY, resource);
+        inventory.addResource(ResourceType.MINERALS, resource);
+        return inventory;
+    }
+}
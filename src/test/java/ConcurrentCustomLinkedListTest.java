@@ -0,0 +1,207 @@
+import edu.sdccd.cisc191.subsystems.ConcurrentCustomLinkedList;
+import edu.sdccd.cisc191.subsystems.CustomLinkedList;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ConcurrentCustomLinkedListTest {
+
+    @Test
+    public void testGetRemoveAndClear() {
+        ConcurrentCustomLinkedList<String> list = new ConcurrentCustomLinkedList<>();
+        for (String ship : new String[]{"Fighter", "Cruiser", "Battleship", "Scout"}) {
+            list.add(ship);
+        }
+        assertEquals("Battleship", list.get(2));
+        assertEquals("Cruiser", list.removeAt(1));
+        assertEquals("Scout", list.removeAt(2), "The last node is removed even though it stays linked");
+        assertEquals(List.of("Fighter", "Battleship"), list.toList());
+        assertEquals(2, list.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.removeAt(-1));
+        assertThrows(NullPointerException.class, () -> list.add(null));
+
+        list.add("Carrier");
+        assertEquals(List.of("Fighter", "Battleship", "Carrier"), list.stream().toList());
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertFalse(list.iterator().hasNext());
+        list.add("Frigate");
+        assertEquals(List.of("Frigate"), list.toList(), "Appends after clear land on the kept last node");
+    }
+
+    @Test
+    public void testConcurrentAppendsKeepEveryItemInPerThreadOrder() throws InterruptedException {
+        int writers = 8;
+        int perWriter = 50_000;
+        ConcurrentCustomLinkedList<Long> list = new ConcurrentCustomLinkedList<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicLong readerPasses = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Readers walk the list the whole time and must never fail or see an item twice
+        List<Thread> readers = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    start.await();
+                    while (writing.get()) {
+                        Set<Long> seen = new HashSet<>();
+                        for (Long item : list) {
+                            assertTrue(seen.add(item), "Seen twice: " + item);
+                        }
+                        readerPasses.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    synchronized (failures) {
+                        failures.add(t);
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        Thread[] threads = new Thread[writers];
+        for (int w = 0; w < writers; w++) {
+            long base = (long) w * perWriter;
+            threads[w] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perWriter; i++) {
+                    list.add(base + i);
+                }
+            });
+            threads[w].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.isEmpty(), "Reader failed: " + failures);
+        assertTrue(readerPasses.get() > 0);
+        assertEquals(writers * perWriter, list.size());
+        long[] lastPerWriter = new long[writers];
+        Arrays.fill(lastPerWriter, -1);
+        int count = 0;
+        for (Long item : list) {
+            int writer = (int) (item / perWriter);
+            assertTrue(item > lastPerWriter[writer], "Each writer's items stay in the order it added them");
+            lastPerWriter[writer] = item;
+            count++;
+        }
+        assertEquals(writers * perWriter, count);
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testAppendsDontWaitForIteratingReaders() throws InterruptedException {
+        assumeTrue(Runtime.getRuntime().availableProcessors() >= 2, "Readers and writers need CPUs of their own");
+        int writers = 4;
+        int perWriter = 250_000;
+
+        // Warm up both, then time appends while two readers iterate the whole time
+        for (int i = 0; i < 2; i++) {
+            runLockFree(writers, perWriter / 10);
+            runLocked(writers, perWriter / 10);
+        }
+        long[] lockFree = runLockFree(writers, perWriter);
+        long[] locked = runLocked(writers, perWriter);
+        // A locked append can wait out a whole iteration; a lock-free one never waits on a reader
+        assertTrue(lockFree[1] < locked[1], writers + " writers x " + perWriter + " appends with 2 readers iterating: "
+                + "lock-free " + lockFree[0] + " ms, longest append " + lockFree[1] + " us; synchronized CustomLinkedList "
+                + locked[0] + " ms, longest append " + locked[1] + " us");
+    }
+
+    private static long[] runLockFree(int writers, int perWriter) throws InterruptedException {
+        ConcurrentCustomLinkedList<Integer> list = new ConcurrentCustomLinkedList<>();
+        long[] result = race(writers, perWriter, list::add, () -> {
+            long sum = 0;
+            for (Integer item : list) {
+                sum += item;
+            }
+            return sum;
+        });
+        assertEquals(writers * perWriter, list.size());
+        return result;
+    }
+
+    private static long[] runLocked(int writers, int perWriter) throws InterruptedException {
+        CustomLinkedList<Integer> list = new CustomLinkedList<>();
+        long[] result = race(writers, perWriter, item -> {
+            synchronized (list) {
+                list.add(item);
+            }
+        }, () -> {
+            long sum = 0;
+            synchronized (list) {
+                for (Integer item : list) {
+                    sum += item;
+                }
+            }
+            return sum;
+        });
+        assertEquals(writers * perWriter, list.size());
+        return result;
+    }
+
+    // Returns {milliseconds until every append finished, longest single append in microseconds}
+    private static long[] race(int writers, int perWriter, Consumer<Integer> append, LongSupplier read)
+            throws InterruptedException {
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicLong longestAppend = new AtomicLong();
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                while (writing.get()) {
+                    read.getAsLong();
+                }
+            });
+            readers[r].start();
+        }
+        Thread[] threads = new Thread[writers];
+        long begin = System.nanoTime();
+        for (int w = 0; w < writers; w++) {
+            threads[w] = new Thread(() -> {
+                long longest = 0;
+                for (int i = 0; i < perWriter; i++) {
+                    long start = System.nanoTime();
+                    append.accept(i);
+                    longest = Math.max(longest, System.nanoTime() - start);
+                }
+                longestAppend.accumulateAndGet(longest, Math::max);
+            });
+            threads[w].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        return new long[]{millis, longestAppend.get() / 1_000};
+    }
+}
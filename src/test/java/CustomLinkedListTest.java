@@ -0,0 +1,177 @@
+import edu.sdccd.cisc191.subsystems.CustomLinkedList;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomLinkedListTest {
+
+    private static CustomLinkedList<Integer> listOf(int count) {
+        CustomLinkedList<Integer> list = new CustomLinkedList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Test
+    public void testIterationSizeAndRemovalAcrossNodes() {
+        CustomLinkedList<Integer> list = listOf(1_000);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            expected.add(i);
+        }
+        assertEquals(1_000, list.size());
+
+        // Remove from the front, the middle of a node, node edges and the end
+        int[] removals = {0, 63, 63, 500, 200, 994, 1};
+        for (int index : removals) {
+            assertEquals(expected.remove(index), list.removeAt(index));
+        }
+        // Empty out whole nodes so they get unlinked or folded together
+        for (int i = 0; i < 150; i++) {
+            assertEquals(expected.remove(100), list.removeAt(100));
+        }
+        List<Integer> iterated = new ArrayList<>();
+        for (Integer item : list) {
+            iterated.add(item);
+        }
+        assertEquals(expected, iterated);
+        assertEquals(expected, list.toList());
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected.get(321), list.get(321));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(list.size()));
+
+        while (!list.isEmpty()) {
+            list.removeAt(list.size() - 1);
+        }
+        assertFalse(list.iterator().hasNext());
+        list.add(7);
+        assertEquals(List.of(7), list.toList(), "The list is usable again after being emptied");
+    }
+
+    @Test
+    public void testIteratorFailsFastOnChange() {
+        CustomLinkedList<Integer> list = listOf(10);
+        Iterator<Integer> iterator = list.iterator();
+        iterator.next();
+        list.add(10);
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+
+        assertThrows(ConcurrentModificationException.class, () -> {
+            for (Integer item : list) {
+                if (item == 3) {
+                    list.removeAt(0);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testParallelStreamSeesEveryItemOnce() {
+        for (int count : new int[]{0, 1, 64, 65, 130, 10_007}) {
+            CustomLinkedList<Integer> list = listOf(count);
+            if (count > 0) {
+                list.removeAt(count / 2); // leaves one node partly filled
+            }
+            List<Integer> expected = list.toList();
+            assertEquals(expected, list.parallelStream().collect(Collectors.toList()), "Size " + count);
+            assertEquals(expected.stream().mapToLong(Integer::longValue).sum(),
+                    list.parallelStream().mapToLong(Integer::longValue).sum());
+        }
+
+        Spliterator<Integer> whole = listOf(1_000).spliterator();
+        Spliterator<Integer> firstHalf = whole.trySplit();
+        assertEquals(500, firstHalf.estimateSize());
+        assertEquals(500, whole.estimateSize());
+        assertTrue(whole.hasCharacteristics(Spliterator.SUBSIZED));
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testBenchmarkAgainstArrayListAndLinkedList() {
+        int count = 1_000_000;
+        int rounds = 10;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            run(count, 1, i -> new ArrayList<>(), false);
+            run(count, 1, i -> new LinkedList<>(), false);
+            runCustom(count, 1, false);
+        }
+        long[] arrayList = run(count, rounds, i -> new ArrayList<>(), true);
+        long[] linkedList = run(count, rounds, i -> new LinkedList<>(), true);
+        long[] custom = runCustom(count, rounds, true);
+        String times = String.format("1M Integers x %d rounds (add / iterate / parallel sum, ms): ArrayList %d / %d / %d, "
+                        + "LinkedList %d / %d / %d, CustomLinkedList %d / %d / %d", rounds,
+                arrayList[0], arrayList[1], arrayList[2], linkedList[0], linkedList[1], linkedList[2],
+                custom[0], custom[1], custom[2]);
+        // Array-backed nodes allocate and chase far fewer pointers than one node per element
+        assertTrue(custom[0] < linkedList[0], "Appends should beat LinkedList: " + times);
+        assertTrue(custom[1] < linkedList[1], "Iteration should beat LinkedList: " + times);
+    }
+
+    private static long[] run(int count, int rounds, IntFunction<List<Integer>> factory, boolean check) {
+        long[] millis = new long[3];
+        for (int round = 0; round < rounds; round++) {
+            long begin = System.nanoTime();
+            List<Integer> list = factory.apply(count);
+            for (int i = 0; i < count; i++) {
+                list.add(i);
+            }
+            millis[0] += System.nanoTime() - begin;
+            begin = System.nanoTime();
+            long sum = 0;
+            for (Integer item : list) {
+                sum += item;
+            }
+            millis[1] += System.nanoTime() - begin;
+            begin = System.nanoTime();
+            long parallelSum = list.parallelStream().mapToLong(Integer::longValue).sum();
+            millis[2] += System.nanoTime() - begin;
+            if (check) {
+                assertEquals(sum, parallelSum);
+            }
+        }
+        for (int i = 0; i < millis.length; i++) {
+            millis[i] /= 1_000_000;
+        }
+        return millis;
+    }
+
+    private static long[] runCustom(int count, int rounds, boolean check) {
+        long[] millis = new long[3];
+        for (int round = 0; round < rounds; round++) {
+            long begin = System.nanoTime();
+            CustomLinkedList<Integer> list = new CustomLinkedList<>();
+            for (int i = 0; i < count; i++) {
+                list.add(i);
+            }
+            millis[0] += System.nanoTime() - begin;
+            begin = System.nanoTime();
+            long sum = 0;
+            for (Integer item : list) {
+                sum += item;
+            }
+            millis[1] += System.nanoTime() - begin;
+            begin = System.nanoTime();
+            long parallelSum = list.parallelStream().mapToLong(Integer::longValue).sum();
+            millis[2] += System.nanoTime() - begin;
+            if (check) {
+                assertEquals(sum, parallelSum);
+                assertEquals(count, list.size());
+            }
+        }
+        for (int i = 0; i < millis.length; i++) {
+            millis[i] /= 1_000_000;
+        }
+        return millis;
+    }
+}
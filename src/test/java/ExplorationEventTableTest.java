@@ -0,0 +1,69 @@
+import edu.sdccd.cisc191.game.Planet;
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.subsystems.AliasTable;
+import edu.sdccd.cisc191.subsystems.ExplorationEvent;
+import edu.sdccd.cisc191.subsystems.ExplorationEventTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExplorationEventTableTest {
+
+    @Test
+    public void testAliasTableMatchesWeights() {
+        double[] weights = {1, 2, 3, 0, 4};
+        AliasTable table = new AliasTable(weights);
+        Random random = new Random(42);
+
+        int draws = 1_000_000;
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < draws; i++) {
+            counts[table.sample(random)]++;
+        }
+
+        assertEquals(0, counts[3], "Zero-weight outcomes should never be drawn");
+        for (int i = 0; i < weights.length; i++) {
+            double expected = weights[i] / 10.0;
+            assertEquals(expected, counts[i] / (double) draws, 0.005, "Frequency of outcome " + i);
+        }
+    }
+
+    @Test
+    public void testAliasTableRejectsInvalidWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, -1}));
+    }
+
+    @Test
+    public void testParseTablePerPlanetType() throws IOException {
+        String csv = "# comment\n"
+                + "GAS_GIANT,RESOURCES,1,Fuel:15;Energy:5\n"
+                + "GAS_GIANT,ENEMY,0,Ghost,1,1\n"
+                + "GAS_GIANT,NOT_AN_EVENT,1\n";
+        ExplorationEventTable table = ExplorationEventTable.parse(new StringReader(csv));
+
+        ExplorationEvent[] gasGiant = table.getEvents(Planet.PlanetType.GAS_GIANT);
+        assertEquals(1, gasGiant.length, "Zero-weight and malformed rows should be dropped");
+        assertEquals(ExplorationEvent.Kind.RESOURCES, gasGiant[0].getKind());
+        assertEquals(ResourceType.ENERGY, gasGiant[0].getResourceType(1));
+        assertEquals(5, gasGiant[0].getResourceAmount(1));
+        assertSame(gasGiant[0], table.sample(Planet.PlanetType.GAS_GIANT, new Random(1)));
+
+        // Planet types without rows fall back to the three built-in events
+        assertEquals(3, table.getEvents(Planet.PlanetType.TERRESTRIAL).length);
+    }
+
+    @Test
+    public void testDefaultResourceCoversEveryPlanetType() {
+        ExplorationEventTable table = ExplorationEventTable.getDefault();
+        for (Planet.PlanetType type : Planet.PlanetType.values()) {
+            assertTrue(table.getEvents(type).length > 0, "Missing events for " + type);
+        }
+        assertEquals(4, table.getEvents(Planet.PlanetType.GALAXY).length);
+    }
+}
@@ -0,0 +1,109 @@
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.Planet;
+import edu.sdccd.cisc191.game.Player;
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.subsystems.ExplorationSystem;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ExplorationSystemStressTest {
+
+    private static final int PLAYERS = 2000;
+    private static final int EXPLORATIONS_PER_PLAYER = 20;
+
+    @Test
+    public void testManyPlayersExploreConcurrently() throws InterruptedException {
+        runStress(200, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testThroughputScalesWithThreads() throws InterruptedException {
+        int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        assumeTrue(threads >= 2, "Scaling needs more than one CPU");
+        // Explorations log every result; the shared stream's lock would serialize the threads being measured
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long singleThreaded;
+        long multiThreaded;
+        try {
+            runStress(PLAYERS, 1); // warm-up
+            singleThreaded = runStress(PLAYERS, 1);
+            multiThreaded = runStress(PLAYERS, threads);
+        } finally {
+            System.setOut(originalOut);
+        }
+        double speedup = (double) singleThreaded / Math.max(1, multiThreaded);
+        assertTrue(speedup >= threads * 0.6, "Players don't share locks, so " + threads
+                + " threads should be close to " + threads + "x faster, not " + speedup + "x");
+    }
+
+    // Runs every player's explorations on the given number of threads and returns the elapsed nanos
+    private long runStress(int playerCount, int threads) throws InterruptedException {
+        ExplorationSystem explorationSystem = new ExplorationSystem();
+        Player[] players = new Player[playerCount];
+        PlayerInventory[] inventories = new PlayerInventory[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            players[i] = new Player("Player " + i);
+            // Ships that can't be beaten keep the fleet stable while combat runs in the background
+            players[i].addShip(new GalacticShip("Ship " + i, Integer.MAX_VALUE, 1000));
+            inventories[i] = new PlayerInventory();
+        }
+        long createdMillis = System.currentTimeMillis();
+        Planet planet = new Planet("Mars", Planet.PlanetType.TERRESTRIAL, createdMillis);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(playerCount * EXPLORATIONS_PER_PLAYER);
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int round = 0; round < EXPLORATIONS_PER_PLAYER; round++) {
+            for (int i = 0; i < playerCount; i++) {
+                Player player = players[i];
+                PlayerInventory inventory = inventories[i];
+                executor.execute(() -> {
+                    try {
+                        explorationSystem.explorePlanet(player, planet, inventory);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS), "All explorations should finish");
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        explorationSystem.shutdown();
+
+        assertEquals(0, failures.get(), "No exploration should throw");
+        // Every player mines the same planet, so together they can never take more than it held
+        // plus what it regenerated, whatever the interleaving
+        long endMillis = System.currentTimeMillis();
+        for (ResourceType type : new ResourceType[]{ResourceType.FUEL, ResourceType.MINERALS}) {
+            long mined = 0;
+            for (PlayerInventory inventory : inventories) {
+                mined += inventory.getResourceAmount(type);
+            }
+            long available = planet.getType().getCapacity(type)
+                    + planet.getType().getRegenPerSecond(type) * (endMillis - createdMillis) / 1000;
+            assertTrue(mined > 0, "Some " + type + " should have been found");
+            assertTrue(mined + planet.getDeposit(type, endMillis) <= available,
+                    type + " mined plus remaining must not exceed what the planet produced");
+        }
+        return elapsed;
+    }
+}
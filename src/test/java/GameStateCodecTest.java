@@ -0,0 +1,187 @@
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.GameBoard;
+import edu.sdccd.cisc191.game.GameStateCodec;
+import edu.sdccd.cisc191.game.Player;
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.Resource;
+import edu.sdccd.cisc191.game.ResourceType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateCodecTest {
+
+    private static Player samplePlayer(int ships) {
+        Player player = new Player("Commander");
+        for (int i = 0; i < ships; i++) {
+            GalacticShip ship = new GalacticShip("Ship-" + i, 100 + i % 200, 20 + i % 40);
+            ship.takeDamage(i % 50);
+            if (i % 3 == 0) {
+                ship.addCombatAbility(GalacticShip.CombatAbility.LASER_CANNON);
+            }
+            player.addShip(ship);
+        }
+        return player;
+    }
+
+    @Test
+    public void testRoundTrips() {
+        GalacticShip ship = new GalacticShip("Cruiser", 200, 40);
+        ship.takeDamage(75);
+        ship.addCombatAbility(GalacticShip.CombatAbility.SHIELD_GENERATOR);
+        ship.addCombatAbility(GalacticShip.CombatAbility.REPAIR_DRONES);
+        GalacticShip decodedShip = GameStateCodec.readShip(ByteBuffer.wrap(GameStateCodec.toBytes(ship, GameStateCodec::writeShip)));
+        assertEquals(ship, decodedShip);
+        assertEquals(200, decodedShip.getMaxHealth(), "Damage must not lower max health");
+
+        Player player = samplePlayer(50);
+        assertEquals(player, GameStateCodec.readPlayer(ByteBuffer.wrap(GameStateCodec.toBytes(player, GameStateCodec::writePlayer))));
+
+        GameBoard board = new GameBoard();
+        board.placePlanet(1, 3, 7);
+        board.setResourceCost(4, 0, 9);
+        GameBoard decodedBoard = GameStateCodec.readBoard(ByteBuffer.wrap(GameStateCodec.toBytes(board, GameStateCodec::writeBoard)));
+        assertEquals(7, decodedBoard.getPlanetId(1, 3));
+        assertEquals(9, decodedBoard.getResourceCost(4, 0));
+        assertEquals(1, decodedBoard.getResourceCost(0, 0));
+
+        Resource resource = new Resource("Fuel");
+        resource.accumulate(42);
+        Resource decodedResource = GameStateCodec.readResource(ByteBuffer.wrap(GameStateCodec.toBytes(resource, GameStateCodec::writeResource)));
+        assertEquals("Fuel", decodedResource.getName());
+        assertEquals(42, decodedResource.getAmount());
+
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.DILITHIUM, 12);
+        inventory.creditResource(ResourceType.CREDITS, 500);
+        PlayerInventory decodedInventory = GameStateCodec.readInventory(ByteBuffer.wrap(GameStateCodec.toBytes(inventory, GameStateCodec::writeInventory)));
+        assertEquals(12, decodedInventory.getResourceAmount(ResourceType.DILITHIUM));
+        assertEquals(500, decodedInventory.getResourceAmount(ResourceType.CREDITS));
+    }
+
+    @Test
+    public void testRecordsWrittenByNewerVersionSkipUnknownFields() {
+        GalacticShip ship = new GalacticShip("Fighter", 100, 20);
+        byte[] current = GameStateCodec.toBytes(ship, GameStateCodec::writeShip);
+
+        // A future writer: version 2 with an extra field appended, followed by the next record
+        int header = Short.BYTES + Integer.BYTES;
+        ByteBuffer future = ByteBuffer.allocate(current.length * 2 + Integer.BYTES);
+        future.putShort((short) 2).putInt(current.length - header + Integer.BYTES);
+        future.put(current, header, current.length - header).putInt(0xCAFE);
+        future.put(current).flip();
+
+        assertEquals(ship, GameStateCodec.readShip(future));
+        assertEquals(ship, GameStateCodec.readShip(future), "The reader must land on the next record");
+        assertFalse(future.hasRemaining());
+    }
+
+    @Test
+    public void testRecordsWrittenByOlderVersionDefaultMissingFields() {
+        // An older writer with no abilities field: name, health, max health, attack only
+        byte[] name = "Scout".getBytes();
+        ByteBuffer old = ByteBuffer.allocate(64);
+        old.putShort((short) 1).putInt(Integer.BYTES + name.length + 3 * Integer.BYTES);
+        old.putInt(name.length).put(name).putInt(80).putInt(90).putInt(10).flip();
+
+        GalacticShip ship = GameStateCodec.readShip(old);
+        assertEquals("Scout", ship.getName());
+        assertEquals(80, ship.getHealth());
+        assertEquals(90, ship.getMaxHealth());
+        assertTrue(ship.getCombatAbilities().isEmpty());
+
+        // An inventory saved when there were fewer resource types
+        ByteBuffer inventory = ByteBuffer.allocate(32);
+        inventory.putShort((short) 1).putInt(3 * Integer.BYTES).putInt(2).putInt(5).putInt(6).flip();
+        PlayerInventory decoded = GameStateCodec.readInventory(inventory);
+        assertEquals(5, decoded.getResourceAmount(ResourceType.DILITHIUM));
+        assertEquals(6, decoded.getResourceAmount(ResourceType.FUEL));
+        assertEquals(0, decoded.getResourceAmount(ResourceType.CREDITS));
+    }
+
+    @Test
+    public void testCorruptLengthIsRejected() {
+        ByteBuffer corrupt = ByteBuffer.allocate(16);
+        corrupt.putShort((short) 1).putInt(1_000).flip();
+        assertThrows(IllegalArgumentException.class, () -> GameStateCodec.readShip(corrupt));
+    }
+
+    @Test
+    public void testSmallerThanJavaSerialization() throws IOException, ClassNotFoundException {
+        Player player = samplePlayer(10_000);
+        byte[] serialized = serialize(player);
+        byte[] encoded = GameStateCodec.toBytes(player, GameStateCodec::writePlayer);
+        assertEquals(player, deserialize(serialized));
+        assertEquals(player, GameStateCodec.readPlayer(ByteBuffer.wrap(encoded)));
+        assertTrue(encoded.length < serialized.length, "The codec should be smaller than Java serialization: "
+                + encoded.length + " bytes, OOS " + serialized.length);
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testFasterThanJavaSerialization() throws IOException, ClassNotFoundException {
+        Player player = samplePlayer(10_000);
+        int rounds = 10;
+
+        byte[] serialized = null;
+        byte[] encoded = null;
+        // Warm up both paths before timing
+        for (int i = 0; i < 3; i++) {
+            serialized = serialize(player);
+            deserialize(serialized);
+            encoded = GameStateCodec.toBytes(player, GameStateCodec::writePlayer);
+            GameStateCodec.readPlayer(ByteBuffer.wrap(encoded));
+        }
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            serialized = serialize(player);
+        }
+        long serializeNanos = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            deserialize(serialized);
+        }
+        long deserializeNanos = System.nanoTime() - begin;
+
+        ByteBuffer buffer = ByteBuffer.allocate(encoded.length);
+        begin = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            buffer.clear();
+            GameStateCodec.writePlayer(buffer, player);
+        }
+        long encodeNanos = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            GameStateCodec.readPlayer(ByteBuffer.wrap(encoded));
+        }
+        long decodeNanos = System.nanoTime() - begin;
+
+        assertTrue(encodeNanos < serializeNanos, "Encoding should beat ObjectOutputStream: "
+                + encodeNanos / 1_000_000 + " ms, OOS " + serializeNanos / 1_000_000 + " ms");
+        assertTrue(decodeNanos < deserializeNanos, "Decoding should beat ObjectInputStream: "
+                + decodeNanos / 1_000_000 + " ms, OIS " + deserializeNanos / 1_000_000 + " ms");
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
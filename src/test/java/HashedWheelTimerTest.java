@@ -0,0 +1,64 @@
+import edu.sdccd.cisc191.subsystems.HashedWheelTimer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedWheelTimerTest {
+
+    @Test
+    public void testTimeoutsRunAfterTheirDelay() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer("test-timer", 5, TimeUnit.MILLISECONDS, 64);
+        CountDownLatch ran = new CountDownLatch(1);
+        long start = System.nanoTime();
+        timer.schedule(ran::countDown, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis >= 95, "Ran after " + elapsedMillis + " ms, too early");
+        timer.stop();
+    }
+
+    @Test
+    public void testDelaysLongerThanOneRotation() throws InterruptedException {
+        // 16 buckets of 5 ms is one rotation every 80 ms, so this timeout waits several rounds
+        HashedWheelTimer timer = new HashedWheelTimer("test-timer", 5, TimeUnit.MILLISECONDS, 16);
+        CountDownLatch ran = new CountDownLatch(1);
+        long start = System.nanoTime();
+        timer.schedule(ran::countDown, 300, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 295);
+        timer.stop();
+    }
+
+    @Test
+    public void testCancelledTimeoutsNeverRun() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer("test-timer", 5, TimeUnit.MILLISECONDS, 64);
+        int count = 50_000;
+        AtomicInteger ran = new AtomicInteger();
+        CountDownLatch kept = new CountDownLatch(count / 2);
+        HashedWheelTimer.Timeout[] timeouts = new HashedWheelTimer.Timeout[count];
+        for (int i = 0; i < count; i++) {
+            timeouts[i] = timer.schedule(() -> {
+                ran.incrementAndGet();
+                kept.countDown();
+            }, 500 + i % 200, TimeUnit.MILLISECONDS);
+        }
+        for (int i = 0; i < count; i += 2) {
+            assertTrue(timeouts[i].cancel());
+            assertFalse(timeouts[i].cancel(), "A timeout can only be cancelled once");
+        }
+
+        assertTrue(kept.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100); // give any wrongly kept timeout time to fire
+        assertEquals(count / 2, ran.get());
+        assertEquals(0, timer.pendingTimeouts());
+        assertTrue(timeouts[1].isExpired());
+        assertFalse(timeouts[1].cancel(), "A timeout that already ran can't be cancelled");
+        timer.stop();
+    }
+}
@@ -0,0 +1,97 @@
+import edu.sdccd.cisc191.network.InterestGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InterestGridTest {
+
+    @Test
+    public void testMatchesBruteForceThroughRandomMoves() {
+        InterestGrid<Integer> grid = new InterestGrid<>(4);
+        int players = 200;
+        int[][] fleets = new int[players][3]; // row, col, range
+        Random random = new Random(3);
+        for (int p = 0; p < players; p++) {
+            fleets[p] = new int[]{random.nextInt(60) - 30, random.nextInt(60) - 30, random.nextInt(6)};
+            grid.subscribe(p, fleets[p][0], fleets[p][1], fleets[p][2]);
+        }
+        for (int round = 0; round < 2_000; round++) {
+            int p = random.nextInt(players);
+            if (random.nextInt(20) == 0) {
+                grid.unsubscribe(p);
+                fleets[p] = null;
+            } else if (fleets[p] == null) {
+                fleets[p] = new int[]{random.nextInt(60) - 30, random.nextInt(60) - 30, random.nextInt(6)};
+                grid.subscribe(p, fleets[p][0], fleets[p][1], fleets[p][2]);
+            } else {
+                fleets[p][0] += random.nextInt(3) - 1;
+                fleets[p][1] += random.nextInt(3) - 1;
+                assertTrue(grid.move(p, fleets[p][0], fleets[p][1]));
+            }
+
+            int row = random.nextInt(70) - 35;
+            int col = random.nextInt(70) - 35;
+            Set<Integer> expected = new HashSet<>();
+            for (int q = 0; q < players; q++) {
+                if (fleets[q] != null && Math.abs(fleets[q][0] - row) <= fleets[q][2] && Math.abs(fleets[q][1] - col) <= fleets[q][2]) {
+                    expected.add(q);
+                }
+            }
+            Set<Integer> actual = new HashSet<>();
+            assertEquals(expected.size(), grid.forEachInterested(row, col, actual::add));
+            assertEquals(expected, actual, "Event at " + row + "," + col);
+        }
+        assertFalse(grid.move(-1, 0, 0), "Unknown subscribers can't move");
+    }
+
+    @Test
+    public void testSmallMovesOnlyTouchCellsAtTheEdge() {
+        InterestGrid<String> grid = new InterestGrid<>(3);
+        grid.subscribe("nova", 1, 1, 3); // rows and columns -2..4: grid cells -1..1, 9 cells
+        assertEquals(9, grid.getCellUpdateCount());
+        grid.move("nova", 1, 2); // columns -1..5: still grid cells -1..1
+        assertEquals(9, grid.getCellUpdateCount(), "Staying inside the same cells changes no lists");
+        grid.move("nova", 1, 3); // columns 0..6: grid cells 0..2
+        assertEquals(9 + 3 + 3, grid.getCellUpdateCount(), "One column of cells joined, one left");
+        grid.unsubscribe("nova");
+        assertEquals(0, grid.forEachInterested(1, 3, s -> fail("Unsubscribed")));
+        assertEquals(0, grid.size());
+    }
+
+    @Test
+    public void testFanOutFollowsDensityNotPlayerCount() {
+        int range = 3;
+        int events = 100_000;
+        int[] playerCounts = {1_000, 10_000, 100_000};
+        double[] recipients = new double[playerCounts.length];
+        for (int i = 0; i < playerCounts.length; i++) {
+            // The board grows with the player count, about one fleet per 10 cells
+            int side = (int) Math.sqrt(playerCounts[i] * 10.0);
+            InterestGrid<Integer> grid = new InterestGrid<>(range);
+            Random random = new Random(5);
+            for (int p = 0; p < playerCounts[i]; p++) {
+                grid.subscribe(p, random.nextInt(side), random.nextInt(side), range);
+            }
+            List<int[]> spots = new ArrayList<>();
+            for (int e = 0; e < 1024; e++) {
+                spots.add(new int[]{random.nextInt(side), random.nextInt(side)});
+            }
+            long[] sink = new long[1];
+            long delivered = 0;
+            for (int e = 0; e < events; e++) {
+                int[] spot = spots.get(e & 1023);
+                delivered += grid.forEachInterested(spot[0], spot[1], p -> sink[0] += p);
+            }
+            recipients[i] = (double) delivered / events;
+        }
+        assertTrue(recipients[2] < recipients[0] * 1.5, "Recipients per event depend on density, not on player count: "
+                + recipients[0] + " with 1k players, " + recipients[2] + " with 100k");
+        assertTrue(recipients[2] < 20, "An event reaches a handful of nearby fleets");
+    }
+}
@@ -0,0 +1,37 @@
+import edu.sdccd.cisc191.network.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99));
+        Random random = new Random(1);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal, like real latencies: mostly tens of microseconds with a long tail
+            values[i] = (long) Math.exp(10 + random.nextGaussian());
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.percentile(percentile);
+            assertTrue(estimate >= exact && estimate <= exact * 1.04, percentile + ": " + estimate + " vs " + exact);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values[values.length - 1], histogram.percentile(100));
+
+        LatencyHistogram combined = new LatencyHistogram();
+        combined.record(5);
+        combined.add(histogram);
+        assertEquals(values.length + 1, combined.getCount());
+        assertEquals(5, combined.percentile(0.0001), "Small values get exact buckets");
+    }
+}
@@ -0,0 +1,216 @@
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.network.BotDriver;
+import edu.sdccd.cisc191.network.MultiplayerClient;
+import edu.sdccd.cisc191.network.NioMultiplayerServer;
+import edu.sdccd.cisc191.network.StateSync;
+import edu.sdccd.cisc191.network.WireProtocol;
+import edu.sdccd.cisc191.network.WorldState;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiplayerClientTest {
+
+    @Test
+    public void testScriptedBotsReachEachOtherAndGetState() throws Exception {
+        WorldState world = new WorldState();
+        world.setShipHealth(1, 100);
+        try (NioMultiplayerServer server = new NioMultiplayerServer(0, 1)) {
+            server.enableStateSync(world, 20, StateSync.DEFAULT_MAX_ENTRIES);
+            server.start();
+            try (MultiplayerClient client = new MultiplayerClient("127.0.0.1", server.getPort())) {
+                List<String> heard = new CopyOnWriteArrayList<>();
+                client.setListener((session, frame) -> {
+                    if (frame.type() != WireProtocol.MessageType.STATE_UPDATE) {
+                        heard.add(session.getId() + ": " + frame);
+                    }
+                });
+                client.start();
+                MultiplayerClient.Session nova = client.connect();
+                MultiplayerClient.Session orion = client.connect();
+                nova.join("p-1", "Nova");
+                long deadline = System.currentTimeMillis() + 5_000;
+                while (server.getPlayers().getPlayerData("p-1") == null && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertEquals("Nova", server.getPlayers().getPlayerData("p-1").getPlayerName());
+
+                nova.build("Fighter", 3);
+                nova.probe();
+                while (client.getLatency().getCount() == 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertEquals(1, client.getLatency().getCount(), "The probe came back to its sender");
+                String orionHeard = orion.getId() + ": BUILD 3 Fighter";
+                while (!heard.contains(orionHeard) && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertTrue(heard.contains(orionHeard), "Other players hear it too: " + heard);
+                assertEquals(0, orion.getProbesInFlight());
+                assertEquals(0, client.getProbesLost(), "Another session's probe is not this one's");
+            }
+        }
+    }
+
+    @Test
+    public void testClientsAreOnlySentFleetsInRange() throws Exception {
+        WorldState world = new WorldState();
+        try (NioMultiplayerServer server = new NioMultiplayerServer(0, 1)) {
+            server.enableStateSync(world, 10, StateSync.DEFAULT_MAX_ENTRIES);
+            server.start();
+            try (MultiplayerClient client = new MultiplayerClient("127.0.0.1", server.getPort())) {
+                Map<Integer, Map<Long, Integer>> views = new ConcurrentHashMap<>();
+                client.setListener((session, frame) -> {
+                    if (frame.type() == WireProtocol.MessageType.STATE_UPDATE) {
+                        views.put(session.getId(), Map.copyOf(session.getWorld()));
+                    }
+                });
+                client.start();
+                MultiplayerClient.Session nova = client.connect();
+                MultiplayerClient.Session orion = client.connect();
+                nova.move(0, 0);
+                orion.move(50, 50);
+                int novaShip = awaitOwnShip(views, nova, 0, 0);
+                int orionShip = awaitOwnShip(views, orion, 50, 50);
+                world.setShipHealth(orionShip, 70);
+                world.setInventory(orionShip, ResourceType.FUEL, 5);
+
+                orion.move(1, 1);
+                long orionHealth = WorldState.key(WorldState.Kind.SHIP_HEALTH, orionShip);
+                awaitView(views, nova, view -> Integer.valueOf(70).equals(view.get(orionHealth)),
+                        "A fleet that moves into range is sent with its health");
+                assertEquals(Integer.valueOf(WorldState.cellId(1, 1)),
+                        views.get(nova.getId()).get(WorldState.key(WorldState.Kind.SHIP_POSITION, orionShip)));
+                assertFalse(views.get(nova.getId()).containsKey(WorldState.key(WorldState.Kind.INVENTORY,
+                        WorldState.inventoryId(orionShip, ResourceType.FUEL))), "Other players' inventories stay private");
+                awaitView(views, orion, view -> view.containsKey(WorldState.key(WorldState.Kind.SHIP_POSITION, novaShip)),
+                        "Moving brings the fleets it can now reach into view");
+
+                orion.move(60, 60);
+                awaitView(views, nova, view -> shipPositions(view) == 1 && !view.containsKey(orionHealth),
+                        "A fleet that leaves range is removed");
+                awaitView(views, orion, view -> shipPositions(view) == 1, "And the mover stops seeing what it left");
+            }
+        }
+    }
+
+    // Waits until a session sees its own fleet at a cell; returns the fleet's ship id
+    private static int awaitOwnShip(Map<Integer, Map<Long, Integer>> views, MultiplayerClient.Session session,
+                                    int row, int col) throws InterruptedException {
+        awaitView(views, session, view -> view.containsValue(WorldState.cellId(row, col)), "Its own fleet is sent");
+        for (Map.Entry<Long, Integer> entry : views.get(session.getId()).entrySet()) {
+            if (WorldState.kindOf(entry.getKey()) == WorldState.Kind.SHIP_POSITION
+                    && entry.getValue() == WorldState.cellId(row, col)) {
+                return WorldState.idOf(entry.getKey());
+            }
+        }
+        throw new AssertionError("No fleet at " + row + ", " + col);
+    }
+
+    private static void awaitView(Map<Integer, Map<Long, Integer>> views, MultiplayerClient.Session session,
+                                  Predicate<Map<Long, Integer>> condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.test(views.getOrDefault(session.getId(), Map.of()))) {
+            assertTrue(System.currentTimeMillis() < deadline, message + ": " + views.get(session.getId()));
+            Thread.sleep(10);
+        }
+    }
+
+    private static long shipPositions(Map<Long, Integer> view) {
+        return view.keySet().stream().filter(key -> WorldState.kindOf(key) == WorldState.Kind.SHIP_POSITION).count();
+    }
+
+    @Test
+    public void testBinaryClientsJoiningDuringTextTrafficOnlySeeFrames() throws Exception {
+        try (NioMultiplayerServer server = new NioMultiplayerServer(0, 2)) {
+            server.start();
+            AtomicBoolean talking = new AtomicBoolean(true);
+            Thread chatter = new Thread(() -> {
+                try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+                    OutputStream out = socket.getOutputStream();
+                    for (int i = 0; talking.get(); i++) {
+                        // Includes a NUL, which a binary client must not take for the hello reply
+                        out.write(("line " + i + (i % 7 == 0 ? " \0 " : "") + "\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                } catch (IOException e) {
+                    // the server closed first
+                }
+            });
+            chatter.start();
+            try (MultiplayerClient client = new MultiplayerClient("127.0.0.1", server.getPort())) {
+                client.start();
+                List<MultiplayerClient.Session> sessions = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    sessions.add(client.connect());
+                }
+                long deadline = System.currentTimeMillis() + 5_000;
+                while (client.getFramesReceived() < 20_000 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                talking.set(false);
+                assertTrue(client.getFramesReceived() > 0, "The text traffic reached the binary clients as frames");
+                assertEquals(0, client.getBadFrames());
+                for (MultiplayerClient.Session session : sessions) {
+                    assertTrue(session.isOpen());
+                }
+            } finally {
+                talking.set(false);
+            }
+            chatter.join(5_000);
+        }
+    }
+
+    @Test
+    public void testBotDriverReportsLatencyThroughputAndErrors() throws Exception {
+        BotDriver.Report report = drive(50, 1_000, 1);
+        assertEquals(50, report.connected, report.toString());
+        assertTrue(report.actions >= 200, "About bots x rate x seconds actions: " + report);
+        assertTrue(report.latency.getCount() > report.actions / 5, "About 40% of random actions are probes: " + report);
+        assertTrue(report.latency.percentile(50) <= report.latency.percentile(99));
+        assertEquals(0, report.connectFailures + report.disconnects + report.badFrames, report.toString());
+        assertTrue(report.framesReceived > report.latency.getCount(), "Bots hear their neighbours too: " + report);
+
+        BotDriver scripted = new BotDriver("127.0.0.1", 1);
+        assertThrows(IllegalArgumentException.class, () -> scripted.setScript(List.of("WARP 9")));
+        assertThrows(IllegalArgumentException.class, () -> scripted.setScript(List.of("TRADE BUY Unobtainium 1 1")));
+        scripted.setScript(List.of("# comment", "PROBE", "MOVE random", "TRADE SELL Fuel 10 3"));
+        scripted.setBots(1);
+        assertEquals(1, scripted.run().connectFailures, "Nothing listens on port 1");
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testThousandBotsOnOneIoThread() throws Exception {
+        BotDriver.Report report = drive(1_000, 2_000, 2);
+        assertEquals(1_000, report.connected, report.toString());
+        assertTrue(report.actions >= 9_000, "About bots x rate x seconds actions: " + report);
+        assertTrue(report.latency.getCount() > 1_000, "About 40% of random actions are probes: " + report);
+        assertEquals(0, report.connectFailures + report.disconnects + report.badFrames, report.toString());
+    }
+
+    // Runs bots at 5 actions a second each against a one-thread NIO server
+    private static BotDriver.Report drive(int bots, long durationMillis, int clientThreads) throws Exception {
+        try (NioMultiplayerServer server = new NioMultiplayerServer(0, 1)) {
+            server.start();
+            BotDriver driver = new BotDriver("127.0.0.1", server.getPort());
+            driver.setBots(bots);
+            driver.setActionsPerSecond(5);
+            driver.setDurationMillis(durationMillis);
+            driver.setClientThreads(clientThreads);
+            return driver.run();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+import edu.sdccd.cisc191.network.MultiplayerHandler;
+import edu.sdccd.cisc191.network.PlayerData;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class MultiplayerHandlerTest {
+
+    @Test
+    public void testLookupsReturnDataAndIndexesFollowUpdates() {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        assertTrue(handler.addPlayer("p-1", "Nova", 7));
+        assertTrue(handler.addPlayer("p-2", "Nova", 8));
+        assertFalse(handler.addPlayer("p-1", "Orion", 9), "IDs are unique");
+        assertFalse(handler.addPlayer("p-3", "Orion", 7), "So are connections");
+        assertNull(handler.getPlayerData("p-3"));
+
+        PlayerData nova = handler.getPlayerData("p-1");
+        assertEquals("Nova", nova.getPlayerName());
+        assertEquals(7, nova.getConnectionId());
+        assertSame(nova, handler.getPlayerByConnection(7));
+        assertEquals(2, handler.getPlayersByName("Nova").size());
+
+        // A renamed player on a new connection moves in both indexes
+        handler.updatePlayerData("p-1", new PlayerData("p-1", "Vega", 10));
+        assertEquals("Vega", handler.getPlayerData("p-1").getPlayerName());
+        assertNull(handler.getPlayerByConnection(7));
+        assertSame(handler.getPlayerData("p-1"), handler.getPlayerByConnection(10));
+        assertEquals(1, handler.getPlayersByName("Nova").size());
+        assertEquals(1, handler.getPlayersByName("Vega").size());
+        handler.updatePlayerData("p-1", handler.getPlayerData("p-1"));
+        assertEquals(1, handler.getPlayersByName("Vega").size(), "Storing the same data again changes nothing");
+
+        assertEquals("p-2", handler.removeConnection(8).getPlayerId());
+        assertNull(handler.removeConnection(8));
+        assertTrue(handler.getPlayersByName("Nova").isEmpty());
+        assertNotNull(handler.removePlayer("p-1"));
+        assertNull(handler.removePlayer("p-1"));
+        assertNull(handler.getPlayerByConnection(10));
+        assertEquals(0, handler.getPlayerCount());
+    }
+
+    @Test
+    public void testConcurrentJoinsAndLeavesKeepIndexesConsistent() throws InterruptedException {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        int threads = 8;
+        int perThread = 12_500; // 100k players in all
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger missing = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t * perThread;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = first; i < first + perThread; i++) {
+                    // Few distinct names, so threads share name sets while joining and leaving
+                    if (!handler.addPlayer("p-" + i, "Captain " + (i % 50), i)
+                            || handler.getPlayerData("p-" + i) == null || handler.getPlayerByConnection(i) == null) {
+                        missing.incrementAndGet();
+                    }
+                    if (i % 3 == 0) {
+                        handler.removeConnection(i);
+                    } else if (i % 3 == 1) {
+                        handler.removePlayer("p-" + i);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(0, missing.get(), "A player is found right after joining");
+        int total = threads * perThread;
+        int remaining = 0;
+        int byName = 0;
+        for (int i = 0; i < total; i++) {
+            PlayerData player = handler.getPlayerData("p-" + i);
+            if (i % 3 == 2) {
+                assertNotNull(player);
+                assertSame(player, handler.getPlayerByConnection(i));
+                remaining++;
+            } else {
+                assertNull(player);
+                assertNull(handler.getPlayerByConnection(i));
+            }
+        }
+        for (int n = 0; n < 50; n++) {
+            byName += handler.getPlayersByName("Captain " + n).size();
+        }
+        assertEquals(remaining, handler.getPlayerCount());
+        assertEquals(remaining, byName, "The name index holds exactly the players still in the game");
+    }
+
+    @Test
+    public void testLookupsDontWaitOnWriters() throws Exception {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        handler.addPlayer("p-1", "Nova", 1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Indexing reads the name while the writer holds the player's stripe, so this holds it until released
+        PlayerData stuck = new PlayerData("p-1", "Nova", 1) {
+            @Override
+            public String getPlayerName() {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getPlayerName();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> handler.updatePlayerData("p-1", stuck));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            Future<PlayerData> lookup = executor.submit(() -> {
+                handler.getPlayersByName("Nova");
+                handler.getPlayerByConnection(1);
+                return handler.getPlayerData("p-1");
+            });
+            assertNotNull(lookup.get(5, TimeUnit.SECONDS), "Lookups don't take the stripe a writer holds");
+            release.countDown();
+            writer.get(5, TimeUnit.SECONDS);
+            assertSame(stuck, handler.getPlayerData("p-1"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testLookupsOutpaceSynchronizedMap() throws InterruptedException {
+        int players = 100_000;
+        int threads = 4;
+        int operations = 500_000;
+        assumeTrue(Runtime.getRuntime().availableProcessors() >= 2, "Contention needs more than one CPU");
+        MultiplayerHandler handler = new MultiplayerHandler();
+        Map<String, PlayerData> synchronizedRegistry = new HashMap<>();
+        for (int i = 0; i < players; i++) {
+            handler.addPlayer("p-" + i, "Captain " + i, i);
+            synchronizedRegistry.put("p-" + i, new PlayerData("p-" + i, "Captain " + i, i));
+        }
+        String[] ids = new String[players];
+        for (int i = 0; i < players; i++) {
+            ids[i] = "p-" + i;
+        }
+
+        // The old registry's shape: one lock around a HashMap for reads and writes alike
+        long lockedNanos = run(threads, operations, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String id = ids[random.nextInt(players)];
+            if (random.nextInt(10) == 0) {
+                synchronized (synchronizedRegistry) {
+                    synchronizedRegistry.put(id, synchronizedRegistry.get(id));
+                }
+            } else {
+                synchronized (synchronizedRegistry) {
+                    assertNotNull(synchronizedRegistry.get(id));
+                }
+            }
+        });
+        long concurrentNanos = run(threads, operations, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String id = ids[random.nextInt(players)];
+            if (random.nextInt(10) == 0) {
+                handler.updatePlayerData(id, handler.getPlayerData(id));
+            } else {
+                assertNotNull(handler.getPlayerData(id));
+            }
+        });
+        assertEquals(players, handler.getPlayerCount());
+        assertTrue(concurrentNanos < lockedNanos, "90% lookups on " + threads + " threads: concurrent registry "
+                + concurrentNanos / operations + " ns/op, synchronized map " + lockedNanos / operations + " ns/op");
+    }
+
+    // Runs an operation the given total number of times split over threads; returns the elapsed nanos
+    // Fails if the operation failed on any worker
+    private static long run(int threads, int operations, Runnable operation) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < operations / threads; i++) {
+                        operation.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        assertTrue(failures.isEmpty(), "Worker failed: " + failures.peek());
+        return elapsed;
+    }
+}
@@ -0,0 +1,322 @@
+import edu.sdccd.cisc191.network.NioMultiplayerServer;
+import edu.sdccd.cisc191.network.OutboundQueue;
+import edu.sdccd.cisc191.network.StateSync;
+import edu.sdccd.cisc191.network.WireProtocol;
+import edu.sdccd.cisc191.network.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NioMultiplayerServerTest {
+
+    private static SocketChannel connect(NioMultiplayerServer server) throws IOException {
+        return SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()));
+    }
+
+    private static void send(SocketChannel channel, String text) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    // Blocking read of one line; fine for tests, where each client expects a known line
+    private static String readLine(SocketChannel channel) throws IOException {
+        StringBuilder line = new StringBuilder();
+        ByteBuffer one = ByteBuffer.allocate(1);
+        while (true) {
+            one.clear();
+            if (channel.read(one) < 0) {
+                throw new IOException("Closed after: " + line);
+            }
+            char c = (char) one.get(0);
+            if (c == '\n') {
+                return line.toString();
+            }
+            line.append(c);
+        }
+    }
+
+    private static void awaitConnections(NioMultiplayerServer server, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (server.getConnectionCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, server.getConnectionCount());
+    }
+
+    @Test
+    public void testMessagesAreBroadcastToEveryPlayer() throws Exception {
+        try (NioMultiplayerServer server = new NioMultiplayerServer(0, 2)) {
+            server.start();
+            List<SocketChannel> clients = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                clients.add(connect(server));
+            }
+            awaitConnections(server, 3);
+
+            // A line split over two writes is still one message
+            send(clients.get(0), "hel");
+            Thread.sleep(50);
+            send(clients.get(0), "lo\r\nsecond\n");
+            for (SocketChannel client : clients) {
+                assertEquals("Player: hello", readLine(client));
+                assertEquals("Player: second", readLine(client));
+            }
+
+            // Longer than the starting read buffer
+            String longMessage = "x".repeat(3_000);
+            send(clients.get(1), longMessage + "\n");
+            assertEquals("Player: " + longMessage, readLine(clients.get(2)));
+
+            clients.get(2).close();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (server.getConnectionCount() > 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, server.getConnectionCount(), "A closed client is dropped");
+            for (SocketChannel client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    // Blocking read of one binary frame
+    private static WireProtocol.Frame readFrame(SocketChannel channel) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(WireProtocol.LENGTH_BYTES);
+        while (length.hasRemaining()) {
+            if (channel.read(length) < 0) {
+                throw new IOException("Closed");
+            }
+        }
+        ByteBuffer frame = ByteBuffer.allocate(WireProtocol.LENGTH_BYTES + Short.toUnsignedInt(length.getShort(0)));
+        frame.put(length.flip());
+        while (frame.hasRemaining()) {
+            if (channel.read(frame) < 0) {
+                throw new IOException("Closed");
+            }
+        }
+        frame.flip();
+        return new WireProtocol.Frame().wrap(frame, frame.remaining());
+    }
+
+    // The server answers a binary hello with one of its own before any frame
+    private static void awaitBinaryHello(SocketChannel channel) throws IOException {
+        ByteBuffer reply = ByteBuffer.allocate(1);
+        while (reply.hasRemaining()) {
+            if (channel.read(reply) < 0) {
+                throw new IOException("Closed");
+            }
+        }
+        assertEquals(WireProtocol.BINARY_HELLO, reply.get(0));
+    }
+
+    @Test
+    public void testBinaryAndTextClientsShareOneServer() throws Exception {
+        try (NioMultiplayerServer server = new NioMultiplayerServer(0, 1)) {
+            server.start();
+            SocketChannel binary = connect(server);
+            SocketChannel text = connect(server);
+            ByteBuffer hello = ByteBuffer.allocate(64).put(WireProtocol.BINARY_HELLO);
+            WireProtocol.writeBuild(hello, "Fighter", 3);
+            awaitConnections(server, 2);
+
+            // Until its first byte arrives a client counts as text, so the binary one speaks first
+            hello.flip();
+            while (hello.hasRemaining()) {
+                binary.write(hello);
+            }
+            awaitBinaryHello(binary);
+            WireProtocol.Frame build = readFrame(binary);
+            assertEquals(WireProtocol.MessageType.BUILD, build.type());
+            assertEquals(3, build.buildCount());
+            assertEquals("Player: BUILD 3 Fighter", readLine(text));
+
+            // State only ever comes from the server; a client's forged update and ACK go nowhere
+            ByteBuffer forged = ByteBuffer.allocate(64);
+            WireProtocol.writeStateUpdate(forged, Long.MAX_VALUE, ByteBuffer.wrap(new byte[]{1, 2, 3}));
+            WireProtocol.writeAck(forged, Long.MAX_VALUE);
+            forged.flip();
+            while (forged.hasRemaining()) {
+                binary.write(forged);
+            }
+            send(text, "nice fleet\n");
+            WireProtocol.Frame chat = readFrame(binary);
+            assertEquals(WireProtocol.MessageType.CHAT, chat.type());
+            assertEquals("Player: nice fleet", chat.string(0));
+            assertEquals("Player: nice fleet", readLine(text));
+            binary.close();
+            text.close();
+        }
+    }
+
+    @Test
+    public void testBinaryClientsReceiveStateDeltasAndAck() throws Exception {
+        WorldState world = new WorldState();
+        world.setShipHealth(1, 100);
+        world.setShipHealth(2, 80);
+        try (NioMultiplayerServer server = new NioMultiplayerServer(0, 1)) {
+            StateSync sync = server.enableStateSync(world, 20, StateSync.DEFAULT_MAX_ENTRIES);
+            server.start();
+            SocketChannel binary = connect(server);
+            ByteBuffer hello = ByteBuffer.allocate(1).put(WireProtocol.BINARY_HELLO).flip();
+            while (hello.hasRemaining()) {
+                binary.write(hello);
+            }
+            awaitBinaryHello(binary);
+
+            Map<Long, Integer> state = new HashMap<>();
+            WireProtocol.Frame snapshot = readFrame(binary);
+            assertEquals(WireProtocol.MessageType.STATE_UPDATE, snapshot.type());
+            StateSync.applyUpdate(snapshot.stateBody(), state);
+            assertEquals(2, state.size());
+            ByteBuffer ack = ByteBuffer.allocate(16);
+            WireProtocol.writeAck(ack, snapshot.stateTick());
+            ack.flip();
+            while (ack.hasRemaining()) {
+                binary.write(ack);
+            }
+            world.setShipHealth(2, 10);
+
+            // Once the ack lands, updates carry only what differs from the acked snapshot
+            long ship2 = WorldState.key(WorldState.Kind.SHIP_HEALTH, 2);
+            Map<Long, Integer> delta = new HashMap<>();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!delta.equals(Map.of(ship2, 10)) && System.currentTimeMillis() < deadline) {
+                WireProtocol.Frame update = readFrame(binary);
+                delta.clear();
+                StateSync.applyUpdate(update.stateBody(), delta);
+                StateSync.applyUpdate(update.stateBody(), state);
+            }
+            assertEquals(Map.of(ship2, 10), delta);
+            assertEquals(1, sync.getSnapshotCount());
+            assertEquals(Integer.valueOf(10), state.get(WorldState.key(WorldState.Kind.SHIP_HEALTH, 2)));
+            assertEquals(Integer.valueOf(100), state.get(WorldState.key(WorldState.Kind.SHIP_HEALTH, 1)));
+            binary.close();
+        }
+    }
+
+    @Test
+    public void testPlacedFleetsOnlyHearPlayersInRange() throws Exception {
+        try (NioMultiplayerServer server = new NioMultiplayerServer(0, 1)) {
+            server.start();
+            SocketChannel nova = connect(server);
+            SocketChannel orion = connect(server);
+            SocketChannel vega = connect(server);
+            awaitConnections(server, 3);
+
+            // Players without a position still hear everything
+            send(vega, "MOVE 20 20\n");
+            for (SocketChannel client : new SocketChannel[]{nova, orion, vega}) {
+                assertEquals("Player: MOVE 20 20", readLine(client));
+            }
+            send(nova, "MOVE 0 0\n");
+            assertEquals("Player: MOVE 0 0", readLine(nova));
+            assertEquals("Player: MOVE 0 0", readLine(orion));
+            send(orion, "MOVE 1 1\n");
+            assertEquals("Player: MOVE 1 1", readLine(nova));
+            assertEquals("Player: MOVE 1 1", readLine(orion));
+
+            send(nova, "hello\n");
+            assertEquals("Player: hello", readLine(nova));
+            assertEquals("Player: hello", readLine(orion));
+            assertEquals(0, server.broadcastNear(20, 40, "nobody here"));
+
+            // Vega's next line is its own move into range; it never got the chat or the earlier moves
+            send(vega, "MOVE 2 2\n");
+            assertEquals("Player: MOVE 2 2", readLine(vega));
+            assertEquals("Player: MOVE 2 2", readLine(nova));
+            assertEquals("Player: MOVE 2 2", readLine(orion));
+            assertEquals(3, server.broadcastNear(1, 1, "battle at 1,1"));
+            assertEquals("battle at 1,1", readLine(vega));
+
+            send(vega, "MOVE two 2\n");
+            assertEquals("Usage: MOVE <row> <col>", readLine(vega));
+            nova.close();
+            orion.close();
+            vega.close();
+        }
+    }
+
+    @Test
+    public void testThousandsOfConnectionsOnTwoThreads() throws Exception {
+        // Both ends live in this process, so stay well inside the sandbox's open file limit
+        int connections = 5_000;
+        int threadsBefore = Thread.activeCount();
+        try (NioMultiplayerServer server = new NioMultiplayerServer(0, 2)) {
+            server.start();
+            List<SocketChannel> clients = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                clients.add(connect(server));
+            }
+            awaitConnections(server, connections);
+            assertTrue(Thread.activeCount() - threadsBefore <= 2, "No thread per connection");
+
+            server.broadcastMessage("tick 1");
+            for (SocketChannel client : clients) {
+                assertEquals("tick 1", readLine(client));
+            }
+            for (SocketChannel client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testSlowClientOnlyHoldsBackItself() throws Exception {
+        for (OutboundQueue.SlowConsumerPolicy policy : new OutboundQueue.SlowConsumerPolicy[]{
+                OutboundQueue.SlowConsumerPolicy.DROP, OutboundQueue.SlowConsumerPolicy.DISCONNECT}) {
+            try (NioMultiplayerServer server = new NioMultiplayerServer(0, 1, 64, policy)) {
+                server.start();
+                SocketChannel slow = connect(server); // never reads
+                slow.socket().setReceiveBufferSize(4096);
+                SocketChannel fast = connect(server);
+                BufferedReader fastReader = new BufferedReader(Channels.newReader(fast, StandardCharsets.UTF_8));
+                awaitConnections(server, 2);
+
+                // Far more than the slow client's socket buffers and queue can hold
+                int messages = 2_000;
+                String payload = "x".repeat(2_000);
+                long longestBroadcast = 0;
+                int received = 0;
+                for (int i = 0; i < messages; i++) {
+                    long begin = System.nanoTime();
+                    server.broadcastMessage(i + " " + payload);
+                    longestBroadcast = Math.max(longestBroadcast, System.nanoTime() - begin);
+                    assertTrue(fastReader.readLine().startsWith(i + " "), "The fast client gets every message in order");
+                    received++;
+                }
+                assertEquals(messages, received);
+                assertTrue(longestBroadcast < 100_000_000L, policy + ": a broadcast never waits on a slow client, "
+                        + "but one took " + longestBroadcast / 1_000 + " us");
+
+                if (policy == OutboundQueue.SlowConsumerPolicy.DROP) {
+                    assertEquals(2, server.getConnectionCount());
+                    int slowDepth = server.getQueueDepths().values().stream().mapToInt(Integer::intValue).max().orElse(0);
+                    assertEquals(64, slowDepth, "The slow client's queue stops at its capacity");
+                } else {
+                    long deadline = System.currentTimeMillis() + 5_000;
+                    while (server.getConnectionCount() > 1 && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(10);
+                    }
+                    assertEquals(1, server.getConnectionCount(), "The slow client was disconnected");
+                    assertEquals(1, server.getSlowDisconnectCount());
+                }
+                slow.close();
+                fast.close();
+            }
+        }
+    }
+}
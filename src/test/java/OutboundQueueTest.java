@@ -0,0 +1,65 @@
+import edu.sdccd.cisc191.network.OutboundQueue;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutboundQueueTest {
+
+    @Test
+    public void testDropKeepsTheOldestMessages() {
+        OutboundQueue<String> queue = new OutboundQueue<>(2, OutboundQueue.SlowConsumerPolicy.DROP);
+        assertEquals(OutboundQueue.Offer.QUEUED, queue.offer("a", null));
+        assertEquals(OutboundQueue.Offer.QUEUED, queue.offer("b", "state"));
+        assertEquals(OutboundQueue.Offer.DROPPED, queue.offer("c", "state"), "DROP never coalesces");
+        assertEquals(2, queue.depth());
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals("a", queue.poll());
+        assertEquals("b", queue.poll());
+        assertNull(queue.poll());
+        assertEquals(2, queue.getHighWaterMark());
+    }
+
+    @Test
+    public void testCoalesceReplacesQueuedMessageInPlace() {
+        OutboundQueue<String> queue = new OutboundQueue<>(3, OutboundQueue.SlowConsumerPolicy.COALESCE);
+        queue.offer("state 1", "state");
+        queue.offer("chat 1", null);
+        assertEquals(OutboundQueue.Offer.COALESCED, queue.offer("state 2", "state"));
+        queue.offer("chat 2", null);
+        assertEquals(OutboundQueue.Offer.DROPPED, queue.offer("chat 3", null), "Full, and nothing to coalesce with");
+        assertEquals(OutboundQueue.Offer.COALESCED, queue.offer("state 3", "state"), "Coalescing still works when full");
+        assertEquals("state 3", queue.poll(), "The newest state takes the oldest one's place in line");
+        assertEquals(OutboundQueue.Offer.QUEUED, queue.offer("state 4", "state"), "Once sent, a key starts over");
+        assertEquals("chat 1", queue.poll());
+        assertEquals("chat 2", queue.poll());
+        assertEquals("state 4", queue.poll());
+        assertEquals(2, queue.getCoalescedCount());
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    public void testDisconnectReportsOverflowAndCloseWakesWriter() throws InterruptedException {
+        OutboundQueue<String> queue = new OutboundQueue<>(1, OutboundQueue.SlowConsumerPolicy.DISCONNECT);
+        queue.offer("a", null);
+        assertEquals(OutboundQueue.Offer.OVERFLOW, queue.offer("b", null));
+        assertEquals("a", queue.take(1, TimeUnit.SECONDS));
+        assertNull(queue.take(10, TimeUnit.MILLISECONDS), "Times out when empty");
+
+        Thread closer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.close();
+        });
+        closer.start();
+        long begin = System.nanoTime();
+        assertNull(queue.take(10, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - begin) < 5, "close wakes a waiting writer");
+        assertEquals(OutboundQueue.Offer.CLOSED, queue.offer("c", null));
+        closer.join();
+    }
+}
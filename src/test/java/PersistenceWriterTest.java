@@ -0,0 +1,147 @@
+import edu.sdccd.cisc191.game.GameBoard;
+import edu.sdccd.cisc191.game.GameStateCodec;
+import edu.sdccd.cisc191.game.PersistenceWriter;
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.game.Shipyard;
+import edu.sdccd.cisc191.game.SnapshotFile;
+import edu.sdccd.cisc191.subsystems.HashedWheelTimer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistenceWriterTest {
+
+    @Test
+    public void testChangesInOneWindowShareOneCommit() throws Exception {
+        Path world = Files.createTempDirectory("persistence").resolve("world");
+        PersistenceWriter writer = new PersistenceWriter(world, 20, PersistenceWriter.FsyncPolicy.EVERY_COMMIT, 0, TimeUnit.MILLISECONDS);
+        PlayerInventory inventory = new PlayerInventory();
+        GameBoard board = new GameBoard();
+        PersistenceWriter.Section<PlayerInventory> inventorySave = writer.register("inventory", inventory, GameStateCodec::writeInventory);
+        PersistenceWriter.Section<GameBoard> boardSave = writer.register("board", board, GameStateCodec::writeBoard);
+        assertThrows(IllegalArgumentException.class, () -> writer.register("board", board, GameStateCodec::writeBoard));
+
+        int threads = 8;
+        int changesPerThread = 2_000;
+        Thread[] workers = new Thread[threads];
+        CompletableFuture<?>[] lastSaves = new CompletableFuture<?>[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < changesPerThread; i++) {
+                    inventory.addResource(ResourceType.FUEL, 1);
+                    lastSaves[id] = inventorySave.markDirty();
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        board.placePlanet(2, 2, 5);
+        CompletableFuture<Void> boardSaved = boardSave.markDirty();
+        CompletableFuture.allOf(lastSaves).get(5, TimeUnit.SECONDS);
+        boardSaved.get(5, TimeUnit.SECONDS);
+
+        assertTrue(writer.getCommitCount() < threads * changesPerThread / 10,
+                "Commits should coalesce, got " + writer.getCommitCount());
+        try (SnapshotFile saved = PersistenceWriter.openWorld(world)) {
+            assertEquals(threads * changesPerThread,
+                    GameStateCodec.readInventory(saved.get("inventory")).getResourceAmount(ResourceType.FUEL));
+            assertEquals(5, GameStateCodec.readBoard(saved.get("board")).getPlanetId(2, 2));
+        }
+        writer.close();
+        assertTrue(inventorySave.markDirty().isCompletedExceptionally(), "A closed writer accepts nothing");
+    }
+
+    @Test
+    public void testMarkingDirtyNeverWaitsOnSlowDisk() throws Exception {
+        PersistenceWriter writer = new PersistenceWriter(null, 1, PersistenceWriter.FsyncPolicy.NEVER, 0, TimeUnit.MILLISECONDS);
+        CountDownLatch committing = new CountDownLatch(1);
+        AtomicInteger commits = new AtomicInteger();
+        PersistenceWriter.Committable slowDisk = fsync -> {
+            commits.incrementAndGet();
+            committing.countDown();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        CompletableFuture<Void> first = writer.markDirty(slowDisk);
+        assertTrue(committing.await(5, TimeUnit.SECONDS));
+        long begin = System.nanoTime();
+        CompletableFuture<Void> second = writer.markDirty(slowDisk);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        assertTrue(waitedMillis < 100, "markDirty blocked for " + waitedMillis + " ms");
+        assertNotSame(first, second, "A change made mid-commit belongs to the next commit");
+
+        second.get(5, TimeUnit.SECONDS);
+        assertTrue(first.isDone());
+        assertEquals(2, commits.get());
+        writer.close();
+    }
+
+    @Test
+    public void testFlushSkipsTheCommitWindow() throws Exception {
+        PersistenceWriter writer = new PersistenceWriter(null, 60, PersistenceWriter.FsyncPolicy.NEVER, 0, TimeUnit.SECONDS);
+        AtomicInteger commits = new AtomicInteger();
+        writer.markDirty(fsync -> commits.incrementAndGet());
+        writer.flush().get(5, TimeUnit.SECONDS);
+        assertEquals(1, commits.get());
+        writer.close();
+    }
+
+    @Test
+    public void testFinalCommitFsyncsWhateverThePolicy() throws Exception {
+        // An interval this long never comes up on its own, so only the close can force anything
+        PersistenceWriter writer = new PersistenceWriter(null, 1, PersistenceWriter.FsyncPolicy.INTERVAL,
+                TimeUnit.HOURS.toMillis(1), TimeUnit.MILLISECONDS);
+        List<String> journalCommits = new CopyOnWriteArrayList<>();
+        List<String> logCommits = new CopyOnWriteArrayList<>();
+        PersistenceWriter.Committable journal = fsync -> journalCommits.add(fsync ? "fsync" : "write");
+        PersistenceWriter.Committable log = fsync -> logCommits.add(fsync ? "fsync" : "write");
+
+        writer.markDirty(journal);
+        writer.markDirty(log).get(5, TimeUnit.SECONDS);
+        writer.markDirty(journal).get(5, TimeUnit.SECONDS);
+        writer.close();
+
+        assertEquals(List.of("write", "write", "fsync"), journalCommits);
+        assertEquals(List.of("write", "fsync"), logCommits, "Forced on close even though it wasn't dirty any more");
+    }
+
+    @Test
+    public void testShipyardsShareOneWriter() throws Exception {
+        Path dir = Files.createTempDirectory("persistence");
+        PersistenceWriter writer = new PersistenceWriter(null, 10, PersistenceWriter.FsyncPolicy.EVERY_COMMIT, 0, TimeUnit.MILLISECONDS);
+        HashedWheelTimer timer = new HashedWheelTimer("test-persistence");
+        Shipyard first = new Shipyard(null, 1, timer, dir.resolve("first").toString(), writer);
+        Shipyard second = new Shipyard(null, 1, timer, dir.resolve("second").toString(), writer);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(first.rushBuild(first.buildShip("Fighter")));
+            assertTrue(second.rushBuild(second.buildShip("Cruiser")));
+        }
+        CompletableFuture.allOf(first.saveAsync(), second.saveAsync()).get(5, TimeUnit.SECONDS);
+        assertTrue(Files.size(dir.resolve("first.journal.0")) > 0, "Saved before shutdown");
+        first.shutdown();
+        second.shutdown();
+        writer.close();
+
+        Shipyard reopened = new Shipyard(null, 1, timer, dir.resolve("second").toString());
+        assertEquals(5, reopened.getPlayerFleet().size());
+        assertEquals("Cruiser", reopened.getPlayerFleet().get(0).getName());
+        reopened.shutdown();
+    }
+}
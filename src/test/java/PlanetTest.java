@@ -0,0 +1,41 @@
+import edu.sdccd.cisc191.game.Planet;
+import edu.sdccd.cisc191.game.ResourceType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanetTest {
+
+    @Test
+    public void testDepositsStartFullAndDeplete() {
+        Planet mars = new Planet("Mars", Planet.PlanetType.TERRESTRIAL, 0);
+
+        assertEquals("Mars", mars.getName());
+        assertEquals(30, mars.getDeposit(ResourceType.DILITHIUM, 0));
+        assertEquals(20, mars.extract(ResourceType.DILITHIUM, 20, 0));
+        assertEquals(10, mars.extract(ResourceType.DILITHIUM, 20, 0), "Only what is left can be extracted");
+        assertEquals(0, mars.extract(ResourceType.DILITHIUM, 5, 0));
+        assertEquals(0, mars.getDeposit(ResourceType.CREDITS, 0), "Terrestrial planets hold no credits");
+    }
+
+    @Test
+    public void testLazyRegenerationUpToCapacity() {
+        Planet mars = new Planet("Mars", Planet.PlanetType.TERRESTRIAL, 0);
+        mars.extract(ResourceType.MINERALS, 200, 0);
+
+        // Minerals regenerate 2 per second, in thousandths, so half-seconds are not lost
+        assertEquals(1, mars.getDeposit(ResourceType.MINERALS, 500));
+        assertEquals(3, mars.getDeposit(ResourceType.MINERALS, 1500));
+        assertEquals(20, mars.getDeposit(ResourceType.MINERALS, 10_000));
+        assertEquals(200, mars.getDeposit(ResourceType.MINERALS, 10_000_000), "Regeneration stops at capacity");
+    }
+
+    @Test
+    public void testClockGoingBackwardsDoesNotRegenerate() {
+        Planet mars = new Planet("Mars", Planet.PlanetType.TERRESTRIAL, 10_000);
+        mars.extract(ResourceType.FUEL, 50, 10_000);
+
+        assertEquals(0, mars.getDeposit(ResourceType.FUEL, 5_000));
+        assertEquals(2, mars.getDeposit(ResourceType.FUEL, 12_000));
+    }
+}
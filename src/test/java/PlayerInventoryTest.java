@@ -0,0 +1,226 @@
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceCost;
+import edu.sdccd.cisc191.game.ResourceType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class PlayerInventoryTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 200_000;
+
+    @Test
+    public void testAddAndUseResources() {
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.MINERALS, 15);
+
+        assertTrue(inventory.useResource(ResourceType.MINERALS, 10), "Should use 10 of 15 minerals");
+        assertFalse(inventory.useResource(ResourceType.MINERALS, 10), "Only 5 minerals should remain");
+        assertEquals(5, inventory.getResourceAmount(ResourceType.MINERALS));
+    }
+
+    @Test
+    public void testStringCompatibilityLayer() {
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource("Energy", 7);
+
+        assertEquals(7, inventory.getResourceAmount(ResourceType.ENERGY), "String and enum APIs share counters");
+        assertTrue(inventory.useResource("Energy", 7));
+        assertEquals(0, inventory.getResourceAmount("Unobtainium"), "Unknown resources hold nothing");
+        assertFalse(inventory.useResource("Unobtainium", 1));
+        assertTrue(inventory.displayResources().contains("Energy: 0"));
+    }
+
+    @Test
+    public void testRefineDilithium() {
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.DILITHIUM, 12);
+        inventory.refineDilithium();
+
+        assertEquals(2, inventory.getResourceAmount(ResourceType.DILITHIUM));
+        assertEquals(5, inventory.getResourceAmount(ResourceType.FUEL));
+        assertEquals(5, inventory.getResourceAmount(ResourceType.ENERGY));
+        assertEquals(5, inventory.getResourceAmount(ResourceType.MINERALS));
+    }
+
+    @Test
+    public void testMultiResourceDebitIsAllOrNothing() {
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.MINERALS, 25);
+        inventory.addResource(ResourceType.ENERGY, 7);
+        ResourceCost fighter = ResourceCost.of(ResourceType.MINERALS, 10, ResourceType.ENERGY, 5);
+
+        assertTrue(inventory.useResources(fighter));
+        assertFalse(inventory.useResources(fighter), "Only 2 energy left, so nothing should be debited");
+        assertEquals(15, inventory.getResourceAmount(ResourceType.MINERALS), "Minerals must be rolled back");
+        assertEquals(2, inventory.getResourceAmount(ResourceType.ENERGY));
+
+        inventory.addResources(fighter);
+        assertEquals(25, inventory.getResourceAmount(ResourceType.MINERALS));
+        assertEquals("30 Minerals, 15 Energy", fighter.times(3).toString());
+    }
+
+    @Test
+    public void testConcurrentBuildsNeverPartiallyDebit() throws InterruptedException {
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.MINERALS, 100_000);
+        inventory.addResource(ResourceType.ENERGY, 30_000);
+        ResourceCost fighter = ResourceCost.of(ResourceType.MINERALS, 10, ResourceType.ENERGY, 5);
+        AtomicInteger built = new AtomicInteger();
+
+        runContended(() -> {
+            if (inventory.useResources(fighter)) {
+                built.incrementAndGet();
+            }
+        });
+
+        // Whatever interleaving happened, every success paid both resources and failures paid nothing
+        assertEquals(100_000 - 10 * built.get(), inventory.getResourceAmount(ResourceType.MINERALS));
+        assertEquals(30_000 - 5 * built.get(), inventory.getResourceAmount(ResourceType.ENERGY));
+        assertEquals(6_000, built.get(), "Energy should run out after exactly 6000 fighters");
+    }
+
+    @Test
+    public void testReadersNeverSeeAFailedDebit() throws InterruptedException {
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.MINERALS, 1_000);
+        ResourceCost fighter = ResourceCost.of(ResourceType.MINERALS, 10, ResourceType.ENERGY, 5);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger torn = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                // No energy, so every debit takes the minerals and hands them back; neither read may catch that
+                if (inventory.getResourceAmounts()[ResourceType.MINERALS.ordinal()] != 1_000
+                        || inventory.getResourceAmount(ResourceType.MINERALS) != 1_000) {
+                    torn.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        try {
+            runContended(() -> assertFalse(inventory.useResources(fighter)));
+        } finally {
+            running.set(false);
+            reader.join();
+        }
+        assertEquals(0, torn.get(), "A failed debit was visible to readers");
+        assertEquals(1_000, inventory.getResourceAmount(ResourceType.MINERALS));
+    }
+
+    @Test
+    public void testContendedAddAndUse() throws InterruptedException {
+        PlayerInventory inventory = new PlayerInventory();
+        AtomicInteger failedUses = new AtomicInteger();
+
+        runContended(() -> {
+            inventory.addResource(ResourceType.ENERGY, 1);
+            if (!inventory.useResource(ResourceType.ENERGY, 1)) {
+                failedUses.incrementAndGet();
+            }
+        });
+
+        // Each thread uses only what it just added, so no use may fail and everything nets out
+        assertEquals(0, failedUses.get(), "Contended uses should never fail");
+        assertEquals(0, inventory.getResourceAmount(ResourceType.ENERGY), "Adds and uses should net to zero");
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testContendedAtomicsOutpaceLockedMap() throws InterruptedException {
+        assumeTrue(Runtime.getRuntime().availableProcessors() >= 2, "Contention needs more than one CPU");
+        PlayerInventory inventory = new PlayerInventory();
+        // The previous design: a global lock around a String-keyed map
+        LockedInventory locked = new LockedInventory();
+        for (int warmup = 0; warmup < 2; warmup++) {
+            runContended(() -> {
+                inventory.addResource(ResourceType.ENERGY, 1);
+                inventory.useResource(ResourceType.ENERGY, 1);
+            });
+            runContended(() -> {
+                locked.add("Energy", 1);
+                locked.use("Energy", 1);
+            });
+        }
+        long atomicNanos = runContended(() -> {
+            inventory.addResource(ResourceType.ENERGY, 1);
+            inventory.useResource(ResourceType.ENERGY, 1);
+        });
+        long lockedNanos = runContended(() -> {
+            locked.add("Energy", 1);
+            locked.use("Energy", 1);
+        });
+        assertTrue(atomicNanos < lockedNanos, "Contended add/use, " + THREADS + " threads: atomic "
+                + atomicNanos / 1_000_000 + " ms, locked map " + lockedNanos / 1_000_000 + " ms");
+    }
+
+    // Runs the operation on every thread at once; returns the elapsed nanos, failing if any run threw
+    private long runContended(Runnable operation) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        operation.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            threads[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        assertTrue(failures.isEmpty(), "Worker failed: " + failures.peek());
+        return elapsed;
+    }
+
+    private static class LockedInventory {
+        private final Map<String, int[]> resources = new HashMap<>();
+        private final Lock lock = new ReentrantLock();
+
+        void add(String type, int amount) {
+            lock.lock();
+            try {
+                resources.computeIfAbsent(type, k -> new int[1])[0] += amount;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean use(String type, int amount) {
+            lock.lock();
+            try {
+                int[] held = resources.get(type);
+                if (held == null || held[0] < amount) {
+                    return false;
+                }
+                held[0] -= amount;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
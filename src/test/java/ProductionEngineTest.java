@@ -0,0 +1,70 @@
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceCost;
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.subsystems.ProductionEngine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductionEngineTest {
+
+    @Test
+    public void testTickCreditsPlanetsAndRefineries() {
+        ProductionEngine engine = new ProductionEngine(
+                ResourceCost.of(ResourceType.MINERALS, 3),
+                ResourceCost.of(ResourceType.FUEL, 2, ResourceType.MINERALS, 1));
+        PlayerInventory inventory = new PlayerInventory();
+        int slot = engine.registerPlayer(inventory, 2, 1);
+
+        engine.tick();
+        assertEquals(7, inventory.getResourceAmount(ResourceType.MINERALS), "2 planets x 3 + 1 refinery x 1");
+        assertEquals(2, inventory.getResourceAmount(ResourceType.FUEL));
+
+        engine.setRefineries(slot, 0);
+        engine.tick();
+        assertEquals(13, inventory.getResourceAmount(ResourceType.MINERALS));
+        assertEquals(2, inventory.getResourceAmount(ResourceType.FUEL), "No refineries, no more fuel");
+        assertEquals(2, engine.getTickCount());
+    }
+
+    @Test
+    public void testBulkTickFor100kPlayers() {
+        int players = 100_000;
+        ProductionEngine engine = new ProductionEngine();
+        PlayerInventory[] inventories = new PlayerInventory[players];
+        for (int i = 0; i < players; i++) {
+            inventories[i] = new PlayerInventory();
+            engine.registerPlayer(inventories[i], i % 4, i % 3);
+        }
+
+        int ticks = 20;
+        for (int t = 0; t < ticks; t++) {
+            engine.tick();
+        }
+
+        for (int i = 0; i < players; i++) {
+            int planets = i % 4;
+            int refineries = i % 3;
+            assertEquals(ticks * planets * 2, inventories[i].getResourceAmount(ResourceType.MINERALS));
+            assertEquals(ticks * planets, inventories[i].getResourceAmount(ResourceType.DILITHIUM));
+            assertEquals(ticks * refineries * 2, inventories[i].getResourceAmount(ResourceType.FUEL));
+            assertEquals(ticks * refineries * 2, inventories[i].getResourceAmount(ResourceType.ENERGY));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testTickFor100kPlayersTakesMilliseconds() {
+        int players = 100_000;
+        ProductionEngine engine = new ProductionEngine();
+        for (int i = 0; i < players; i++) {
+            engine.registerPlayer(new PlayerInventory(), i % 4, i % 3);
+        }
+        long bestNanos = Long.MAX_VALUE;
+        for (int t = 0; t < 50; t++) {
+            bestNanos = Math.min(bestNanos, engine.tick());
+        }
+        assertTrue(bestNanos < 10_000_000, "Production tick for " + players + " players: best " + bestNanos / 1_000 + " us");
+    }
+}
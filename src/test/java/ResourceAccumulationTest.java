@@ -0,0 +1,158 @@
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.Resource;
+import edu.sdccd.cisc191.game.ResourceType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ResourceAccumulationTest {
+
+    private static final int THREADS = 64;
+    private static final int CREDITS_PER_THREAD = 50_000;
+
+    @Test
+    public void testAccumulatedCreditsReconcileOnDebit() {
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.FUEL, 3);
+        inventory.creditResource(ResourceType.FUEL, 10);
+
+        assertEquals(13, inventory.getResourceAmount(ResourceType.FUEL), "Reads include pending credits");
+        assertTrue(inventory.useResource(ResourceType.FUEL, 12), "A short debit should pull in pending credits");
+        assertFalse(inventory.useResource(ResourceType.FUEL, 2));
+        assertEquals(1, inventory.getResourceAmount(ResourceType.FUEL));
+        assertThrows(IllegalArgumentException.class, () -> inventory.creditResource(ResourceType.FUEL, -1));
+
+        Resource dilithium = new Resource("Dilithium");
+        dilithium.accumulate(7);
+        assertTrue(dilithium.useAmount(5));
+        assertEquals(2, dilithium.getAmount());
+    }
+
+    @Test
+    public void testCreditsAndDebitsStayExactUnderContention() throws InterruptedException {
+        PlayerInventory inventory = new PlayerInventory();
+        AtomicInteger debited = new AtomicInteger();
+
+        // Half the threads mine, half spend whatever they can; nothing may be lost or overdrawn
+        runThreads(THREADS, thread -> {
+            for (int i = 0; i < CREDITS_PER_THREAD; i++) {
+                if (thread % 2 == 0) {
+                    inventory.creditResource(ResourceType.MINERALS, 1);
+                } else if (inventory.useResource(ResourceType.MINERALS, 1)) {
+                    debited.incrementAndGet();
+                }
+            }
+        });
+
+        int credited = THREADS / 2 * CREDITS_PER_THREAD;
+        assertEquals(credited - debited.get(), inventory.getResourceAmount(ResourceType.MINERALS));
+        assertTrue(inventory.getResourceAmount(ResourceType.MINERALS) >= 0);
+    }
+
+    @Test
+    public void testEveryCreditModeStaysExactAt64Threads() throws InterruptedException {
+        int credits = 2_000;
+        PlayerInventory atomic = new PlayerInventory();
+        PlayerInventory striped = new PlayerInventory();
+        Resource accumulated = new Resource("Energy");
+        runThreads(THREADS, thread -> {
+            for (int i = 0; i < credits; i++) {
+                atomic.addResource(ResourceType.ENERGY, 1);
+                striped.creditResource(ResourceType.ENERGY, 1);
+                accumulated.accumulate(1);
+            }
+        });
+
+        int expected = THREADS * credits;
+        assertEquals(expected, atomic.getResourceAmount(ResourceType.ENERGY));
+        assertEquals(expected, striped.getResourceAmount(ResourceType.ENERGY));
+        assertTrue(striped.useResource(ResourceType.ENERGY, expected), "Every striped credit should be spendable");
+        assertEquals(expected, accumulated.getAmount());
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testStripedCreditsOutpaceSharedCounterAt64Threads() throws InterruptedException {
+        assumeTrue(Runtime.getRuntime().availableProcessors() >= 2, "Contention needs more than one CPU");
+        PlayerInventory atomic = new PlayerInventory();
+        long atomicNanos = runThreads(THREADS, thread -> {
+            for (int i = 0; i < CREDITS_PER_THREAD; i++) {
+                atomic.addResource(ResourceType.ENERGY, 1);
+            }
+        });
+
+        PlayerInventory striped = new PlayerInventory();
+        long stripedNanos = runThreads(THREADS, thread -> {
+            for (int i = 0; i < CREDITS_PER_THREAD; i++) {
+                striped.creditResource(ResourceType.ENERGY, 1);
+            }
+        });
+
+        Resource locked = new Resource("Energy");
+        Resource accumulated = new Resource("Energy");
+        long lockedNanos;
+        long accumulatedNanos;
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // addAmount logs every call
+        try {
+            lockedNanos = runThreads(THREADS, thread -> {
+                for (int i = 0; i < CREDITS_PER_THREAD; i++) {
+                    locked.addAmount(1);
+                }
+            });
+            accumulatedNanos = runThreads(THREADS, thread -> {
+                for (int i = 0; i < CREDITS_PER_THREAD; i++) {
+                    accumulated.accumulate(1);
+                }
+            });
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertTrue(stripedNanos < atomicNanos, THREADS + " threads: inventory striped " + stripedNanos / 1_000_000
+                + " ms, CAS " + atomicNanos / 1_000_000 + " ms");
+        assertTrue(accumulatedNanos < lockedNanos, THREADS + " threads: resource striped " + accumulatedNanos / 1_000_000
+                + " ms, lock " + lockedNanos / 1_000_000 + " ms");
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+
+    private long runThreads(int count, ThreadBody body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Thread[] threads = new Thread[count];
+        for (int t = 0; t < count; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    body.run(thread);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            threads[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        assertTrue(failures.isEmpty(), "Worker failed: " + failures.peek());
+        return elapsed;
+    }
+}
@@ -0,0 +1,143 @@
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.subsystems.Order;
+import edu.sdccd.cisc191.subsystems.ResourceMarket;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceMarketTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 100_000;
+    private static final int TRADERS = 1000;
+    private static final int STARTING_CREDITS = 10_000_000;
+    private static final int STARTING_FUEL = 1_000_000;
+
+    @Test
+    public void testPriceTimePriorityWithPartialFills() throws InterruptedException {
+        ResourceMarket market = new ResourceMarket(Runnable::run);
+        PlayerInventory first = inventoryWith(0, 10);
+        PlayerInventory second = inventoryWith(0, 10);
+        PlayerInventory cheapest = inventoryWith(0, 5);
+        PlayerInventory buyer = inventoryWith(100, 0);
+
+        Order firstAsk = market.placeSellOrder(first, ResourceType.FUEL, 5, 10);
+        Order secondAsk = market.placeSellOrder(second, ResourceType.FUEL, 5, 10);
+        Order cheapestAsk = market.placeSellOrder(cheapest, ResourceType.FUEL, 4, 5);
+        Order bid = market.placeBuyOrder(buyer, ResourceType.FUEL, 6, 12);
+        market.flush();
+
+        // Best price first (5 @ 4), then the earlier of the two asks at 5
+        assertEquals(Order.Status.FILLED, bid.getStatus());
+        assertEquals(Order.Status.FILLED, cheapestAsk.getStatus());
+        assertEquals(7, firstAsk.getFilled());
+        assertEquals(0, secondAsk.getFilled(), "The later ask at the same price waits its turn");
+        assertEquals(12, buyer.getResourceAmount(ResourceType.FUEL));
+        assertEquals(100 - 20 - 35, buyer.getResourceAmount(ResourceType.CREDITS), "Buyer pays resting prices, not the limit");
+        assertEquals(20, cheapest.getResourceAmount(ResourceType.CREDITS));
+        assertEquals(35, first.getResourceAmount(ResourceType.CREDITS));
+        assertEquals(5, market.getBestAsk(ResourceType.FUEL));
+        assertEquals(5, market.getLastTradePrice(ResourceType.FUEL));
+
+        market.cancelOrder(firstAsk);
+        market.cancelOrder(secondAsk);
+        market.flush();
+        assertEquals(Order.Status.CANCELLED, firstAsk.getStatus());
+        assertEquals(3, first.getResourceAmount(ResourceType.FUEL), "Cancel refunds the unfilled part");
+        assertEquals(10, second.getResourceAmount(ResourceType.FUEL));
+        assertEquals(0, market.getBestAsk(ResourceType.FUEL));
+    }
+
+    @Test
+    public void testOrdersMustBeCovered() {
+        ResourceMarket market = new ResourceMarket(Runnable::run);
+        PlayerInventory trader = inventoryWith(50, 5);
+
+        assertNull(market.placeBuyOrder(trader, ResourceType.FUEL, 10, 6), "60 Credits can't be escrowed");
+        assertNull(market.placeSellOrder(trader, ResourceType.FUEL, 10, 6));
+        assertEquals(50, trader.getResourceAmount(ResourceType.CREDITS), "Rejected orders take nothing");
+        assertThrows(IllegalArgumentException.class, () -> market.placeBuyOrder(trader, ResourceType.CREDITS, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> market.placeSellOrder(trader, ResourceType.FUEL, 0, 1));
+    }
+
+    @Test
+    public void testConcurrentOrderFlowConservesResources() throws InterruptedException {
+        ResourceMarket market = new ResourceMarket();
+        PlayerInventory[] traders = new PlayerInventory[TRADERS];
+        for (int i = 0; i < TRADERS; i++) {
+            traders[i] = inventoryWith(STARTING_CREDITS, STARTING_FUEL);
+        }
+        List<List<Order>> placed = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            placed.add(new ArrayList<>(ORDERS_PER_THREAD));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            List<Order> orders = placed.get(t);
+            SplittableRandom random = new SplittableRandom(t);
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    PlayerInventory trader = traders[random.nextInt(TRADERS)];
+                    int price = 95 + random.nextInt(11);
+                    int quantity = 1 + random.nextInt(10);
+                    Order order = random.nextBoolean()
+                            ? market.placeBuyOrder(trader, ResourceType.FUEL, price, quantity)
+                            : market.placeSellOrder(trader, ResourceType.FUEL, price, quantity);
+                    if (order != null) {
+                        orders.add(order);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        market.flush();
+
+        // Cancel whatever still rests so all escrow comes home, then nothing may have been created or lost
+        for (List<Order> orders : placed) {
+            for (Order order : orders) {
+                market.cancelOrder(order);
+            }
+        }
+        market.flush();
+        long credits = 0;
+        long fuel = 0;
+        for (PlayerInventory trader : traders) {
+            credits += trader.getResourceAmount(ResourceType.CREDITS);
+            fuel += trader.getResourceAmount(ResourceType.FUEL);
+        }
+        assertEquals((long) TRADERS * STARTING_CREDITS, credits);
+        assertEquals((long) TRADERS * STARTING_FUEL, fuel);
+        assertTrue(market.getTradeCount(ResourceType.FUEL) > 0);
+        for (List<Order> orders : placed) {
+            for (Order order : orders) {
+                assertTrue(order.isDone());
+            }
+        }
+        market.shutdown();
+    }
+
+    private static PlayerInventory inventoryWith(int credits, int fuel) {
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.CREDITS, credits);
+        inventory.addResource(ResourceType.FUEL, fuel);
+        return inventory;
+    }
+}
@@ -0,0 +1,173 @@
+import edu.sdccd.cisc191.game.BuildOrder;
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.game.Shipyard;
+import edu.sdccd.cisc191.subsystems.HashedWheelTimer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShipyardBuildQueueTest {
+
+    // Saves into its own directory, and runs callbacks on the delivering thread since tests have no FX toolkit
+    private static Shipyard shipyard(Consumer<GalacticShip> onShipBuilt, int buildSlots, HashedWheelTimer timer, Path dir) {
+        return new Shipyard(onShipBuilt, buildSlots, timer, dir.resolve("fleet").toString(), null, Runnable::run);
+    }
+
+    @Test
+    public void testPriorityCancelAndRush() throws IOException {
+        List<GalacticShip> built = new CopyOnWriteArrayList<>();
+        Shipyard shipyard = shipyard(built::add, 1, new HashedWheelTimer("test-builds"), Files.createTempDirectory("builds"));
+
+        BuildOrder first = shipyard.buildShip("Cruiser");
+        BuildOrder low = shipyard.buildShip("Fighter", BuildOrder.Priority.LOW);
+        BuildOrder high = shipyard.buildShip("Battleship", BuildOrder.Priority.HIGH);
+        assertEquals(BuildOrder.Status.BUILDING, first.getStatus(), "One slot, taken by the first build");
+        assertEquals(2, shipyard.getQueuedBuildCount());
+        assertNull(shipyard.buildShip("Dreadnought"));
+
+        // Rushing frees the slot, and the high priority build jumps the earlier low priority one
+        assertTrue(shipyard.rushBuild(first));
+        assertEquals(1, built.size());
+        assertEquals(BuildOrder.Status.BUILDING, high.getStatus());
+        assertEquals(BuildOrder.Status.QUEUED, low.getStatus());
+
+        assertTrue(shipyard.cancelBuild(high));
+        assertFalse(shipyard.cancelBuild(high), "Already cancelled");
+        assertEquals(BuildOrder.Status.BUILDING, low.getStatus());
+        assertTrue(shipyard.rushBuild(low));
+        assertFalse(shipyard.rushBuild(first), "Already delivered");
+
+        assertEquals(0, shipyard.getActiveBuildCount());
+        assertEquals(0, shipyard.getQueuedBuildCount());
+        assertEquals(2, shipyard.getPlayerFleet().size());
+        shipyard.shutdown();
+    }
+
+    @Test
+    public void testTensOfThousandsOfBuildsOnOneTimerThread() throws InterruptedException, IOException {
+        int builds = 20_000;
+        Path dir = Files.createTempDirectory("builds");
+        CountDownLatch done = new CountDownLatch(builds);
+        int threadsBefore = Thread.activeCount();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Shipyard shipyard;
+        try {
+            shipyard = shipyard(ship -> done.countDown(), builds, new HashedWheelTimer("test-builds"), dir);
+            for (int i = 0; i < builds; i++) {
+                shipyard.buildShip("Fighter");
+            }
+            assertEquals(builds, shipyard.getActiveBuildCount());
+            assertTrue(Thread.activeCount() - threadsBefore <= 3, "Builds must not get a thread each");
+            assertTrue(done.await(10, TimeUnit.SECONDS), "Every build should finish");
+        } finally {
+            System.setOut(originalOut);
+        }
+        assertEquals(builds, shipyard.getPlayerFleet().size());
+        assertEquals(0, shipyard.getActiveBuildCount());
+        shipyard.shutdown();
+    }
+
+    @Test
+    public void testBatchIsPaidDeliveredAndSavedOnce() throws IOException {
+        Path dir = Files.createTempDirectory("batch");
+        HashedWheelTimer timer = new HashedWheelTimer("test-builds");
+        List<List<GalacticShip>> batches = new CopyOnWriteArrayList<>();
+        List<GalacticShip> singles = new CopyOnWriteArrayList<>();
+        Shipyard shipyard = shipyard(singles::add, 1, timer, dir);
+        shipyard.setOnBatchBuilt(batches::add);
+
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.MINERALS, 5_000);
+        inventory.addResource(ResourceType.ENERGY, 2_500);
+        Map<String, Integer> order = new LinkedHashMap<>();
+        order.put("Fighter", 500);
+        BuildOrder batch = shipyard.buildShips(order, BuildOrder.Priority.NORMAL, inventory);
+        assertEquals(500, batch.getShipCount());
+        assertEquals(0, inventory.getResourceAmount(ResourceType.MINERALS), "Debited 500 x 10 minerals in one go");
+        assertEquals(0, inventory.getResourceAmount(ResourceType.ENERGY));
+        assertEquals(1, shipyard.getActiveBuildCount(), "The whole batch holds one slot");
+
+        // Nothing left to pay with: the order is refused and nothing is taken
+        assertNull(shipyard.buildShips(order, BuildOrder.Priority.NORMAL, inventory));
+        assertNull(shipyard.buildShips("Dreadnought", 3));
+        assertNull(shipyard.buildShips("Fighter", 0));
+
+        assertTrue(shipyard.rushBuild(batch));
+        assertEquals(1, batches.size(), "One callback for the whole batch");
+        assertEquals(500, batches.get(0).size());
+        assertTrue(singles.isEmpty());
+        assertEquals(500, shipyard.getPlayerFleet().size());
+        shipyard.shutdown();
+
+        Shipyard reopened = shipyard(null, 1, timer, dir);
+        assertEquals(500, reopened.getPlayerFleet().size(), "The batch was saved as one record and replays whole");
+        reopened.shutdown();
+    }
+
+    @Test
+    public void testMixedBatchKeepsOrderAndCancelsAsUnit() throws IOException {
+        List<GalacticShip> built = new CopyOnWriteArrayList<>();
+        Shipyard shipyard = shipyard(built::add, 1, new HashedWheelTimer("test-builds"), Files.createTempDirectory("builds"));
+        BuildOrder blocker = shipyard.buildShip("Fighter");
+
+        Map<String, Integer> mixed = new LinkedHashMap<>();
+        mixed.put("Battleship", 1);
+        mixed.put("Fighter", 2);
+        mixed.put("Cruiser", 1);
+        BuildOrder cancelled = shipyard.buildShips(mixed, BuildOrder.Priority.NORMAL, null);
+        BuildOrder kept = shipyard.buildShips(mixed, BuildOrder.Priority.NORMAL, null);
+        assertNull(cancelled.getShipType(), "A mixed batch has no single type");
+        assertEquals(4, cancelled.getShipCount());
+
+        assertTrue(shipyard.cancelBuild(cancelled));
+        assertTrue(shipyard.rushBuild(blocker));
+        assertTrue(shipyard.rushBuild(kept));
+        assertEquals(5, built.size(), "The cancelled batch delivered nothing");
+        assertEquals(List.of("Fighter", "Battleship", "Fighter", "Fighter", "Cruiser"),
+                built.stream().map(GalacticShip::getName).toList());
+        shipyard.shutdown();
+    }
+
+    @Test
+    public void testCancelAndShutdownRefundPaidBuilds() throws IOException {
+        Shipyard shipyard = shipyard(null, 1, new HashedWheelTimer("test-builds"), Files.createTempDirectory("builds"));
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.MINERALS, 45);
+        inventory.addResource(ResourceType.ENERGY, 22);
+
+        BuildOrder building = shipyard.buildShips(Map.of("Cruiser", 1), BuildOrder.Priority.NORMAL, inventory);
+        BuildOrder queued = shipyard.buildShips(Map.of("Battleship", 1), BuildOrder.Priority.NORMAL, inventory);
+        BuildOrder cancelled = shipyard.buildShips(Map.of("Fighter", 1), BuildOrder.Priority.NORMAL, inventory);
+        assertEquals(BuildOrder.Status.BUILDING, building.getStatus());
+        assertEquals(0, inventory.getResourceAmount(ResourceType.MINERALS), "All three paid up front");
+        assertEquals(0, inventory.getResourceAmount(ResourceType.ENERGY));
+
+        assertTrue(shipyard.cancelBuild(cancelled));
+        assertFalse(shipyard.cancelBuild(cancelled), "Refunded once only");
+        assertEquals(10, inventory.getResourceAmount(ResourceType.MINERALS));
+        assertEquals(5, inventory.getResourceAmount(ResourceType.ENERGY));
+
+        shipyard.shutdown();
+        assertEquals(BuildOrder.Status.CANCELLED, building.getStatus());
+        assertEquals(BuildOrder.Status.CANCELLED, queued.getStatus());
+        assertEquals(45, inventory.getResourceAmount(ResourceType.MINERALS), "Unfinished builds are refunded on exit");
+        assertEquals(22, inventory.getResourceAmount(ResourceType.ENERGY));
+        assertTrue(shipyard.getPlayerFleet().isEmpty());
+    }
+}
@@ -0,0 +1,105 @@
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.Shipyard;
+import edu.sdccd.cisc191.subsystems.HashedWheelTimer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShipyardJournalTest {
+
+    private static Shipyard open(Path dir) {
+        return new Shipyard(null, 1, new HashedWheelTimer("test-journal"), dir.resolve("fleet").toString());
+    }
+
+    private static void build(Shipyard shipyard, String type) {
+        assertTrue(shipyard.rushBuild(shipyard.buildShip(type)));
+    }
+
+    private static long journalFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith("fleet.journal.")).count();
+        }
+    }
+
+    @Test
+    public void testFleetSurvivesRestart() throws IOException {
+        Path dir = Files.createTempDirectory("shipyard-journal");
+        Shipyard shipyard = open(dir);
+        build(shipyard, "Fighter");
+        build(shipyard, "Cruiser");
+        build(shipyard, "Battleship");
+        shipyard.upgradeShip("Cruiser");
+        assertNotNull(shipyard.scrapShip("Fighter"));
+        assertNull(shipyard.scrapShip("Dreadnought"));
+        shipyard.shutdown();
+
+        Shipyard reopened = open(dir);
+        List<GalacticShip> fleet = reopened.getPlayerFleet();
+        assertEquals(2, fleet.size());
+        assertEquals("Cruiser", fleet.get(0).getName());
+        assertEquals("Battleship", fleet.get(1).getName());
+        assertEquals(300, fleet.get(1).getMaxHealth());
+        assertEquals(60, fleet.get(1).getAttackPower());
+        assertFalse(Files.exists(dir.resolve("fleet.snapshot")), "A short journal isn't worth compacting");
+        reopened.shutdown();
+    }
+
+    @Test
+    public void testLongJournalIsCompactedIntoSnapshot() throws IOException {
+        Path dir = Files.createTempDirectory("shipyard-journal");
+        int builds = 3000;
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Shipyard shipyard = open(dir);
+            for (int i = 0; i < builds; i++) {
+                build(shipyard, i % 2 == 0 ? "Fighter" : "Cruiser");
+            }
+            shipyard.scrapShip("Fighter");
+            shipyard.shutdown();
+
+            assertTrue(Files.exists(dir.resolve("fleet.snapshot")));
+            assertEquals(1, journalFiles(dir), "Journals covered by the snapshot are deleted");
+
+            Shipyard reopened = open(dir);
+            List<GalacticShip> fleet = reopened.getPlayerFleet();
+            assertEquals(builds - 1, fleet.size());
+            assertEquals("Cruiser", fleet.get(0).getName(), "The first Fighter was scrapped");
+            reopened.shutdown();
+        } finally {
+            System.setOut(originalOut);
+        }
+    }
+
+    @Test
+    public void testTornRecordAtEndOfJournalIsDropped() throws IOException {
+        Path dir = Files.createTempDirectory("shipyard-journal");
+        Shipyard shipyard = open(dir);
+        build(shipyard, "Fighter");
+        build(shipyard, "Battleship");
+        shipyard.shutdown();
+
+        // A crash halfway through appending leaves a length prefix with too few bytes after it
+        Files.write(dir.resolve("fleet.journal.0"), new byte[]{0, 0, 0, 40, 1, 0}, StandardOpenOption.APPEND);
+
+        Shipyard reopened = open(dir);
+        assertEquals(2, reopened.getPlayerFleet().size());
+        build(reopened, "Cruiser");
+        reopened.shutdown();
+
+        Shipyard again = open(dir);
+        List<GalacticShip> fleet = again.getPlayerFleet();
+        assertEquals(3, fleet.size(), "Appends after recovery must not land behind the torn bytes");
+        assertEquals("Cruiser", fleet.get(2).getName());
+        again.shutdown();
+    }
+}
@@ -0,0 +1,125 @@
+import edu.sdccd.cisc191.game.SnapshotFile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotFileTest {
+
+    private static Map<String, ByteBuffer> records(String... names) {
+        Map<String, ByteBuffer> records = new LinkedHashMap<>();
+        for (String name : names) {
+            records.put(name, ByteBuffer.wrap((name + " payload").getBytes()));
+        }
+        return records;
+    }
+
+    private static String text(ByteBuffer body) {
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        return new String(bytes);
+    }
+
+    @Test
+    public void testRoundTripKeepsOrderAndContents() throws IOException {
+        Path file = Files.createTempDirectory("snapshot").resolve("world");
+        SnapshotFile.write(file, records("fleet", "inventory", "board"), true);
+        try (SnapshotFile snapshot = SnapshotFile.open(file)) {
+            assertEquals(List.of("fleet", "inventory", "board"), List.copyOf(snapshot.names()));
+            assertEquals("inventory payload", text(snapshot.get("inventory")));
+            assertEquals("fleet payload", text(snapshot.get("fleet")), "Each get starts at the record's beginning");
+            assertNull(snapshot.get("missing"));
+        }
+        assertFalse(Files.exists(file.resolveSibling("world.tmp")), "The temp file is renamed away");
+    }
+
+    @Test
+    public void testTruncatedFileIsRejectedWhereverItWasCut() throws IOException {
+        Path file = Files.createTempDirectory("snapshot").resolve("world");
+        SnapshotFile.write(file, records("fleet", "inventory"), false);
+        long size = Files.size(file);
+        Path cut = file.resolveSibling("cut");
+        for (long length = 0; length < size; length += 3) {
+            Files.copy(file, cut, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(cut, StandardOpenOption.WRITE)) {
+                channel.truncate(length);
+            }
+            assertThrows(IOException.class, () -> SnapshotFile.open(cut).close(), "Cut at " + length + " of " + size);
+        }
+    }
+
+    @Test
+    public void testDamagedRecordIsReportedOnlyWhenRead() throws IOException {
+        Path file = Files.createTempDirectory("snapshot").resolve("world");
+        SnapshotFile.write(file, records("fleet", "inventory"), false);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 6 + 8 + 2); // inside the first record's body
+        }
+        try (SnapshotFile snapshot = SnapshotFile.open(file)) {
+            assertEquals("inventory payload", text(snapshot.get("inventory")));
+            assertThrows(IOException.class, () -> snapshot.get("fleet"));
+        }
+    }
+
+    @Test
+    public void testCrashBeforeRenameLeavesOldSnapshotIntact() throws IOException {
+        Path file = Files.createTempDirectory("snapshot").resolve("world");
+        SnapshotFile.write(file, records("fleet"), false);
+        // A crash mid-write leaves a partial temp file beside the real one
+        Files.write(file.resolveSibling("world.tmp"), new byte[]{1, 2, 3});
+        try (SnapshotFile snapshot = SnapshotFile.open(file)) {
+            assertEquals("fleet payload", text(snapshot.get("fleet")));
+        }
+        SnapshotFile.write(file, records("board"), false);
+        try (SnapshotFile snapshot = SnapshotFile.open(file)) {
+            assertEquals(List.of("board"), List.copyOf(snapshot.names()));
+        }
+    }
+
+    // testDamagedRecordIsReportedOnlyWhenRead checks that open skips the bodies; this times it on 128 MB
+    @Test
+    @Tag("benchmark")
+    public void testOpeningLargeSnapshotOnlyReadsTheIndex() throws IOException {
+        Path dir = Files.createTempDirectory("snapshot");
+        Path small = dir.resolve("small");
+        Path large = dir.resolve("large");
+        SnapshotFile.write(small, records("fleet"), false);
+        Map<String, ByteBuffer> big = new LinkedHashMap<>();
+        ByteBuffer chunk = ByteBuffer.allocate(4 << 20);
+        for (int i = 0; i < 32; i++) {
+            big.put("chunk-" + i, chunk.duplicate());
+        }
+        SnapshotFile.write(large, big, false);
+
+        long smallNanos = timeOpen(small);
+        long largeNanos = timeOpen(large);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(largeNanos) < 50, "Opening should not read record bodies: "
+                + (Files.size(large) >> 20) + " MB took " + largeNanos / 1000 + " us, "
+                + Files.size(small) / 1024 + " KB took " + smallNanos / 1000 + " us");
+
+        try (SnapshotFile snapshot = SnapshotFile.open(large)) {
+            assertEquals(4 << 20, snapshot.get("chunk-31").remaining());
+        }
+    }
+
+    private static long timeOpen(Path file) throws IOException {
+        SnapshotFile.open(file).close(); // warm up
+        long begin = System.nanoTime();
+        try (SnapshotFile snapshot = SnapshotFile.open(file)) {
+            assertFalse(snapshot.names().isEmpty());
+        }
+        return System.nanoTime() - begin;
+    }
+}
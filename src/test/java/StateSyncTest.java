@@ -0,0 +1,172 @@
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.network.StateSync;
+import edu.sdccd.cisc191.network.WireProtocol;
+import edu.sdccd.cisc191.network.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateSyncTest {
+
+    // A client's side of the protocol: applies updates in tick order and acks what it applied
+    private static final class Player {
+        final List<ByteBuffer> inbox = new ArrayList<>();
+        final Map<Long, Integer> state = new HashMap<>();
+        long applied = -1;
+        StateSync.Client client;
+
+        // Applies everything received; returns the tick to ack, or -1 if nothing new arrived
+        long receive() {
+            long newest = -1;
+            for (ByteBuffer bytes : inbox) {
+                WireProtocol.Frame frame = new WireProtocol.Frame().wrap(bytes, bytes.remaining());
+                assertEquals(WireProtocol.MessageType.STATE_UPDATE, frame.type());
+                if (frame.stateTick() > applied) {
+                    StateSync.applyUpdate(frame.stateBody(), state);
+                    applied = frame.stateTick();
+                    newest = applied;
+                }
+            }
+            inbox.clear();
+            return newest;
+        }
+    }
+
+    private static Player join(StateSync sync, int playerId) {
+        Player player = new Player();
+        player.client = sync.register(playerId, player.inbox::add);
+        return player;
+    }
+
+    // Ticks with prompt acks until nothing more is sent
+    private static void settle(StateSync sync, Player... players) {
+        for (int i = 0; i < 1_000; i++) {
+            long sent = sync.getUpdatesSent();
+            sync.tick();
+            for (Player player : players) {
+                long tick = player.receive();
+                if (tick >= 0) {
+                    sync.acknowledge(player.client, tick);
+                }
+            }
+            if (sync.getUpdatesSent() == sent) {
+                return;
+            }
+        }
+        fail("Never settled");
+    }
+
+    @Test
+    public void testClientsConvergeDespiteLostAndLateAcks() {
+        WorldState world = new WorldState();
+        StateSync sync = new StateSync(world, 8);
+        Player nova = join(sync, 1);
+        Player orion = join(sync, 2);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int tick = 0; tick < 300; tick++) {
+            for (int change = 0; change < 5; change++) {
+                int ship = random.nextInt(40);
+                long key = WorldState.key(WorldState.Kind.SHIP_HEALTH, ship);
+                if (random.nextInt(10) == 0) {
+                    world.removeShip(ship);
+                    expected.remove(key);
+                    expected.remove(WorldState.key(WorldState.Kind.SHIP_POSITION, ship));
+                } else {
+                    int health = random.nextInt(3) * 50; // values repeat, so some changes undo older ones
+                    world.setShipHealth(ship, health);
+                    expected.put(key, health);
+                }
+            }
+            world.setInventory(1, ResourceType.FUEL, tick);
+            world.setInventory(2, ResourceType.FUEL, -tick);
+            sync.tick();
+            // Nova loses a third of its updates, as a coalescing queue would; Orion only acks every third tick
+            if (random.nextInt(3) == 0) {
+                nova.inbox.clear();
+            }
+            long novaTick = nova.receive();
+            if (novaTick >= 0 && random.nextBoolean()) {
+                sync.acknowledge(nova.client, novaTick);
+            }
+            if (tick % 3 == 2) {
+                sync.acknowledge(orion.client, orion.receive());
+            }
+        }
+        settle(sync, nova, orion);
+
+        Map<Long, Integer> novaView = new HashMap<>(expected);
+        novaView.put(WorldState.key(WorldState.Kind.INVENTORY, WorldState.inventoryId(1, ResourceType.FUEL)), 299);
+        Map<Long, Integer> orionView = new HashMap<>(expected);
+        orionView.put(WorldState.key(WorldState.Kind.INVENTORY, WorldState.inventoryId(2, ResourceType.FUEL)), -299);
+        assertEquals(novaView, nova.state, "Nothing lost, and only its own inventory");
+        assertEquals(orionView, orion.state);
+    }
+
+    @Test
+    public void testClientThatStopsAckingIsResynced() {
+        WorldState world = new WorldState();
+        for (int ship = 0; ship < 100; ship++) {
+            world.setShipHealth(ship, 100);
+        }
+        StateSync sync = new StateSync(world, 16);
+        Player player = join(sync, 1);
+        for (int tick = 0; tick < 80; tick++) {
+            world.setShipHealth(tick, 1);
+            sync.tick(); // no acks at all
+            player.receive();
+        }
+        assertEquals(2, sync.getSnapshotCount(), "One on joining, one after too many unacked updates");
+        settle(sync, player);
+        assertEquals(100, player.state.size());
+        assertEquals(Integer.valueOf(1), player.state.get(WorldState.key(WorldState.Kind.SHIP_HEALTH, 79)));
+        assertEquals(Integer.valueOf(100), player.state.get(WorldState.key(WorldState.Kind.SHIP_HEALTH, 80)));
+
+        long sent = sync.getUpdatesSent();
+        sync.tick();
+        assertEquals(sent, sync.getUpdatesSent(), "An idle world sends nothing");
+    }
+
+    @Test
+    public void testBandwidthPerClientStaysFlatAsWorldGrows() {
+        int ticks = 200;
+        int changesPerTick = 20;
+        long[] bytesPerTick = new long[3];
+        int[] sizes = {1_000, 10_000, 100_000};
+        for (int s = 0; s < sizes.length; s++) {
+            WorldState world = new WorldState();
+            for (int ship = 0; ship < sizes[s]; ship++) {
+                world.setShipHealth(ship, 100);
+                world.moveShip(ship, ship % 5, ship % 7);
+            }
+            StateSync sync = new StateSync(world, StateSync.DEFAULT_MAX_ENTRIES);
+            Player player = join(sync, 1);
+            settle(sync, player); // the snapshot, drained a capped update at a time
+            assertEquals(sizes[s] * 2, player.state.size());
+
+            long before = player.client.getBytesSent();
+            Random random = new Random(11);
+            for (int tick = 0; tick < ticks; tick++) {
+                for (int change = 0; change < changesPerTick; change++) {
+                    int ship = random.nextInt(sizes[s]);
+                    world.setShipHealth(ship, random.nextInt(100));
+                }
+                sync.tick();
+                sync.acknowledge(player.client, player.receive());
+            }
+            bytesPerTick[s] = (player.client.getBytesSent() - before) / ticks;
+        }
+        assertTrue(bytesPerTick[2] < bytesPerTick[0] * 2, "A 100x larger world should cost about the same per tick: "
+                + bytesPerTick[0] + " bytes/tick with 1k ships, " + bytesPerTick[1] + " with 10k, "
+                + bytesPerTick[2] + " with 100k");
+        assertTrue(bytesPerTick[2] < changesPerTick * 20, "Only changes are sent, not the world");
+    }
+}
@@ -0,0 +1,99 @@
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceCost;
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.subsystems.TradeSystem;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TradeSystemTest {
+
+    private static final int PLAYERS = 10_000;
+    private static final int THREADS = 8;
+    private static final int SWAPS_PER_THREAD = 250_000;
+
+    @Test
+    public void testSwapIsAllOrNothing() {
+        TradeSystem tradeSystem = new TradeSystem();
+        PlayerInventory miner = new PlayerInventory();
+        miner.addResource(ResourceType.MINERALS, 20);
+        PlayerInventory merchant = new PlayerInventory();
+        merchant.addResource(ResourceType.CREDITS, 50);
+
+        assertTrue(tradeSystem.swapResources(miner, ResourceCost.of(ResourceType.MINERALS, 20),
+                merchant, ResourceCost.of(ResourceType.CREDITS, 40)));
+        assertEquals(40, miner.getResourceAmount(ResourceType.CREDITS));
+        assertEquals(20, merchant.getResourceAmount(ResourceType.MINERALS));
+        assertEquals(10, merchant.getResourceAmount(ResourceType.CREDITS));
+
+        // The merchant can't pay, so the miner's reserved minerals go back
+        assertFalse(tradeSystem.swapResources(merchant, ResourceCost.of(ResourceType.MINERALS, 5),
+                miner, ResourceCost.of(ResourceType.FUEL, 1)));
+        assertEquals(20, merchant.getResourceAmount(ResourceType.MINERALS));
+        assertEquals(0, miner.getResourceAmount(ResourceType.MINERALS));
+        assertThrows(IllegalArgumentException.class, () -> tradeSystem.swapResources(miner,
+                ResourceCost.of(ResourceType.CREDITS, 1), miner, ResourceCost.of(ResourceType.CREDITS, 1)));
+        tradeSystem.shutdown();
+    }
+
+    @Test
+    public void testRandomPairwiseSwapsAcross10kPlayers() throws InterruptedException {
+        TradeSystem tradeSystem = new TradeSystem();
+        PlayerInventory[] inventories = new PlayerInventory[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            inventories[i] = new PlayerInventory();
+            inventories[i].addResource(ResourceType.FUEL, 100);
+            inventories[i].addResource(ResourceType.CREDITS, 100);
+        }
+        AtomicInteger completed = new AtomicInteger();
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < SWAPS_PER_THREAD; i++) {
+                    int a = random.nextInt(PLAYERS);
+                    int b = random.nextInt(PLAYERS - 1);
+                    if (b >= a) {
+                        b++; // never trade with yourself
+                    }
+                    // Opposite directions on the same pair are what would deadlock with naive locking
+                    ResourceCost fuel = ResourceCost.of(ResourceType.FUEL, 1 + random.nextInt(30));
+                    ResourceCost credits = ResourceCost.of(ResourceType.CREDITS, 1 + random.nextInt(30));
+                    if (tradeSystem.swapResources(inventories[a], fuel, inventories[b], credits)) {
+                        completed.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long fuel = 0;
+        long credits = 0;
+        for (PlayerInventory inventory : inventories) {
+            assertTrue(inventory.getResourceAmount(ResourceType.FUEL) >= 0);
+            assertTrue(inventory.getResourceAmount(ResourceType.CREDITS) >= 0);
+            fuel += inventory.getResourceAmount(ResourceType.FUEL);
+            credits += inventory.getResourceAmount(ResourceType.CREDITS);
+        }
+        assertEquals(100L * PLAYERS, fuel, "Swaps must neither create nor lose fuel");
+        assertEquals(100L * PLAYERS, credits, "Swaps must neither create nor lose credits");
+        assertTrue(completed.get() > 0);
+        tradeSystem.shutdown();
+    }
+}
@@ -0,0 +1,196 @@
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.network.WireProtocol;
+import edu.sdccd.cisc191.subsystems.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WireProtocolTest {
+    private static final byte[] FIGHTER = "Fighter".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testEveryMessageTypeRoundTripsInPlace() {
+        ByteBuffer wire = ByteBuffer.allocate(1024);
+        WireProtocol.writeJoin(wire, "p-17", "Nova");
+        WireProtocol.writeBuild(wire, "Fighter", 3);
+        WireProtocol.writeTrade(wire, Order.Side.SELL, ResourceType.DILITHIUM, 40, 12);
+        WireProtocol.writeExplore(wire, "Andromeda");
+        WireProtocol.writeStateUpdate(wire, 99L, ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        WireProtocol.writeChat(wire, "gg");
+        WireProtocol.writeLeave(wire, "p-17");
+        WireProtocol.writeMove(wire, 3, -4);
+        WireProtocol.writeAck(wire, 99L);
+        wire.flip();
+
+        WireProtocol.Frame frame = new WireProtocol.Frame();
+        StringBuilder seen = new StringBuilder();
+        int length;
+        while ((length = WireProtocol.frameLength(wire)) > 0) {
+            assertSame(frame, frame.wrap(wire, length), "The same view is reused for every frame");
+            switch (frame.type()) {
+                case BUILD:
+                    assertEquals(3, frame.buildCount());
+                    assertTrue(frame.stringEquals(0, FIGHTER));
+                    break;
+                case TRADE:
+                    assertEquals(Order.Side.SELL, frame.tradeSide());
+                    assertEquals(ResourceType.DILITHIUM, frame.tradeResource());
+                    assertEquals(40, frame.tradeQuantity());
+                    assertEquals(12, frame.tradePrice());
+                    break;
+                case STATE_UPDATE:
+                    assertEquals(99L, frame.stateTick());
+                    assertEquals(ByteBuffer.wrap(new byte[]{1, 2, 3}), frame.stateBody());
+                    break;
+                case MOVE:
+                    assertEquals(3, frame.moveRow());
+                    assertEquals(-4, frame.moveCol());
+                    break;
+                default:
+                    break;
+            }
+            seen.append(frame).append('|');
+            wire.position(wire.position() + length);
+        }
+        assertEquals("JOIN p-17 Nova|BUILD 3 Fighter|TRADE SELL 40 Dilithium @ 12|EXPLORE Andromeda|"
+                + "STATE_UPDATE tick 99 (3 bytes)|gg|LEAVE p-17|MOVE 3 -4|ACK tick 99|", seen.toString());
+        assertFalse(wire.hasRemaining());
+    }
+
+    @Test
+    public void testPartialAndMalformedFrames() {
+        ByteBuffer wire = ByteBuffer.allocate(64);
+        WireProtocol.writeExplore(wire, "Mars");
+        wire.flip();
+        int full = wire.remaining();
+        for (int cut = 0; cut < full; cut++) {
+            assertEquals(-1, WireProtocol.frameLength(wire.duplicate().limit(cut)), "Cut at " + cut);
+        }
+        assertEquals(full, WireProtocol.frameLength(wire));
+
+        ByteBuffer unknownType = ByteBuffer.allocate(8).putShort((short) 1).put((byte) 42).flip();
+        assertNull(new WireProtocol.Frame().wrap(unknownType, WireProtocol.frameLength(unknownType)));
+        ByteBuffer shortTrade = ByteBuffer.allocate(8).putShort((short) 3).put((byte) 6).putShort((short) 0).flip();
+        assertNull(new WireProtocol.Frame().wrap(shortTrade, WireProtocol.frameLength(shortTrade)), "Fixed fields missing");
+    }
+
+    @Test
+    public void testBinaryFramesAreSmallerThanLines() {
+        ByteBuffer[] wires = sampleTraffic(20_000);
+        long[] text = relayText(wires[0].duplicate());
+        long[] binary = relayBinary(wires[1].duplicate());
+        assertEquals(text[0], binary[0], "Both paths must see the same content");
+        long textBytes = wires[0].remaining() + text[1];
+        long binaryBytes = wires[1].remaining() + binary[1];
+        assertTrue(binaryBytes < textBytes, "Binary frames should be smaller: " + binaryBytes + " bytes, text " + textBytes);
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testBinaryBeatsTextOnCpu() {
+        int messages = 200_000;
+        ByteBuffer[] wires = sampleTraffic(messages);
+        ByteBuffer textWire = wires[0];
+        ByteBuffer binaryWire = wires[1];
+        for (int round = 0; round < 5; round++) {
+            relayText(textWire.duplicate());
+            relayBinary(binaryWire.duplicate());
+        }
+        long textNanos = time(() -> relayText(textWire.duplicate()));
+        long binaryNanos = time(() -> relayBinary(binaryWire.duplicate()));
+        assertTrue(binaryNanos < textNanos, "Decoding frames in place should beat parsing lines: binary "
+                + binaryNanos / messages + " ns/msg, text " + textNanos / messages + " ns/msg");
+    }
+
+    // The same mix of messages as text lines and as frames: {text, binary}, both ready to read
+    private static ByteBuffer[] sampleTraffic(int messages) {
+        String[] lines = {
+                "BUILD Fighter 3",
+                "TRADE SELL Dilithium 40 12",
+                "EXPLORE Andromeda",
+                "STATE 123456 100 90 80 70 60 50 40 30 200 180 160 140 5 6 7 8",
+        };
+        ByteBuffer textWire = ByteBuffer.allocate(messages * 80);
+        ByteBuffer binaryWire = ByteBuffer.allocate(messages * 80);
+        ByteBuffer state = ByteBuffer.allocate(16 * Short.BYTES);
+        for (int v : new int[]{100, 90, 80, 70, 60, 50, 40, 30, 200, 180, 160, 140, 5, 6, 7, 8}) {
+            state.putShort((short) v);
+        }
+        state.flip();
+        for (int i = 0; i < messages; i++) {
+            textWire.put((lines[i % 4] + "\n").getBytes(StandardCharsets.UTF_8));
+            switch (i % 4) {
+                case 0 -> WireProtocol.writeBuild(binaryWire, "Fighter", 3);
+                case 1 -> WireProtocol.writeTrade(binaryWire, Order.Side.SELL, ResourceType.DILITHIUM, 40, 12);
+                case 2 -> WireProtocol.writeExplore(binaryWire, "Andromeda");
+                default -> WireProtocol.writeStateUpdate(binaryWire, 123456L, state);
+            }
+        }
+        return new ByteBuffer[]{textWire.flip(), binaryWire.flip()};
+    }
+
+    private static long time(Runnable run) {
+        long begin = System.nanoTime();
+        run.run();
+        return System.nanoTime() - begin;
+    }
+
+    // The text server's path: cut a line, parse its words, and relay "Player: " + line; returns {checksum, bytes out}
+    private static long[] relayText(ByteBuffer wire) {
+        long checksum = 0;
+        long bytesOut = 0;
+        int lineStart = wire.position();
+        for (int i = lineStart; i < wire.limit(); i++) {
+            if (wire.get(i) == '\n') {
+                byte[] bytes = new byte[i - lineStart];
+                wire.get(lineStart, bytes);
+                String line = new String(bytes, StandardCharsets.UTF_8);
+                String[] words = line.split(" ");
+                switch (words[0]) {
+                    case "BUILD" -> checksum += Integer.parseInt(words[2]) + (words[1].equals("Fighter") ? 1 : 0);
+                    case "TRADE" -> checksum += Integer.parseInt(words[3]) * 31L + Integer.parseInt(words[4]);
+                    case "EXPLORE" -> checksum += words[1].length();
+                    default -> {
+                        checksum += Long.parseLong(words[1]);
+                        for (int w = 2; w < words.length; w++) {
+                            checksum += Integer.parseInt(words[w]);
+                        }
+                    }
+                }
+                bytesOut += ("Player: " + line + "\n").getBytes(StandardCharsets.UTF_8).length;
+                lineStart = i + 1;
+            }
+        }
+        return new long[]{checksum, bytesOut};
+    }
+
+    // The binary path: wrap each frame in place, read its fields, and relay a copy of its bytes
+    private static long[] relayBinary(ByteBuffer wire) {
+        WireProtocol.Frame frame = new WireProtocol.Frame();
+        long checksum = 0;
+        long bytesOut = 0;
+        int length;
+        while ((length = WireProtocol.frameLength(wire)) > 0) {
+            frame.wrap(wire, length);
+            switch (frame.type()) {
+                case BUILD -> checksum += frame.buildCount() + (frame.stringEquals(0, FIGHTER) ? 1 : 0);
+                case TRADE -> checksum += frame.tradeQuantity() * 31L + frame.tradePrice();
+                case EXPLORE -> checksum += frame.string(0).length();
+                default -> {
+                    checksum += frame.stateTick();
+                    ByteBuffer body = frame.stateBody();
+                    while (body.hasRemaining()) {
+                        checksum += body.getShort();
+                    }
+                }
+            }
+            bytesOut += frame.copy().remaining();
+            wire.position(wire.position() + length);
+        }
+        return new long[]{checksum, bytesOut};
+    }
+}